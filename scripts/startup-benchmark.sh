@@ -0,0 +1,81 @@
+#!/usr/bin/env bash
+# Startup-time benchmark: time from JVM launch to the first successful
+# GET /api/public/health-check, for each startup mode.
+#
+# Build first with:   mvn -Pproduction package
+# Then run:           scripts/startup-benchmark.sh [runs]
+#
+# Needs the database from application.yml to be reachable. Environment:
+#   BASE_URL   health-check base (default http://localhost:8081/myapp)
+#   TIMEOUT_S  give up on a single start after this many seconds (default 120)
+#   POLL_S     health-check poll interval in seconds (default 0.25)
+set -euo pipefail
+
+RUNS=${1:-5}
+BASE_URL=${BASE_URL:-http://localhost:8081/myapp}
+TIMEOUT_S=${TIMEOUT_S:-120}
+POLL_S=${POLL_S:-0.25}
+
+cd "$(dirname "$0")/.."
+APP_DIR=target/app
+FAT_JAR=$(ls target/social.media-*.jar | grep -v original | head -1)
+JAR=$(ls "$APP_DIR"/social.media-*.jar | head -1)
+ARCHIVE=$APP_DIR/application.jsa
+
+if [[ ! -f "$JAR" || ! -f "$ARCHIVE" ]]; then
+  echo "Missing $APP_DIR; build with: mvn -Pproduction package" >&2
+  exit 1
+fi
+if curl -sf "$BASE_URL/api/public/health-check" >/dev/null; then
+  echo "Something is already answering on $BASE_URL; stop it first" >&2
+  exit 1
+fi
+
+declare -a MODES=(
+  "fat-jar|-jar $FAT_JAR"
+  "extracted|-jar $JAR"
+  "prod-profile|-Dspring.profiles.active=prod -jar $JAR"
+  "prod+aot|-Dspring.profiles.active=prod -Dspring.aot.enabled=true -jar $JAR"
+  "prod+aot+cds|-XX:SharedArchiveFile=$ARCHIVE -Xlog:cds=error -Dspring.profiles.active=prod -Dspring.aot.enabled=true -jar $JAR"
+)
+
+now_ms() { date +%s%3N; }
+
+# Prints the milliseconds until the health check first answers, then stops the JVM.
+start_once() {
+  local args=$1 start pid elapsed
+  start=$(now_ms)
+  # shellcheck disable=SC2086
+  java $args >/dev/null 2>&1 &
+  pid=$!
+  # Poll gently: on small machines a tight curl loop steals CPU from the JVM being measured.
+  while ! curl -sf -o /dev/null "$BASE_URL/api/public/health-check"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "JVM exited before becoming healthy: java $args" >&2
+      return 1
+    fi
+    if (( $(now_ms) - start > TIMEOUT_S * 1000 )); then
+      kill "$pid"; wait "$pid" 2>/dev/null || true
+      echo "Timed out after ${TIMEOUT_S}s: java $args" >&2
+      return 1
+    fi
+    sleep "$POLL_S"
+  done
+  elapsed=$(( $(now_ms) - start ))
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "$elapsed"
+}
+
+printf '%-16s %10s %10s %10s\n' mode min_ms median_ms max_ms
+for mode in "${MODES[@]}"; do
+  name=${mode%%|*}
+  args=${mode#*|}
+  start_once "$args" >/dev/null   # warm the page cache, not measured
+  samples=()
+  for ((i = 0; i < RUNS; i++)); do
+    samples+=("$(start_once "$args")")
+  done
+  sorted=($(printf '%s\n' "${samples[@]}" | sort -n))
+  printf '%-16s %10s %10s %10s\n' "$name" "${sorted[0]}" "${sorted[$((RUNS / 2))]}" "${sorted[$((RUNS - 1))]}"
+done
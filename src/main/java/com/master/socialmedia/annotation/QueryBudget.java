@@ -0,0 +1,18 @@
+package com.master.socialmedia.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a handler may issue per request, whatever
+ * the size of the data it returns. Requests over budget are logged and counted
+ * by {@link com.master.socialmedia.filter.SqlBudgetInterceptor}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
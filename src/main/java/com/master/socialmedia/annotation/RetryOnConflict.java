@@ -0,0 +1,17 @@
+package com.master.socialmedia.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs a transactional service method, in a fresh transaction, when it
+ * fails with an optimistic or pessimistic locking conflict. Attempts are
+ * bounded and spaced by a jittered backoff; see
+ * {@link com.master.socialmedia.config.ConflictRetryAspect}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
@@ -0,0 +1,77 @@
+package com.master.socialmedia.config;
+
+import com.master.socialmedia.annotation.RetryOnConflict;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries {@link RetryOnConflict} methods that lose an optimistic version
+ * check, a deadlock or a lock wait. Ordered just outside the transaction
+ * interceptor, so every attempt runs in a new transaction against freshly
+ * loaded entities. Backoff is exponential with full jitter so that writers
+ * colliding on the same row spread out instead of colliding again.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@RequiredArgsConstructor
+public class ConflictRetryAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${conflict-retry.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${conflict-retry.base-backoff-ms}")
+    private long baseBackoffMs;
+
+    @Value("${conflict-retry.max-backoff-ms}")
+    private long maxBackoffMs;
+
+    @Around("@annotation(com.master.socialmedia.annotation.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Joined to a caller's transaction: only the caller can start over.
+            return joinPoint.proceed();
+        }
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName() + "."
+                + joinPoint.getSignature().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (ConcurrencyFailureException e) {
+                meterRegistry.counter("conflict.detected", "operation", operation).increment();
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("conflict.exhausted", "operation", operation).increment();
+                    log.warn("{} still conflicting after {} attempts", operation, attempt);
+                    throw e;
+                }
+                meterRegistry.counter("conflict.retries", "operation", operation).increment();
+                try {
+                    Thread.sleep(backoffMillis(attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private long backoffMillis(int attempt) {
+        long cap = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+}
@@ -0,0 +1,23 @@
+package com.master.socialmedia.config;
+
+import com.master.socialmedia.utils.SqlStatementCounter;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfig {
+
+    /** Counts every statement for the per-request {@code @QueryBudget} check, whether it comes from JPA or JDBC. */
+    @Bean
+    static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? SqlStatementCounter.wrap(dataSource) : bean;
+            }
+        };
+    }
+}
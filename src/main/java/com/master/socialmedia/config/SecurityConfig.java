@@ -1,22 +1,32 @@
 package com.master.socialmedia.config;
 
+import com.master.socialmedia.filter.IdempotencyFilter;
 import com.master.socialmedia.filter.JwtFilter;
+import com.master.socialmedia.filter.RateLimitFilter;
 import com.master.socialmedia.serviceimpl.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Set;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -24,22 +34,44 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtFilter jwtFilter;
+    private final IdempotencyFilter idempotencyFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final UserDetailsServiceImpl userDetailsService;
 
+    @Value("${admin.usernames:}")
+    private Set<String> adminUsernames;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
 
         return http
                 .authorizeHttpRequests(request -> request
-                        .requestMatchers("/api/public/**").permitAll()
-                        .requestMatchers("/api/posts/**", "/api/users/**").authenticated()
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/api/public/**", "/actuator/health/**").permitAll()
+                        // Metrics expose rate-limit, moderation, revocation and graph internals.
+                        .requestMatchers("/actuator/**").access((authentication, context) ->
+                                new AuthorizationDecision(isAdmin(authentication.get())))
+                        // Media URLs are capability URLs: the unguessable id is the access check, see MediaService.
+                        .requestMatchers(HttpMethod.GET, "/api/media/**").permitAll()
+                        .requestMatchers(HttpMethod.PUT, "/api/media/uploads/*").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/media/uploads/*/complete").permitAll()
+                        .requestMatchers("/api/posts/**", "/api/users/**", "/api/admin/**", "/api/media/**",
+                                "/api/notifications/**").authenticated()
                         .anyRequest().denyAll())
 
                         .csrf(AbstractHttpConfigurer::disable)
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(idempotencyFilter, JwtFilter.class)
+                .addFilterAfter(rateLimitFilter, IdempotencyFilter.class)
                 .build();
     }
 
+    private boolean isAdmin(Authentication authentication) {
+        return authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)
+                && adminUsernames.contains(authentication.getName());
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
         AuthenticationManagerBuilder authBuilder = http.getSharedObject(AuthenticationManagerBuilder.class);
@@ -0,0 +1,23 @@
+package com.master.socialmedia.config;
+
+import com.master.socialmedia.service.WarmUpService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports OUT_OF_SERVICE until the warm-up has finished. Part of the readiness
+ * group, so /actuator/health/readiness answers 503 while the instance is cold.
+ */
+@Component
+@RequiredArgsConstructor
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+    private final WarmUpService warmUpService;
+
+    @Override
+    public Health health() {
+        return warmUpService.isReady() ? Health.up().build() : Health.outOfService().build();
+    }
+}
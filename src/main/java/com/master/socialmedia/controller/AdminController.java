@@ -0,0 +1,60 @@
+package com.master.socialmedia.controller;
+
+import com.master.socialmedia.annotation.QueryBudget;
+import com.master.socialmedia.dto.ExportStatusDTO;
+import com.master.socialmedia.dto.ModerationPageDTO;
+import com.master.socialmedia.service.ExportService;
+import com.master.socialmedia.service.ModerationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final ExportService exportService;
+    private final ModerationService moderationService;
+
+    @PostMapping("/exports")
+    @QueryBudget(0)
+    public ResponseEntity<ExportStatusDTO> startExport(Authentication authentication) {
+        return ResponseEntity.accepted().body(exportService.startExport(authentication));
+    }
+
+    @PostMapping("/exports/{exportId}/resume")
+    @QueryBudget(0)
+    public ResponseEntity<ExportStatusDTO> resumeExport(@PathVariable String exportId, Authentication authentication) {
+        return ResponseEntity.accepted().body(exportService.resumeExport(exportId, authentication));
+    }
+
+    @GetMapping("/exports/{exportId}")
+    @QueryBudget(0)
+    public ResponseEntity<ExportStatusDTO> getExportStatus(@PathVariable String exportId, Authentication authentication) {
+        return ResponseEntity.ok(exportService.getExportStatus(exportId, authentication));
+    }
+
+    @GetMapping("/moderation")
+    @QueryBudget(2)
+    public ResponseEntity<ModerationPageDTO> getModerationQueue(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "20") int size,
+                                                                Authentication authentication) {
+        return ResponseEntity.ok(moderationService.getQueue(authentication, cursor, size));
+    }
+
+    @PostMapping("/moderation/{postId}/dismiss")
+    @QueryBudget(5)
+    public ResponseEntity<String> dismissReports(@PathVariable Integer postId, Authentication authentication) {
+        moderationService.dismissReports(postId, authentication);
+        return ResponseEntity.ok("Reports dismissed.");
+    }
+
+    @PostMapping("/moderation/{postId}/remove")
+    @QueryBudget(5)
+    public ResponseEntity<String> removePost(@PathVariable Integer postId, Authentication authentication) {
+        moderationService.removePost(postId, authentication);
+        return ResponseEntity.ok("Post removed.");
+    }
+}
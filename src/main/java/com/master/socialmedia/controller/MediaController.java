@@ -0,0 +1,125 @@
+package com.master.socialmedia.controller;
+
+import com.master.socialmedia.annotation.QueryBudget;
+import com.master.socialmedia.dto.MediaAssetDTO;
+import com.master.socialmedia.dto.MediaFileDTO;
+import com.master.socialmedia.dto.MediaUploadDTO;
+import com.master.socialmedia.enums.MediaRendition;
+import com.master.socialmedia.exception.ResourceNotFoundException;
+import com.master.socialmedia.service.MediaService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.time.Duration;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/media")
+@RequiredArgsConstructor
+public class MediaController {
+
+    private final MediaService mediaService;
+
+    @PostMapping("/uploads")
+    @QueryBudget(3)
+    public ResponseEntity<MediaUploadDTO> createUpload(@RequestParam String contentType, @RequestParam long size,
+                                                       Authentication authentication) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(mediaService.createUpload(contentType, size, authentication));
+    }
+
+    @PutMapping(value = "/uploads/{mediaId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @QueryBudget(2)
+    public ResponseEntity<Long> uploadChunk(@PathVariable String mediaId, @RequestParam long expires,
+                                            @RequestParam String signature,
+                                            @RequestHeader(value = HttpHeaders.CONTENT_RANGE, required = false) String contentRange,
+                                            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(mediaService.writeChunk(mediaId, expires, signature, contentRange,
+                Channels.newChannel(request.getInputStream())));
+    }
+
+    @PostMapping("/uploads/{mediaId}/complete")
+    @QueryBudget(3)
+    public ResponseEntity<MediaAssetDTO> completeUpload(@PathVariable String mediaId, @RequestParam long expires,
+                                                        @RequestParam String signature) {
+        return ResponseEntity.ok(mediaService.completeUpload(mediaId, expires, signature));
+    }
+
+    @GetMapping("/{mediaId}")
+    @QueryBudget(3)
+    public ResponseEntity<StreamingResponseBody> getOriginal(@PathVariable String mediaId, WebRequest request,
+                                                             @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+        return serve(mediaService.resolve(mediaId, MediaRendition.ORIGINAL), range, request);
+    }
+
+    @GetMapping("/{mediaId}/{rendition}")
+    @QueryBudget(3)
+    public ResponseEntity<StreamingResponseBody> getRendition(@PathVariable String mediaId, @PathVariable String rendition,
+                                                              WebRequest request,
+                                                              @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+        MediaRendition requested = MediaRendition.fromPathSegment(rendition)
+                .orElseThrow(() -> new ResourceNotFoundException("Unknown rendition: " + rendition));
+        return serve(mediaService.resolve(mediaId, requested), range, request);
+    }
+
+    // checkNotModified already writes the ETag header, so the builders below leave it out.
+    private ResponseEntity<StreamingResponseBody> serve(MediaFileDTO file, String range, WebRequest request) {
+        String eTag = "\"" + file.getMediaId() + "-" + file.getRendition().getPathSegment() + "-" + file.getSizeBytes() + "\"";
+        CacheControl cacheControl = file.isImmutable()
+                ? CacheControl.maxAge(Duration.ofDays(365)).immutable()
+                : CacheControl.noCache();
+        cacheControl = file.isShared() ? cacheControl.cachePublic() : cacheControl.cachePrivate();
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+
+        long size = file.getSizeBytes();
+        long start = 0;
+        long length = size;
+        HttpStatus status = HttpStatus.OK;
+        if (range != null) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(size);
+                    length = ranges.get(0).getRangeEnd(size) - start + 1;
+                    status = HttpStatus.PARTIAL_CONTENT;
+                }
+            } catch (IllegalArgumentException e) {
+                return rangeNotSatisfiable(size);
+            }
+            if (start >= size || length <= 0) {
+                return rangeNotSatisfiable(size);
+            }
+        }
+
+        long from = start;
+        long count = length;
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.parseMediaType(file.getContentType()))
+                .contentLength(count)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (status == HttpStatus.PARTIAL_CONTENT) {
+            builder.header(HttpHeaders.CONTENT_RANGE, "bytes " + from + "-" + (from + count - 1) + "/" + size);
+        }
+        return builder.body(out -> mediaService.transfer(file, from, count, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> rangeNotSatisfiable(long size) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                .build();
+    }
+}
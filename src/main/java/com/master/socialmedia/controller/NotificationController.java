@@ -0,0 +1,44 @@
+package com.master.socialmedia.controller;
+
+import com.master.socialmedia.annotation.QueryBudget;
+import com.master.socialmedia.dto.NotificationPageDTO;
+import com.master.socialmedia.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/notifications")
+@RequiredArgsConstructor
+public class NotificationController {
+
+    private final NotificationService notificationService;
+
+    @GetMapping
+    @QueryBudget(4)
+    public ResponseEntity<NotificationPageDTO> getInbox(Authentication authentication,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(notificationService.getInbox(authentication, cursor, size));
+    }
+
+    @GetMapping("/unread-count")
+    @QueryBudget(3)
+    public ResponseEntity<Integer> getUnreadCount(Authentication authentication) {
+        return ResponseEntity.ok(notificationService.getUnreadCount(authentication));
+    }
+
+    @PostMapping("/read")
+    @QueryBudget(4)
+    public ResponseEntity<Integer> markAllRead(Authentication authentication) {
+        return ResponseEntity.ok(notificationService.markAllRead(authentication));
+    }
+
+    @PostMapping("/{notificationId}/read")
+    @QueryBudget(4)
+    public ResponseEntity<String> markRead(@PathVariable Long notificationId, Authentication authentication) {
+        notificationService.markRead(notificationId, authentication);
+        return ResponseEntity.ok("Notification marked as read");
+    }
+}
@@ -1,16 +1,44 @@
 package com.master.socialmedia.controller;
 
+import com.master.socialmedia.annotation.QueryBudget;
+import com.master.socialmedia.dto.FeedPageDTO;
+import com.master.socialmedia.dto.PostCountsDTO;
 import com.master.socialmedia.dto.PostDTO;
+import com.master.socialmedia.dto.TagPageDTO;
 import com.master.socialmedia.entity.Post;
 import com.master.socialmedia.entity.User;
 import com.master.socialmedia.enums.PostStatus;
+import com.master.socialmedia.enums.ReportReason;
+import com.master.socialmedia.service.ETagService;
+import com.master.socialmedia.service.ModerationService;
+import com.master.socialmedia.service.PostCountStreamService;
 import com.master.socialmedia.service.PostService;
+import com.master.socialmedia.service.PostTagService;
+import com.master.socialmedia.service.TrendingService;
+import com.master.socialmedia.service.ViewTrackingService;
+import com.master.socialmedia.utils.SingleFlight;
+import com.master.socialmedia.utils.StreamingResponseWriter;
+import com.master.socialmedia.utils.TagParser;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/posts")
@@ -18,29 +46,125 @@ import java.util.List;
 public class PostController {
 
     private final PostService postService;
+    private final TrendingService trendingService;
+    private final ViewTrackingService viewTrackingService;
+    private final PostCountStreamService postCountStreamService;
+    private final ETagService eTagService;
+    private final StreamingResponseWriter streamingResponseWriter;
+    private final PostTagService postTagService;
+    private final ModerationService moderationService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${single-flight.timeout-ms}")
+    private long singleFlightTimeoutMs;
+
+    // Keyed by id and the ETag the caller read, so nobody joins a load that began before that version.
+    private SingleFlight<String, List<PostDTO>> postsByUserFlight;
+    private SingleFlight<String, PostDTO> postByIdFlight;
+
+    @PostConstruct
+    void init() {
+        postsByUserFlight = new SingleFlight<>("posts-by-user", singleFlightTimeoutMs, meterRegistry,
+                posts -> posts.stream().map(PostDTO::new).toList());
+        postByIdFlight = new SingleFlight<>("post-by-id", singleFlightTimeoutMs, meterRegistry, PostDTO::new);
+    }
 
     @PostMapping("/create")
-    public ResponseEntity<PostDTO> createPost(@RequestBody Post post, Authentication authentication) {
-        return ResponseEntity.ok(postService.createPost(post, authentication));
+    @QueryBudget(7)
+    public ResponseEntity<PostDTO> createPost(@RequestBody Post post,
+                                              @RequestParam(required = false) Instant publishAt,
+                                              @RequestParam(required = false) Integer archiveAfterHours,
+                                              Authentication authentication) {
+        LocalDateTime publishAtUtc = publishAt != null ? LocalDateTime.ofInstant(publishAt, ZoneOffset.UTC) : null;
+        return ResponseEntity.ok(postService.createPost(post, publishAtUtc, archiveAfterHours, authentication));
     }
 
     @GetMapping
+    @QueryBudget(5)
     public ResponseEntity<List<PostDTO>> getPostsOfCurrentUser(Authentication authentication) {
         return ResponseEntity.ok(postService.getPostsByAuthenticatedUser(authentication));
     }
 
     @GetMapping("/public-post")
-    public ResponseEntity<List<PostDTO>> getAllPublicPosts() {
+    @QueryBudget(3)
+    public ResponseEntity<StreamingResponseBody> getAllPublicPosts(Authentication authentication, WebRequest request,
+                                                                   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        String eTag = eTagService.forPublicPosts();
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return streamingResponseWriter.<PostDTO>stream(accept, ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT), sink ->
+                postService.streamPublicPosts(post -> {
+                    viewTrackingService.recordViews(List.of(post), authentication);
+                    sink.accept(post);
+                }));
+    }
+
+    @GetMapping("/public-post/normalized")
+    @QueryBudget(3)
+    public ResponseEntity<FeedPageDTO> getAllPublicPostsNormalized(Authentication authentication, WebRequest request) {
+        String eTag = eTagService.forPublicPosts();
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
         List<PostDTO> posts = postService.getAllPublicPosts();
-        return ResponseEntity.ok(posts);
+        viewTrackingService.recordViews(posts, authentication);
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(FeedPageDTO.of(posts));
+    }
+
+    @GetMapping("/trending")
+    @QueryBudget(0)
+    public ResponseEntity<List<PostDTO>> getTrendingPosts() {
+        return ResponseEntity.ok(trendingService.getTrendingPosts());
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<PostDTO>> getPostsByUser(@PathVariable Integer userId) {
-        return ResponseEntity.ok(postService.getPostsByUser(userId));
+    @QueryBudget(3)
+    public ResponseEntity<List<PostDTO>> getPostsByUser(@PathVariable Integer userId, Authentication authentication,
+                                                        WebRequest request) {
+        String eTag = eTagService.forPostsByUser(userId);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        List<PostDTO> posts = postsByUserFlight.execute(userId + "@" + eTag,
+                () -> postService.getPostsByUser(userId));
+        viewTrackingService.recordViews(posts, authentication);
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(posts);
+    }
+
+    @GetMapping("/{postId}")
+    @QueryBudget(6)
+    public ResponseEntity<PostDTO> getPostById(@PathVariable Integer postId, Authentication authentication,
+                                               WebRequest request) {
+        String eTag = eTagService.forPost(postId);
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        PostDTO post = postByIdFlight.execute(postId + "@" + eTag, () -> postService.getPostById(postId));
+        viewTrackingService.recordViews(List.of(post), authentication);
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(post);
+    }
+
+    @GetMapping("/batch")
+    @QueryBudget(4)
+    public ResponseEntity<List<PostDTO>> getPostsByIds(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(postService.getPostsByIds(ids));
+    }
+
+    @GetMapping("/counts")
+    @QueryBudget(2)
+    public ResponseEntity<Map<Integer, PostCountsDTO>> getCounts(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(postService.getCountsByPostIds(ids));
+    }
+
+    @GetMapping("/reach/{postId}")
+    @QueryBudget(2)
+    public ResponseEntity<Long> getPostReach(@PathVariable Integer postId) {
+        return ResponseEntity.ok(viewTrackingService.getPostReach(postId));
     }
 
     @PutMapping("/update/{postId}")
+    @QueryBudget(16)
     public ResponseEntity<PostDTO> updatePost(@PathVariable Integer postId,
                                               @RequestBody Post updatedPost,
                                               Authentication authentication) {
@@ -48,6 +172,7 @@ public class PostController {
     }
 
     @DeleteMapping("/delete/{postId}")
+    @QueryBudget(7)
     public ResponseEntity<String> deletePost(@PathVariable Integer postId,
                                              Authentication authentication) {
         postService.deletePost(postId, authentication);
@@ -55,6 +180,7 @@ public class PostController {
     }
 
     @PostMapping("/like/{postId}")
+    @QueryBudget(11)
     public ResponseEntity<PostDTO> toggleLikePost(@PathVariable Integer postId, Authentication authentication) {
         PostDTO updatedPost = postService.toggleLikePost(postId, authentication);
         return ResponseEntity.ok(updatedPost);
@@ -62,6 +188,7 @@ public class PostController {
 
 
     @PostMapping("/save/{postId}")
+    @QueryBudget(11)
     public ResponseEntity<PostDTO> savePost(@PathVariable Integer postId, Authentication authentication) {
         PostDTO savedPost = postService.toggleSavePost(postId, authentication);
         return ResponseEntity.ok(savedPost);
@@ -69,6 +196,7 @@ public class PostController {
 
 
     @PostMapping("/comment/{postId}")
+    @QueryBudget(11)
     public ResponseEntity<PostDTO> addComment(@PathVariable Integer postId,
                                               @RequestParam String commentText,
                                               Authentication authentication) {
@@ -77,12 +205,23 @@ public class PostController {
     }
 
 
+    @PostMapping("/report/{postId}")
+    @QueryBudget(4)
+    public ResponseEntity<String> reportPost(@PathVariable Integer postId,
+                                             @RequestParam(defaultValue = "OTHER") ReportReason reason,
+                                             Authentication authentication) {
+        moderationService.reportPost(postId, reason, authentication);
+        return ResponseEntity.ok("Report received.");
+    }
+
     @GetMapping("/comments/{postId}")
+    @QueryBudget(3)
     public ResponseEntity<List<String>> getCommentTexts(@PathVariable Integer postId) {
         return ResponseEntity.ok(postService.getCommentTexts(postId));
     }
 
     @GetMapping("/saved-posts")
+    @QueryBudget(5)
     public ResponseEntity<List<PostDTO>> getSavedPosts(Authentication authentication) {
         List<PostDTO> savedPosts = postService.getSavedPosts(authentication);
         return ResponseEntity.ok(savedPosts);
@@ -90,21 +229,61 @@ public class PostController {
 
 
     @GetMapping("/likes/count/{postId}")
+    @QueryBudget(2)
     public ResponseEntity<Integer> getLikeCount(@PathVariable Integer postId) {
         return ResponseEntity.ok(postService.getLikeCount(postId));
     }
 
     @GetMapping("/comments/count/{postId}")
+    @QueryBudget(2)
     public ResponseEntity<Integer> getCommentCount(@PathVariable Integer postId) {
         return ResponseEntity.ok(postService.getCommentCount(postId));
     }
 
+    @GetMapping(value = "/counts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @QueryBudget(0)
+    public SseEmitter streamCounts(@RequestParam Set<Integer> postIds) {
+        return postCountStreamService.subscribe(postIds);
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<List<PostDTO>> searchPosts(@RequestParam String keyword) {
-        return ResponseEntity.ok(postService.searchPosts(keyword));
+    @QueryBudget(2)
+    public ResponseEntity<StreamingResponseBody> searchPosts(@RequestParam String keyword,
+                                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return streamingResponseWriter.<PostDTO>stream(accept, ResponseEntity.ok(),
+                sink -> postService.searchPosts(keyword, sink));
+    }
+
+    @GetMapping("/tag/{tag}")
+    @QueryBudget(4)
+    public ResponseEntity<TagPageDTO> getPostsByTag(@PathVariable String tag,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "20") int size,
+                                                    Authentication authentication) {
+        TagPageDTO page = postTagService.getTagPage(TagParser.HASHTAG, tag, cursor, size);
+        viewTrackingService.recordViews(page.getPosts(), authentication);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/tag/{tag}/count")
+    @QueryBudget(2)
+    public ResponseEntity<Long> getTagCount(@PathVariable String tag) {
+        return ResponseEntity.ok(postTagService.getPostCount(TagParser.HASHTAG, tag));
+    }
+
+    @GetMapping("/mentions/{username}")
+    @QueryBudget(3)
+    public ResponseEntity<TagPageDTO> getPostsMentioning(@PathVariable String username,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "20") int size,
+                                                         Authentication authentication) {
+        TagPageDTO page = postTagService.getTagPage(TagParser.MENTION, username, cursor, size);
+        viewTrackingService.recordViews(page.getPosts(), authentication);
+        return ResponseEntity.ok(page);
     }
 
     @PutMapping("/status/{postId}")
+    @QueryBudget(10)
     public ResponseEntity<PostDTO> changePostStatus(@PathVariable Integer postId,
                                                     @RequestParam Integer userId,
                                                     @RequestParam PostStatus status) {
@@ -112,10 +291,14 @@ public class PostController {
     }
 
     @GetMapping("/viewable/{ownerId}")
+    @QueryBudget(3)
     public ResponseEntity<List<PostDTO>> getViewablePosts(@PathVariable Integer ownerId,
-                                                          @RequestParam Integer viewerId) {
+                                                          @RequestParam Integer viewerId,
+                                                          Authentication authentication) {
         User viewer = new User();
         viewer.setId(viewerId);
-        return ResponseEntity.ok(postService.getPostsForUser(viewer, ownerId));
+        List<PostDTO> posts = postService.getPostsForUser(viewer, ownerId);
+        viewTrackingService.recordViews(posts, authentication);
+        return ResponseEntity.ok(posts);
     }
 }
\ No newline at end of file
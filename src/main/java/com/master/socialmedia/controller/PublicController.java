@@ -1,7 +1,9 @@
 package com.master.socialmedia.controller;
 
+import com.master.socialmedia.annotation.QueryBudget;
 import com.master.socialmedia.entity.SignInRequest;
 import com.master.socialmedia.entity.User;
+import com.master.socialmedia.service.AvailabilityService;
 import com.master.socialmedia.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -17,18 +19,34 @@ import org.springframework.web.bind.annotation.*;
 public class PublicController {
 
     private final UserService userService;
+    private final AvailabilityService availabilityService;
 
     @GetMapping("/health-check")
+    @QueryBudget(0)
     public String healthCheck() {
         return "OK";
     }
 
     @PostMapping("/signup")
+    @QueryBudget(3)
     public ResponseEntity<String> registerUser(@Valid @RequestBody User user) {
         return ResponseEntity.status(HttpStatus.CREATED).body(userService.registerUser(user));
     }
 
+    @GetMapping("/username-available")
+    @QueryBudget(1)
+    public ResponseEntity<Boolean> isUserNameAvailable(@RequestParam String userName) {
+        return ResponseEntity.ok(availabilityService.isUserNameAvailable(userName));
+    }
+
+    @GetMapping("/email-available")
+    @QueryBudget(1)
+    public ResponseEntity<Boolean> isEmailAvailable(@RequestParam String email) {
+        return ResponseEntity.ok(availabilityService.isEmailAvailable(email));
+    }
+
     @PostMapping("/login")
+    @QueryBudget(5)
     public ResponseEntity<String> signIn(@RequestBody SignInRequest request) {
 
         String token = userService.signIn(request.getUserName(), request.getPassword());
@@ -1,15 +1,32 @@
 package com.master.socialmedia.controller;
 
+import com.master.socialmedia.annotation.QueryBudget;
+import com.master.socialmedia.dto.FollowRelationDTO;
 import com.master.socialmedia.dto.UserDTO;
+import com.master.socialmedia.dto.UserRecommendationDTO;
 import com.master.socialmedia.entity.User;
+import com.master.socialmedia.service.ETagService;
+import com.master.socialmedia.service.FollowGraphService;
+import com.master.socialmedia.service.RecommendationService;
+import com.master.socialmedia.service.TokenRevocationService;
 import com.master.socialmedia.service.UserService;
+import com.master.socialmedia.service.ViewTrackingService;
+import com.master.socialmedia.utils.SingleFlight;
+import com.master.socialmedia.utils.StreamingResponseWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Arrays;
 import java.util.List;
 
 @Slf4j
@@ -19,49 +36,141 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final ViewTrackingService viewTrackingService;
+    private final ETagService eTagService;
+    private final FollowGraphService followGraphService;
+    private final RecommendationService recommendationService;
+    private final StreamingResponseWriter streamingResponseWriter;
+    private final TokenRevocationService tokenRevocationService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${single-flight.timeout-ms}")
+    private long singleFlightTimeoutMs;
+
+    // Keyed by user and the ETag the caller read, so nobody joins a load that began before that version.
+    private SingleFlight<String, UserDTO> userByIdFlight;
+    private SingleFlight<String, UserDTO> userByNameFlight;
+
+    @PostConstruct
+    void init() {
+        userByIdFlight = new SingleFlight<>("user-by-id", singleFlightTimeoutMs, meterRegistry, UserDTO::new);
+        userByNameFlight = new SingleFlight<>("user-by-name", singleFlightTimeoutMs, meterRegistry, UserDTO::new);
+    }
 
     @GetMapping
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        List<UserDTO> users = userService.getAllUsers();
-        if (users.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NO_CONTENT).body(users);
+    @QueryBudget(3)
+    public ResponseEntity<StreamingResponseBody> getAllUsers(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (!userService.hasUsers()) {
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
         }
-        return ResponseEntity.ok(users);
+        return streamingResponseWriter.stream(accept, ResponseEntity.ok(), userService::streamAllUsers);
     }
 
     @GetMapping("/me")
-    public ResponseEntity<UserDTO> getCurrentUser(Authentication authentication) {
-        UserDTO userDTO = userService.findUserByUserName(authentication);
-        return ResponseEntity.ok(userDTO);
+    @QueryBudget(5)
+    public ResponseEntity<UserDTO> getCurrentUser(Authentication authentication, WebRequest request) {
+        String eTag = eTagService.forUserName(authentication.getName());
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        UserDTO userDTO = userByNameFlight.execute(authentication.getName() + "@" + eTag,
+                () -> userService.findUserByUserName(authentication));
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(userDTO);
+    }
+
+    @GetMapping("/batch")
+    @QueryBudget(2)
+    public ResponseEntity<List<UserDTO>> getUsersByIds(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(userService.findUsersByIds(ids));
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<UserDTO> getUserById(@PathVariable Integer userId) {
-        return ResponseEntity.ok(userService.findUserById(userId));
+    @QueryBudget(3)
+    public ResponseEntity<UserDTO> getUserById(@PathVariable Integer userId, WebRequest request) {
+        String eTag = eTagService.forUser(userId);
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(userByIdFlight.execute(userId + "@" + eTag,
+                () -> userService.findUserById(userId)));
+    }
+
+    @GetMapping("/{userId}/reach")
+    @QueryBudget(2)
+    public ResponseEntity<Long> getUserReach(@PathVariable Integer userId) {
+        return ResponseEntity.ok(viewTrackingService.getAuthorReach(userId));
+    }
+
+    @GetMapping("/recommendations")
+    @QueryBudget(2)
+    public ResponseEntity<List<UserRecommendationDTO>> getRecommendations(Authentication authentication,
+                                                                          @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(recommendationService.getPeopleYouMayKnow(authentication, limit));
+    }
+
+    @GetMapping("/{userId}/follows/{targetId}")
+    @QueryBudget(0)
+    public ResponseEntity<Boolean> follows(@PathVariable Integer userId, @PathVariable Integer targetId) {
+        return ResponseEntity.ok(followGraphService.follows(userId, targetId));
+    }
+
+    @GetMapping("/{userId}/relation/{otherUserId}")
+    @QueryBudget(0)
+    public ResponseEntity<FollowRelationDTO> getRelation(@PathVariable Integer userId, @PathVariable Integer otherUserId) {
+        return ResponseEntity.ok(followGraphService.getRelation(userId, otherUserId));
+    }
+
+    @GetMapping("/{userId}/common-followers/{otherUserId}")
+    @QueryBudget(0)
+    public ResponseEntity<List<UserDTO>> getCommonFollowers(@PathVariable Integer userId, @PathVariable Integer otherUserId,
+                                                            @RequestParam(defaultValue = "20") int limit) {
+        List<Integer> ids = Arrays.stream(followGraphService.getCommonFollowers(userId, otherUserId, Math.min(limit, 100)))
+                .boxed().toList();
+        return ResponseEntity.ok(ids.isEmpty() ? List.of() : userService.findUsersByIds(ids));
     }
 
     @GetMapping("/by-email")
+    @QueryBudget(4)
     public ResponseEntity<UserDTO> getUserByEmail(@RequestParam String email) {
         return ResponseEntity.ok(userService.findUserByEmail(email));
     }
 
     @PutMapping
+    @QueryBudget(5)
     public ResponseEntity<UserDTO> updateUser(@RequestBody User user, Authentication authentication) {
         return ResponseEntity.ok(userService.updateUser(user, authentication));
     }
 
     @DeleteMapping("/{userId}")
+    @QueryBudget(6)
     public ResponseEntity<String> deleteUser(@PathVariable Integer userId) {
         userService.deleteUser(userId);
         return ResponseEntity.ok("User deleted successfully");
     }
 
+    @PostMapping("/logout")
+    @QueryBudget(2)
+    public ResponseEntity<String> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        tokenRevocationService.revokeToken(authorization.substring("Bearer ".length()));
+        return ResponseEntity.ok("Logged out successfully");
+    }
+
+    @PostMapping("/logout-all")
+    @QueryBudget(2)
+    public ResponseEntity<String> logoutEverywhere(Authentication authentication) {
+        tokenRevocationService.revokeAllTokens(authentication.getName());
+        return ResponseEntity.ok("Logged out of all sessions");
+    }
+
     @PutMapping("/follow/{userId2}")
+    @QueryBudget(10)
     public ResponseEntity<UserDTO> followUser(Authentication authentication, @PathVariable Integer userId2) {
         return ResponseEntity.ok(userService.followUser(authentication, userId2));
     }
 
     @GetMapping("/search")
+    @QueryBudget(2)
     public ResponseEntity<List<UserDTO>> searchUser(@RequestParam("query") String query) {
         return ResponseEntity.ok(userService.searchUser(query));
     }
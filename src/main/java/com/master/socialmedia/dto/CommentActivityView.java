@@ -0,0 +1,10 @@
+package com.master.socialmedia.dto;
+
+import java.time.LocalDateTime;
+
+public interface CommentActivityView {
+
+    Integer getPostId();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,20 @@
+package com.master.socialmedia.dto;
+
+import com.master.socialmedia.enums.ExportState;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+public class ExportStatusDTO {
+
+    private String exportId;
+    private ExportState state;
+    private String directory;
+    private Map<String, Long> rowsExported = new LinkedHashMap<>();
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
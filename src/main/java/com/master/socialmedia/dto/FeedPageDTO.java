@@ -0,0 +1,27 @@
+package com.master.socialmedia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedPageDTO {
+    private Map<Integer, UserDTO> users;
+    private List<FeedPostDTO> posts;
+
+    public static FeedPageDTO of(List<PostDTO> posts) {
+        Map<Integer, UserDTO> users = new LinkedHashMap<>();
+        for (PostDTO post : posts) {
+            if (post.getUser() != null) {
+                users.putIfAbsent(post.getUser().getId(), post.getUser());
+            }
+        }
+        return new FeedPageDTO(users, posts.stream().map(FeedPostDTO::new).toList());
+    }
+}
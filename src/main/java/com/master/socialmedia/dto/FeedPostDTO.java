@@ -0,0 +1,41 @@
+package com.master.socialmedia.dto;
+
+import com.master.socialmedia.enums.PostStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedPostDTO {
+    private Integer id;
+    private String caption;
+    private String imageUrl;
+    private String thumbnailUrl;
+    private String videoUrl;
+    private LocalDateTime createdAt;
+    private String location;
+    private PostStatus status;
+    private Integer userId;
+    private int likeCount;
+    private int saveCount;
+    private int commentCount;
+
+    public FeedPostDTO(PostDTO post) {
+        this.id = post.getId();
+        this.caption = post.getCaption();
+        this.imageUrl = post.getImageUrl();
+        this.thumbnailUrl = post.getThumbnailUrl();
+        this.videoUrl = post.getVideoUrl();
+        this.createdAt = post.getCreatedAt();
+        this.location = post.getLocation();
+        this.status = post.getStatus();
+        this.userId = post.getUser() != null ? post.getUser().getId() : null;
+        this.likeCount = post.getLikeCount();
+        this.saveCount = post.getSaveCount();
+        this.commentCount = post.getCommentCount();
+    }
+}
@@ -0,0 +1,17 @@
+package com.master.socialmedia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowRelationDTO {
+    private Integer userId;
+    private Integer otherUserId;
+    private boolean following;
+    private boolean followedBy;
+    private int commonFollowingCount;
+    private int commonFollowerCount;
+}
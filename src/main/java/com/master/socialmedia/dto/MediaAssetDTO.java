@@ -0,0 +1,30 @@
+package com.master.socialmedia.dto;
+
+import com.master.socialmedia.entity.MediaAsset;
+import com.master.socialmedia.enums.MediaKind;
+import com.master.socialmedia.enums.MediaState;
+import com.master.socialmedia.utils.MediaUrls;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaAssetDTO {
+    private String id;
+    private String url;
+    private MediaKind kind;
+    private String contentType;
+    private long sizeBytes;
+    private MediaState state;
+
+    public MediaAssetDTO(MediaAsset asset) {
+        this.id = asset.getId();
+        this.url = MediaUrls.reference(asset.getId());
+        this.kind = asset.getKind();
+        this.contentType = asset.getContentType();
+        this.sizeBytes = asset.getSizeBytes();
+        this.state = asset.getState();
+    }
+}
@@ -0,0 +1,21 @@
+package com.master.socialmedia.dto;
+
+import com.master.socialmedia.enums.MediaRendition;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A stored file chosen to answer a media request. {@code immutable} is false
+ * while the original stands in for a rendition that is not generated yet;
+ * {@code shared} is true only when a public post shows the asset.
+ */
+@Data
+@AllArgsConstructor
+public class MediaFileDTO {
+    private String mediaId;
+    private MediaRendition rendition;
+    private String contentType;
+    private long sizeBytes;
+    private boolean immutable;
+    private boolean shared;
+}
@@ -0,0 +1,19 @@
+package com.master.socialmedia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaUploadDTO {
+    private String mediaId;
+    private String url;
+    private String uploadUrl;
+    private String completeUrl;
+    private Instant expiresAt;
+    private long maxChunkBytes;
+}
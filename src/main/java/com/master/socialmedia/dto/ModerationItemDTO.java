@@ -0,0 +1,22 @@
+package com.master.socialmedia.dto;
+
+import com.master.socialmedia.enums.PostStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModerationItemDTO {
+    private Integer postId;
+    private Integer ownerId;
+    private String caption;
+    private PostStatus status;
+    private int reportCount;
+    private double reportsPerHour;
+    private LocalDateTime firstReportedAt;
+    private LocalDateTime lastReportedAt;
+}
@@ -0,0 +1,15 @@
+package com.master.socialmedia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModerationPageDTO {
+    private List<ModerationItemDTO> items;
+    private String nextCursor;
+}
@@ -0,0 +1,43 @@
+package com.master.socialmedia.dto;
+
+import com.master.socialmedia.enums.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationDTO {
+    private Long id;
+    private NotificationType type;
+    private Integer targetId;
+    private Integer actorId;
+    private String actorUsername;
+    private int actorCount;
+    private boolean unread;
+    private String message;
+    private LocalDateTime updatedAt;
+
+    public NotificationDTO(NotificationView view) {
+        this.id = view.getId();
+        this.type = view.getType();
+        this.targetId = view.getTargetId();
+        this.actorId = view.getLastActorId();
+        this.actorUsername = view.getLastActorName();
+        this.actorCount = view.getActorCount() != null ? view.getActorCount() : 1;
+        this.unread = Boolean.TRUE.equals(view.getUnread());
+        this.updatedAt = view.getUpdatedAt();
+        this.message = message(actorUsername != null ? actorUsername : "Someone", actorCount, type);
+    }
+
+    private static String message(String actor, int actorCount, NotificationType type) {
+        int others = actorCount - 1;
+        if (others <= 0) {
+            return actor + " " + type.getAction();
+        }
+        return actor + " and " + others + (others == 1 ? " other " : " others ") + type.getAction();
+    }
+}
@@ -0,0 +1,16 @@
+package com.master.socialmedia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPageDTO {
+    private List<NotificationDTO> notifications;
+    private String nextCursor;
+    private int unreadCount;
+}
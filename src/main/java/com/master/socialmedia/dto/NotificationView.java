@@ -0,0 +1,24 @@
+package com.master.socialmedia.dto;
+
+import com.master.socialmedia.enums.NotificationType;
+
+import java.time.LocalDateTime;
+
+public interface NotificationView {
+
+    Long getId();
+
+    NotificationType getType();
+
+    Integer getTargetId();
+
+    Boolean getUnread();
+
+    Integer getActorCount();
+
+    Integer getLastActorId();
+
+    String getLastActorName();
+
+    LocalDateTime getUpdatedAt();
+}
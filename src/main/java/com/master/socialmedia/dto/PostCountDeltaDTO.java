@@ -0,0 +1,16 @@
+package com.master.socialmedia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostCountDeltaDTO {
+    private Integer postId;
+    private int likeDelta;
+    private int commentDelta;
+    private int likeCount;
+    private int commentCount;
+}
@@ -0,0 +1,15 @@
+package com.master.socialmedia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostCountsDTO {
+    private Integer postId;
+    private int likeCount;
+    private int saveCount;
+    private int commentCount;
+}
@@ -2,6 +2,7 @@ package com.master.socialmedia.dto;
 
 import com.master.socialmedia.entity.Post;
 import com.master.socialmedia.enums.PostStatus;
+import com.master.socialmedia.utils.MediaUrls;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,6 +16,7 @@ public class PostDTO {
     private Integer id;
     private String caption;
     private String imageUrl;
+    private String thumbnailUrl;
     private String videoUrl;
     private LocalDateTime createdAt;
     private String location;
@@ -27,7 +29,8 @@ public class PostDTO {
     public PostDTO(Post post) {
         this.id = post.getId();
         this.caption = post.getCaption();
-        this.imageUrl = post.getImageUrl();
+        this.imageUrl = MediaUrls.feedUrl(post.getImageUrl());
+        this.thumbnailUrl = MediaUrls.thumbnailUrl(post.getImageUrl());
         this.videoUrl = post.getVideoUrl();
         this.createdAt = post.getCreatedAt();
         this.location = post.getLocation();
@@ -37,5 +40,42 @@ public class PostDTO {
         this.saveCount = post.getSavedBy() != null ? post.getSavedBy().size() : 0;
         this.commentCount = post.getComments() != null ? post.getComments().size() : 0;
     }
+
+    public PostDTO(PostDTO other) {
+        this(other.id, other.caption, other.imageUrl, other.thumbnailUrl, other.videoUrl, other.createdAt,
+                other.location, other.status, other.user != null ? new UserDTO(other.user) : null, other.likeCount,
+                other.saveCount, other.commentCount);
+    }
+
+    public PostDTO(PostRowView row) {
+        this.id = row.getId();
+        this.caption = row.getCaption();
+        this.imageUrl = MediaUrls.feedUrl(row.getImageUrl());
+        this.thumbnailUrl = MediaUrls.thumbnailUrl(row.getImageUrl());
+        this.videoUrl = row.getVideoUrl();
+        this.createdAt = row.getCreatedAt();
+        this.location = row.getLocation();
+        this.status = row.getStatus();
+        this.user = new UserDTO(row.getUserId(), row.getFirstName(), row.getLastName(), row.getUserName(),
+                row.getEmail(), row.getGender(), row.getFollowerCount(), row.getFollowingCount());
+        this.likeCount = row.getLikeCount();
+        this.saveCount = row.getSaveCount();
+        this.commentCount = row.getCommentCount();
+    }
+
+    public PostDTO(PostSummaryView post, UserDTO user, PostCountsDTO counts) {
+        this.id = post.getId();
+        this.caption = post.getCaption();
+        this.imageUrl = MediaUrls.feedUrl(post.getImageUrl());
+        this.thumbnailUrl = MediaUrls.thumbnailUrl(post.getImageUrl());
+        this.videoUrl = post.getVideoUrl();
+        this.createdAt = post.getCreatedAt();
+        this.location = post.getLocation();
+        this.status = post.getStatus();
+        this.user = user;
+        this.likeCount = counts != null ? counts.getLikeCount() : 0;
+        this.saveCount = counts != null ? counts.getSaveCount() : 0;
+        this.commentCount = counts != null ? counts.getCommentCount() : 0;
+    }
 }
 
@@ -0,0 +1,14 @@
+package com.master.socialmedia.dto;
+
+import java.time.LocalDateTime;
+
+public interface PostEngagementView {
+
+    Integer getPostId();
+
+    LocalDateTime getCreatedAt();
+
+    int getLikeCount();
+
+    int getSaveCount();
+}
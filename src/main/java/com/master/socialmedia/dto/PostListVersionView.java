@@ -0,0 +1,14 @@
+package com.master.socialmedia.dto;
+
+import java.time.LocalDateTime;
+
+public interface PostListVersionView {
+
+    Long getPostCount();
+
+    Long getIdSum();
+
+    LocalDateTime getMaxUpdatedAt();
+
+    Long getUserVersionSum();
+}
@@ -0,0 +1,45 @@
+package com.master.socialmedia.dto;
+
+import com.master.socialmedia.enums.Gender;
+import com.master.socialmedia.enums.PostStatus;
+
+import java.time.LocalDateTime;
+
+public interface PostRowView {
+
+    Integer getId();
+
+    String getCaption();
+
+    String getImageUrl();
+
+    String getVideoUrl();
+
+    LocalDateTime getCreatedAt();
+
+    String getLocation();
+
+    PostStatus getStatus();
+
+    Integer getUserId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getUserName();
+
+    String getEmail();
+
+    Gender getGender();
+
+    int getFollowerCount();
+
+    int getFollowingCount();
+
+    int getLikeCount();
+
+    int getSaveCount();
+
+    int getCommentCount();
+}
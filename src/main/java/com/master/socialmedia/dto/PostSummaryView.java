@@ -0,0 +1,24 @@
+package com.master.socialmedia.dto;
+
+import com.master.socialmedia.enums.PostStatus;
+
+import java.time.LocalDateTime;
+
+public interface PostSummaryView {
+
+    Integer getId();
+
+    String getCaption();
+
+    String getImageUrl();
+
+    String getVideoUrl();
+
+    LocalDateTime getCreatedAt();
+
+    String getLocation();
+
+    PostStatus getStatus();
+
+    Integer getUserId();
+}
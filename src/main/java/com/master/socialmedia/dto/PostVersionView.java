@@ -0,0 +1,12 @@
+package com.master.socialmedia.dto;
+
+import java.time.LocalDateTime;
+
+public interface PostVersionView {
+
+    Integer getId();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getUserVersion();
+}
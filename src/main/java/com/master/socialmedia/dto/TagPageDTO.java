@@ -0,0 +1,17 @@
+package com.master.socialmedia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagPageDTO {
+    private String tag;
+    private long postCount;
+    private List<PostDTO> posts;
+    private String nextCursor;
+}
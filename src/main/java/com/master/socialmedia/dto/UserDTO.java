@@ -29,6 +29,11 @@ public class UserDTO {
         this.followerCount = user.getFollowers() != null ? user.getFollowers().size() : 0;
         this.followingCount = user.getFollowings() != null ? user.getFollowings().size() : 0;
     }
+
+    public UserDTO(UserDTO other) {
+        this(other.id, other.firstName, other.lastName, other.username, other.email, other.gender,
+                other.followerCount, other.followingCount);
+    }
 }
 
 
@@ -0,0 +1,8 @@
+package com.master.socialmedia.dto;
+
+public interface UserIdentityView {
+
+    String getUserName();
+
+    String getEmail();
+}
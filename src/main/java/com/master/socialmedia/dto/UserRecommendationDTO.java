@@ -0,0 +1,13 @@
+package com.master.socialmedia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRecommendationDTO {
+    private UserDTO user;
+    private int mutualCount;
+}
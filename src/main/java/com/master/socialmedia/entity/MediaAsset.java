@@ -0,0 +1,70 @@
+package com.master.socialmedia.entity;
+
+import com.master.socialmedia.enums.MediaKind;
+import com.master.socialmedia.enums.MediaState;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "media_asset")
+public class MediaAsset implements Persistable<String> {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Integer ownerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MediaKind kind;
+
+    @Column(nullable = false, length = 100)
+    private String contentType;
+
+    @Column(nullable = false)
+    private long sizeBytes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MediaState state;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Ids are assigned before insert, so Spring Data cannot tell new assets apart by a null id.
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        this.persisted = true;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now(ZoneOffset.UTC);
+        this.updatedAt = this.createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,49 @@
+package com.master.socialmedia.entity;
+
+import com.master.socialmedia.enums.NotificationType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One inbox entry, aggregating every event of the same type on the same target
+ * until the recipient reads it. Rows are written in batches by the notification
+ * flush job rather than through this entity.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "notification")
+public class Notification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recipient_id", nullable = false)
+    private Integer recipientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationType type;
+
+    // Post id for likes and comments, 0 for follows.
+    @Column(name = "target_id", nullable = false)
+    private Integer targetId;
+
+    // NULL rather than false once read, see V4__notifications.sql.
+    private Boolean unread;
+
+    @Column(nullable = false)
+    private int actorCount;
+
+    @Column(name = "last_actor_id", nullable = false)
+    private Integer lastActorId;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -4,7 +4,12 @@ import com.master.socialmedia.enums.PostStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
@@ -12,12 +17,15 @@ import java.util.*;
 
 @Entity
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
+@SQLRestriction("is_deleted = false")
 @Table(name = "post_table")
 public class Post {
 
     @Id
+    @EqualsAndHashCode.Include
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
@@ -30,6 +38,10 @@ public class Post {
     private String videoUrl;
 
     private LocalDateTime createdAt;
+
+    // Likes, saves and comments are row inserts and deletes that cannot overwrite each other, so they (and the
+    // timestamp they touch) do not bump the version; concurrent engagement on one post must not conflict.
+    @OptimisticLock(excluded = true)
     private LocalDateTime updatedAt;
 
     @Enumerated(EnumType.STRING)
@@ -38,10 +50,21 @@ public class Post {
     @Column(nullable = true)
     private String location;
 
+    // When a story is archived; null for posts that stay up.
+    @Column(nullable = true)
+    private LocalDateTime archiveAt;
+
+    // When the post scheduler next acts on this post: publication while SCHEDULED, archiving once visible.
+    @Column(nullable = true)
+    private LocalDateTime dueAt;
+
+    @ToString.Exclude
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    @ToString.Exclude
+    @OptimisticLock(excluded = true)
     @ManyToMany
     @JoinTable(
             name = "post_likes",
@@ -50,6 +73,8 @@ public class Post {
     )
     private Set<User> likedBy = new HashSet<>();
 
+    @ToString.Exclude
+    @OptimisticLock(excluded = true)
     @ManyToMany
     @JoinTable(
             name = "post_saves",
@@ -58,21 +83,33 @@ public class Post {
     )
     private Set<User> savedBy = new HashSet<>();
 
+    @ToString.Exclude
+    @OptimisticLock(excluded = true)
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL)
     private List<Comment> comments = new ArrayList<>();
 
     @Column(name = "is_deleted")
     private boolean deleted = false;
 
-    @Column(name = "is_reported")
+    // Owned by the report aggregator, which updates them in bulk; entity saves must not write them back.
+    @Column(name = "is_reported", updatable = false)
     private boolean reported = false;
 
+    @Column(updatable = false)
     private int reportCount = 0;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     @PrePersist
     protected void onCreate() {
-        this.createdAt = LocalDateTime.now(ZoneOffset.UTC);
-        this.updatedAt = this.createdAt;
+        // A scheduled post is dated at its publish time.
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now(ZoneOffset.UTC);
+        }
+        this.updatedAt = LocalDateTime.now(ZoneOffset.UTC);
     }
 
     @PreUpdate
@@ -0,0 +1,28 @@
+package com.master.socialmedia.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "post_reach", indexes = @Index(name = "idx_post_reach_author", columnList = "author_id"))
+public class PostReach {
+
+    @Id
+    @Column(name = "post_id")
+    private Integer postId;
+
+    @Column(name = "author_id", nullable = false)
+    private Integer authorId;
+
+    @Column(nullable = false, length = 4096)
+    private byte[] sketch;
+
+    private LocalDateTime updatedAt;
+}
@@ -7,15 +7,22 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@SQLRestriction("is_deleted = false")
 @Table(
         name = "user_table",
         uniqueConstraints = {
@@ -25,6 +32,7 @@ import java.util.Set;
 public class User {
 
     @Id
+    @EqualsAndHashCode.Include
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
@@ -58,15 +66,30 @@ public class User {
     @Column(name = "gender")
     private Gender gender;
 
+    // Follow edges are unique rows written one at a time; follows bump the version in SQL instead, so that
+    // many users following one account at once do not conflict on its row.
+    @OptimisticLock(excluded = true)
     @ElementCollection(fetch = FetchType.EAGER)
     private Set<Integer> followers = new HashSet<>();
 
+    @OptimisticLock(excluded = true)
     @ElementCollection(fetch = FetchType.EAGER)
     private Set<Integer> followings = new HashSet<>();
 
+    @ToString.Exclude
     @ManyToMany(mappedBy = "likedBy")
     private Set<Post> likedPosts = new HashSet<>();
 
+    @ToString.Exclude
     @ManyToMany(mappedBy = "savedBy")
     private Set<Post> savedPosts = new HashSet<>();
+
+    @ColumnDefault("false")
+    @Column(name = "is_deleted", nullable = false)
+    private boolean deleted = false;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.master.socialmedia.enums;
+
+public enum EngagementType {
+    LIKE,
+    UNLIKE,
+    SAVE,
+    UNSAVE,
+    COMMENT
+}
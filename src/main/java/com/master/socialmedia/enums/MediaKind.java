@@ -0,0 +1,22 @@
+package com.master.socialmedia.enums;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+
+public enum MediaKind {
+    IMAGE(Set.of("image/jpeg", "image/png", "image/gif")),
+    VIDEO(Set.of("video/mp4", "video/webm"));
+
+    private final Set<String> contentTypes;
+
+    MediaKind(Set<String> contentTypes) {
+        this.contentTypes = contentTypes;
+    }
+
+    public static Optional<MediaKind> forContentType(String contentType) {
+        return Arrays.stream(values())
+                .filter(kind -> kind.contentTypes.contains(contentType))
+                .findFirst();
+    }
+}
@@ -0,0 +1,32 @@
+package com.master.socialmedia.enums;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum MediaRendition {
+    ORIGINAL("original", 0),
+    FEED("feed", 1080),
+    THUMBNAIL("thumbnail", 320);
+
+    private final String pathSegment;
+    private final int maxWidth;
+
+    MediaRendition(String pathSegment, int maxWidth) {
+        this.pathSegment = pathSegment;
+        this.maxWidth = maxWidth;
+    }
+
+    public String getPathSegment() {
+        return pathSegment;
+    }
+
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    public static Optional<MediaRendition> fromPathSegment(String pathSegment) {
+        return Arrays.stream(values())
+                .filter(rendition -> rendition.pathSegment.equals(pathSegment))
+                .findFirst();
+    }
+}
@@ -0,0 +1,8 @@
+package com.master.socialmedia.enums;
+
+public enum MediaState {
+    UPLOADING,
+    PROCESSING,
+    READY,
+    FAILED
+}
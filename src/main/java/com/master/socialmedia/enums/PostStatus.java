@@ -5,5 +5,7 @@ public enum PostStatus {
     PRIVATE,
     FRIENDS_ONLY,
     ARCHIVED,
-    DELETED
+    DELETED,
+    HIDDEN,
+    SCHEDULED
 }
\ No newline at end of file
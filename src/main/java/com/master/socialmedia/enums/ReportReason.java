@@ -0,0 +1,11 @@
+package com.master.socialmedia.enums;
+
+public enum ReportReason {
+    SPAM,
+    HARASSMENT,
+    HATE_SPEECH,
+    VIOLENCE,
+    NUDITY,
+    MISINFORMATION,
+    OTHER
+}
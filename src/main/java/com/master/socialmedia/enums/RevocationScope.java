@@ -0,0 +1,6 @@
+package com.master.socialmedia.enums;
+
+public enum RevocationScope {
+    TOKEN,
+    USER
+}
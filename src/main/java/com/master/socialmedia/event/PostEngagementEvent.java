@@ -0,0 +1,22 @@
+package com.master.socialmedia.event;
+
+import com.master.socialmedia.enums.EngagementType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class PostEngagementEvent {
+
+    private final Integer postId;
+    private final Integer postOwnerId;
+    private final Integer actorId;
+    private final EngagementType type;
+    private final int likeCount;
+    private final int commentCount;
+    private final Instant occurredAt;
+}
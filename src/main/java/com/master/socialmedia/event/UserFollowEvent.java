@@ -0,0 +1,17 @@
+package com.master.socialmedia.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class UserFollowEvent {
+
+    private final Integer followerId;
+    private final Integer followeeId;
+    private final Instant occurredAt;
+}
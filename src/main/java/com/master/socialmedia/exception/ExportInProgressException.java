@@ -0,0 +1,7 @@
+package com.master.socialmedia.exception;
+
+public class ExportInProgressException extends RuntimeException {
+    public ExportInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.master.socialmedia.exception;
+
+public class MediaUploadException extends RuntimeException {
+    public MediaUploadException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,202 @@
+package com.master.socialmedia.filter;
+
+import com.master.socialmedia.utils.ErrorResponseWriter;
+import com.master.socialmedia.utils.ExpiringCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final StoredResponse IN_FLIGHT = new StoredResponse(null, 0, null, new byte[0]);
+
+    private final ErrorResponseWriter errorResponseWriter;
+
+    @Value("${idempotency.max-entries}")
+    private int maxEntries;
+
+    @Value("${idempotency.ttl-ms}")
+    private long ttlMs;
+
+    private ExpiringCache<String, StoredResponse> responses;
+
+    @PostConstruct
+    void init() {
+        responses = new ExpiringCache<>(maxEntries, ttlMs);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain chain) throws ServletException, IOException {
+
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (idempotencyKey == null || idempotencyKey.isBlank() || !WRITE_METHODS.contains(request.getMethod())
+                || authentication == null || !authentication.isAuthenticated()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String cacheKey = authentication.getName() + ":" + request.getMethod() + ":" + request.getRequestURI()
+                + "?" + request.getQueryString() + ":" + idempotencyKey;
+
+        StoredResponse existing = responses.putIfAbsent(cacheKey, IN_FLIGHT);
+        if (existing == IN_FLIGHT) {
+            errorResponseWriter.write(response, HttpStatus.CONFLICT, "Conflict",
+                    "A request with this Idempotency-Key is still being processed");
+            return;
+        }
+        if (existing != null) {
+            if (!MessageDigest.isEqual(existing.fingerprint(), new DigestingRequest(request).fingerprint())) {
+                errorResponseWriter.write(response, HttpStatus.UNPROCESSABLE_ENTITY, "Unprocessable Entity",
+                        "This Idempotency-Key was already used with a different request body");
+                return;
+            }
+            replay(existing, response);
+            return;
+        }
+
+        DigestingRequest digestingRequest = new DigestingRequest(request);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(digestingRequest, wrapper);
+            if (wrapper.getStatus() >= 200 && wrapper.getStatus() < 300) {
+                responses.put(cacheKey, new StoredResponse(digestingRequest.fingerprint(), wrapper.getStatus(),
+                        wrapper.getContentType(), wrapper.getContentAsByteArray()));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                responses.remove(cacheKey);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms}")
+    public void evictExpired() {
+        responses.evictExpired();
+    }
+
+    private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private record StoredResponse(byte[] fingerprint, int status, String contentType, byte[] body) {
+    }
+
+    /**
+     * Hashes the request body as the handler reads it, so a key can be tied to
+     * its body without buffering uploads. {@link #fingerprint()} reads whatever
+     * the handler left unread, which also makes it usable on a request that is
+     * never handed to the chain.
+     */
+    private static final class DigestingRequest extends HttpServletRequestWrapper {
+
+        private final MessageDigest digest;
+        private ServletInputStream inputStream;
+
+        DigestingRequest(HttpServletRequest request) {
+            super(request);
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                ServletInputStream source = super.getInputStream();
+                inputStream = new ServletInputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        int b = source.read();
+                        if (b >= 0) {
+                            digest.update((byte) b);
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int read = source.read(buffer, offset, length);
+                        if (read > 0) {
+                            digest.update(buffer, offset, read);
+                        }
+                        return read;
+                    }
+
+                    @Override
+                    public boolean isFinished() {
+                        return source.isFinished();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return source.isReady();
+                    }
+
+                    @Override
+                    public void setReadListener(ReadListener readListener) {
+                        source.setReadListener(readListener);
+                    }
+                };
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        byte[] fingerprint() throws IOException {
+            ServletInputStream in = getInputStream();
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer, 0, buffer.length) != -1) {
+                // Drained only for the digest.
+            }
+            return digest.digest();
+        }
+    }
+}
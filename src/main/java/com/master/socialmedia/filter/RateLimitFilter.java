@@ -0,0 +1,88 @@
+package com.master.socialmedia.filter;
+
+import com.master.socialmedia.utils.ErrorResponseWriter;
+import com.master.socialmedia.utils.TokenBucket;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final List<String> LIMITED_ENDPOINTS = List.of(
+            "/api/posts/create",
+            "/api/posts/comment/*",
+            "/api/posts/like/*",
+            "/api/posts/report/*",
+            "/api/media/uploads"
+    );
+
+    private final ErrorResponseWriter errorResponseWriter;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Value("${rate-limit.capacity}")
+    private long capacity;
+
+    @Value("${rate-limit.refill-per-second}")
+    private double refillPerSecond;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain chain) throws ServletException, IOException {
+
+        String endpoint = matchEndpoint(request);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (endpoint != null && authentication != null && authentication.isAuthenticated()) {
+            TokenBucket bucket = buckets.computeIfAbsent(authentication.getName() + ":" + endpoint,
+                    key -> new TokenBucket(capacity, refillPerSecond));
+
+            if (!bucket.tryConsume()) {
+                long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(bucket.nanosUntilNextToken() + 999_999_999L));
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+                errorResponseWriter.write(response, HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                        "Rate limit exceeded, retry after " + retryAfter + " seconds");
+                return;
+            }
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.cleanup-interval-ms}")
+    public void evictIdleBuckets() {
+        buckets.values().removeIf(TokenBucket::isFull);
+    }
+
+    private String matchEndpoint(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return null;
+        }
+        String path = request.getServletPath();
+        for (String pattern : LIMITED_ENDPOINTS) {
+            if (pathMatcher.match(pattern, path)) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,67 @@
+package com.master.socialmedia.filter;
+
+import com.master.socialmedia.annotation.QueryBudget;
+import com.master.socialmedia.utils.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String STATEMENT_COUNT_ATTRIBUTE = SqlBudgetInterceptor.class.getName() + ".statements";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        AtomicInteger scope = (AtomicInteger) request.getAttribute(STATEMENT_COUNT_ATTRIBUTE);
+        if (scope == null || request.getDispatcherType() != DispatcherType.ASYNC) {
+            scope = new AtomicInteger();
+            request.setAttribute(STATEMENT_COUNT_ATTRIBUTE, scope);
+        }
+        SqlStatementCounter.bind(scope);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementCounter.unbind();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlStatementCounter.unbind();
+        AtomicInteger scope = (AtomicInteger) request.getAttribute(STATEMENT_COUNT_ATTRIBUTE);
+        if (scope == null || !(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+
+        int statements = scope.get();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("http.server.sql.statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statements);
+
+        QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+        if (budget != null && statements > budget.value()) {
+            meterRegistry.counter("http.server.sql.budget.exceeded", "method", request.getMethod(), "uri", uri).increment();
+            log.warn("{} {} issued {} SQL statements, budget is {}", request.getMethod(), uri, statements, budget.value());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.master.socialmedia.repository;
+
+import com.master.socialmedia.dto.CommentActivityView;
+import com.master.socialmedia.entity.Comment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface CommentRepository extends JpaRepository<Comment, Long> {
+
+    @Query("select c.post.id as postId, c.createdAt as createdAt from Comment c where c.createdAt >= :since")
+    List<CommentActivityView> findActivitySince(@Param("since") LocalDateTime since);
+
+    @Query("select c.text from Comment c where c.post.id = :postId order by c.id")
+    List<String> findTextsByPostId(@Param("postId") Integer postId);
+
+    @Modifying
+    @Query(value = "delete from comment_table where post_id in (:postIds) limit :limit", nativeQuery = true)
+    int deleteByPostIds(@Param("postIds") Collection<Integer> postIds, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "delete from comment_table where user_id = :userId order by id limit :limit", nativeQuery = true)
+    int deleteByUserId(@Param("userId") Integer userId, @Param("limit") int limit);
+
+    /** Touches the posts behind the next {@link #deleteByUserId} chunk. */
+    @Modifying
+    @Query(value = "update post_table p join (select post_id from comment_table where user_id = :userId " +
+            "order by id limit :limit) c on c.post_id = p.id " +
+            "set p.updated_at = :now, p.version = p.version + 1", nativeQuery = true)
+    int touchPostsCommentedByUser(@Param("userId") Integer userId, @Param("limit") int limit,
+                                  @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,19 @@
+package com.master.socialmedia.repository;
+
+import com.master.socialmedia.entity.MediaAsset;
+import com.master.socialmedia.enums.MediaState;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MediaAssetRepository extends JpaRepository<MediaAsset, String> {
+
+    List<MediaAsset> findTop100ByStateAndUpdatedAtBefore(MediaState state, LocalDateTime cutoff);
+
+    @Query("select m.id from MediaAsset m where m.ownerId = :ownerId")
+    List<String> findIdsByOwnerId(@Param("ownerId") Integer ownerId, Pageable pageable);
+}
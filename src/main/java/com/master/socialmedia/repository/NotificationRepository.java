@@ -0,0 +1,61 @@
+package com.master.socialmedia.repository;
+
+import com.master.socialmedia.dto.NotificationView;
+import com.master.socialmedia.entity.Notification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    @Query(value = """
+            select n.id as id, n.type as type, n.target_id as targetId, n.unread as unread,
+                   n.actor_count as actorCount, n.last_actor_id as lastActorId, u.user_name as lastActorName,
+                   n.updated_at as updatedAt
+            from notification n
+            left join user_table u on u.id = n.last_actor_id
+            where n.recipient_id = :recipientId
+              and (n.updated_at < :before or (n.updated_at = :before and n.id < :beforeId))
+            order by n.updated_at desc, n.id desc
+            limit :limit""", nativeQuery = true)
+    List<NotificationView> findInboxPage(@Param("recipientId") Integer recipientId,
+                                         @Param("before") LocalDateTime before,
+                                         @Param("beforeId") long beforeId,
+                                         @Param("limit") int limit);
+
+    @Query(value = "select unread_count from notification_unread where recipient_id = :recipientId", nativeQuery = true)
+    Integer findUnreadCount(@Param("recipientId") Integer recipientId);
+
+    @Modifying
+    @Query(value = "update notification set unread = null where recipient_id = :recipientId and unread = true",
+            nativeQuery = true)
+    int markAllRead(@Param("recipientId") Integer recipientId);
+
+    @Modifying
+    @Query(value = "update notification set unread = null where id = :id and recipient_id = :recipientId and unread = true",
+            nativeQuery = true)
+    int markRead(@Param("id") Long id, @Param("recipientId") Integer recipientId);
+
+    // Recounts from the unread index so concurrent flushes and reads cannot leave the badge drifting.
+    @Modifying
+    @Query(value = """
+            insert into notification_unread (recipient_id, unread_count)
+            select u.id, (select count(*) from notification n where n.recipient_id = u.id and n.unread = true)
+            from user_table u
+            where u.id in (:recipientIds)
+            on duplicate key update unread_count = values(unread_count)""", nativeQuery = true)
+    int refreshUnreadCounts(@Param("recipientIds") Collection<Integer> recipientIds);
+
+    @Modifying
+    @Query(value = "delete from notification where recipient_id = :recipientId limit :limit", nativeQuery = true)
+    int deleteByRecipientId(@Param("recipientId") Integer recipientId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "delete from notification_unread where recipient_id = :recipientId", nativeQuery = true)
+    int deleteUnreadCount(@Param("recipientId") Integer recipientId);
+}
@@ -0,0 +1,22 @@
+package com.master.socialmedia.repository;
+
+import com.master.socialmedia.entity.PostReach;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PostReachRepository extends JpaRepository<PostReach, Integer> {
+
+    List<PostReach> findByAuthorId(Integer authorId);
+
+    @Query(value = "select * from post_reach where post_id in (:postIds) order by post_id for update", nativeQuery = true)
+    List<PostReach> findAllByIdForUpdate(@Param("postIds") Collection<Integer> postIds);
+
+    @Modifying
+    @Query(value = "delete from post_reach where post_id in (:postIds)", nativeQuery = true)
+    int deleteByPostIds(@Param("postIds") Collection<Integer> postIds);
+}
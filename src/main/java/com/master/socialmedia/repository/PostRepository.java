@@ -1,14 +1,39 @@
 package com.master.socialmedia.repository;
 
+import com.master.socialmedia.dto.PostCountsDTO;
+import com.master.socialmedia.dto.PostEngagementView;
+import com.master.socialmedia.dto.PostListVersionView;
+import com.master.socialmedia.dto.PostRowView;
+import com.master.socialmedia.dto.PostSummaryView;
+import com.master.socialmedia.dto.PostVersionView;
 import com.master.socialmedia.entity.Post;
 import com.master.socialmedia.entity.User;
 import com.master.socialmedia.enums.PostStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PostRepository extends JpaRepository<Post, Integer> {
 
+    String POST_ROW_SELECT = "select p.id as id, p.caption as caption, p.imageUrl as imageUrl, p.videoUrl as videoUrl, " +
+            "p.createdAt as createdAt, p.location as location, p.status as status, u.id as userId, " +
+            "u.firstName as firstName, u.lastName as lastName, u.userName as userName, u.email as email, " +
+            "u.gender as gender, size(u.followers) as followerCount, size(u.followings) as followingCount, " +
+            "size(p.likedBy) as likeCount, size(p.savedBy) as saveCount, size(p.comments) as commentCount " +
+            "from Post p join p.user u ";
+
+    String STREAM_FETCH_SIZE = "200";
+
     List<Post> findByStatus(PostStatus status);
 
     List<Post> findByUser_Id(Integer userId);
@@ -22,5 +47,118 @@ public interface PostRepository extends JpaRepository<Post, Integer> {
     List<Post> findByUserIdAndStatus(Integer userId, PostStatus status);
 
     List<Post> findByUser(User user);
-}
 
+    @Query(POST_ROW_SELECT + "where u.id = :userId")
+    List<PostRowView> findRowsByUserId(@Param("userId") Integer userId);
+
+    @Query(POST_ROW_SELECT + "where u.id = :userId and p.status = :status")
+    List<PostRowView> findRowsByUserIdAndStatus(@Param("userId") Integer userId, @Param("status") PostStatus status);
+
+    @Query(POST_ROW_SELECT + "where u.id = :userId and p.status <> :status")
+    List<PostRowView> findRowsByUserIdAndStatusNot(@Param("userId") Integer userId, @Param("status") PostStatus status);
+
+    @Query(POST_ROW_SELECT + "where u.id = :userId and p.status in :statuses")
+    List<PostRowView> findRowsByUserIdAndStatusIn(@Param("userId") Integer userId,
+                                                  @Param("statuses") Collection<PostStatus> statuses);
+
+    @Query(POST_ROW_SELECT + "where p.id in :ids and p.status = :status")
+    List<PostRowView> findRowsByIdInAndStatus(@Param("ids") Collection<Integer> ids, @Param("status") PostStatus status);
+
+    @Query(POST_ROW_SELECT + "join p.savedBy s where s.id = :userId")
+    List<PostRowView> findSavedRowsByUserId(@Param("userId") Integer userId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(POST_ROW_SELECT + "where p.status = :status")
+    Stream<PostRowView> streamRowsByStatus(@Param("status") PostStatus status);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(POST_ROW_SELECT + "where lower(p.caption) like lower(concat('%', :keyword, '%'))")
+    Stream<PostRowView> streamRowsByCaptionContaining(@Param("keyword") String keyword);
+
+    @Query("select p.id as postId, p.createdAt as createdAt, size(p.likedBy) as likeCount, size(p.savedBy) as saveCount " +
+            "from Post p where p.status = :status and p.createdAt >= :since")
+    List<PostEngagementView> findEngagementSince(@Param("status") PostStatus status,
+                                                 @Param("since") LocalDateTime since);
+
+    @Query("select p.id as id, p.caption as caption, p.imageUrl as imageUrl, p.videoUrl as videoUrl, " +
+            "p.createdAt as createdAt, p.location as location, p.status as status, p.user.id as userId " +
+            "from Post p where p.id in :ids and p.status = :status")
+    List<PostSummaryView> findSummariesByIdIn(@Param("ids") Collection<Integer> ids, @Param("status") PostStatus status);
+
+    @Query("select new com.master.socialmedia.dto.PostCountsDTO(p.id, size(p.likedBy), size(p.savedBy), size(p.comments)) " +
+            "from Post p where p.id in :ids and p.status = :status")
+    List<PostCountsDTO> findCountsByIdIn(@Param("ids") Collection<Integer> ids, @Param("status") PostStatus status);
+
+    @Query("select new com.master.socialmedia.dto.PostCountsDTO(p.id, size(p.likedBy), size(p.savedBy), size(p.comments)) " +
+            "from Post p where p.id = :postId")
+    Optional<PostCountsDTO> findCountsById(@Param("postId") Integer postId);
+
+    @Query("select p.id as id, p.updatedAt as updatedAt, u.version as userVersion " +
+            "from Post p join p.user u where p.id = :postId and p.status = :status")
+    PostVersionView findVersionById(@Param("postId") Integer postId, @Param("status") PostStatus status);
+
+    @Query("select count(p) as postCount, sum(p.id) as idSum, max(p.updatedAt) as maxUpdatedAt, sum(u.version) as userVersionSum " +
+            "from Post p join p.user u where u.id = :userId and p.status = :status")
+    PostListVersionView findListVersionByUserId(@Param("userId") Integer userId, @Param("status") PostStatus status);
+
+    @Query("select count(p) as postCount, sum(p.id) as idSum, max(p.updatedAt) as maxUpdatedAt, sum(u.version) as userVersionSum " +
+            "from Post p join p.user u where p.status = :status")
+    PostListVersionView findListVersionByStatus(@Param("status") PostStatus status);
+
+    @Query("select count(p) > 0 from Post p where p.user.id = :userId and p.status = :status " +
+            "and (p.imageUrl = :url or p.videoUrl = :url)")
+    boolean existsByUserIdAndMediaUrl(@Param("userId") Integer userId, @Param("url") String url,
+                                      @Param("status") PostStatus status);
+
+    @Query("select p.id from Post p where p.status = :status order by p.createdAt desc, p.id desc limit :limit")
+    List<Integer> findRecentIdsByStatus(@Param("status") PostStatus status, @Param("limit") int limit);
+
+    @Modifying
+    @Query("update versioned Post p set p.deleted = true, p.status = :status where p.user.id = :userId")
+    int tombstoneByUserId(@Param("userId") Integer userId, @Param("status") PostStatus status);
+
+    @Query(value = "select id from post_table where is_deleted = true limit :limit", nativeQuery = true)
+    List<Integer> findTombstonedIds(@Param("limit") int limit);
+
+    @Query(value = "select count(*) from post_table where is_deleted = true", nativeQuery = true)
+    long countTombstoned();
+
+    @Query(value = "select count(*) from post_table where user_id = :userId", nativeQuery = true)
+    long countIncludingTombstonedByUserId(@Param("userId") Integer userId);
+
+    @Modifying
+    @Query(value = "delete from post_likes where post_id in (:postIds) limit :limit", nativeQuery = true)
+    int deleteLikesByPostIds(@Param("postIds") Collection<Integer> postIds, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "delete from post_saves where post_id in (:postIds) limit :limit", nativeQuery = true)
+    int deleteSavesByPostIds(@Param("postIds") Collection<Integer> postIds, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "delete from post_likes where user_id = :userId order by post_id limit :limit", nativeQuery = true)
+    int deleteLikesByUserId(@Param("userId") Integer userId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "delete from post_saves where user_id = :userId order by post_id limit :limit", nativeQuery = true)
+    int deleteSavesByUserId(@Param("userId") Integer userId, @Param("limit") int limit);
+
+    /** Touches the posts behind the next {@link #deleteLikesByUserId} chunk. */
+    @Modifying
+    @Query(value = "update post_table p join (select post_id from post_likes where user_id = :userId " +
+            "order by post_id limit :limit) l on l.post_id = p.id " +
+            "set p.updated_at = :now, p.version = p.version + 1", nativeQuery = true)
+    int touchPostsLikedByUser(@Param("userId") Integer userId, @Param("limit") int limit,
+                              @Param("now") LocalDateTime now);
+
+    /** Touches the posts behind the next {@link #deleteSavesByUserId} chunk. */
+    @Modifying
+    @Query(value = "update post_table p join (select post_id from post_saves where user_id = :userId " +
+            "order by post_id limit :limit) s on s.post_id = p.id " +
+            "set p.updated_at = :now, p.version = p.version + 1", nativeQuery = true)
+    int touchPostsSavedByUser(@Param("userId") Integer userId, @Param("limit") int limit,
+                              @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "delete from post_table where id in (:postIds) and is_deleted = true", nativeQuery = true)
+    int deleteTombstonedByIds(@Param("postIds") Collection<Integer> postIds);
+}
@@ -1,12 +1,20 @@
 package com.master.socialmedia.repository;
 
+import com.master.socialmedia.dto.UserDTO;
+import com.master.socialmedia.dto.UserIdentityView;
 import com.master.socialmedia.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
@@ -15,11 +23,81 @@ public interface UserRepository extends JpaRepository<User, Integer> {
 
     User findByUserName(String identifier);
 
+    @Query("select u.id from User u where u.userName = :userName")
+    Integer findIdByUserName(@Param("userName") String userName);
+
     boolean existsByUserName(String userName);
 
     boolean existsByEmail(String email);
 
-    @Query("select u from User u where u.firstName LIKE %:query% OR u.lastName LIKE %:query% OR u.email LIKE %:query%")
-    List<User> searchUser(@Param("query") String query);
+    @Query("select new com.master.socialmedia.dto.UserDTO(u.id, u.firstName, u.lastName, u.userName, u.email, u.gender, " +
+            "size(u.followers), size(u.followings)) from User u " +
+            "where u.firstName LIKE %:query% OR u.lastName LIKE %:query% OR u.email LIKE %:query%")
+    List<UserDTO> searchUser(@Param("query") String query);
+
+    @Query("select u.userName as userName, u.email as email from User u")
+    List<UserIdentityView> findAllIdentities();
+
+    @Query("select new com.master.socialmedia.dto.UserDTO(u.id, u.firstName, u.lastName, u.userName, u.email, u.gender, " +
+            "size(u.followers), size(u.followings)) from User u where u.id in :ids")
+    List<UserDTO> findUserDTOsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    @Query("select new com.master.socialmedia.dto.UserDTO(u.id, u.firstName, u.lastName, u.userName, u.email, u.gender, " +
+            "size(u.followers), size(u.followings)) from User u")
+    Stream<UserDTO> streamAllUserDTOs();
+
+    @Query("select u.version from User u where u.id = :userId")
+    Long findVersionById(@Param("userId") Integer userId);
+
+    @Query("select u.version from User u where u.userName = :userName")
+    Long findVersionByUserName(@Param("userName") String userName);
+
+    @Query(value = "select id from user_table where is_deleted = true limit :limit", nativeQuery = true)
+    List<Integer> findTombstonedIds(@Param("limit") int limit);
+
+    @Query(value = "select count(*) from user_table where is_deleted = true", nativeQuery = true)
+    long countTombstoned();
+
+    @Query(value = "select count(*) from user_followings where user_id = :followerId and followings = :followeeId",
+            nativeQuery = true)
+    long countFollowEdges(@Param("followerId") Integer followerId, @Param("followeeId") Integer followeeId);
+
+    @Query(value = "select followings from user_followings where user_id = :followerId and followings in (:userIds)",
+            nativeQuery = true)
+    List<Integer> findFollowedAmong(@Param("followerId") Integer followerId, @Param("userIds") Collection<Integer> userIds);
+
+    @Modifying
+    @Query("update User u set u.version = u.version + 1 where u.id in :userIds")
+    int incrementVersions(@Param("userIds") Collection<Integer> userIds);
+
+    @Modifying
+    @Query(value = "delete from user_followers where user_id = :userId or followers = :userId " +
+            "order by user_id, followers limit :limit", nativeQuery = true)
+    int deleteFollowerEdges(@Param("userId") Integer userId, @Param("limit") int limit);
+
+    /** Bumps the users on the other end of the next {@link #deleteFollowerEdges} chunk. */
+    @Modifying
+    @Query(value = "update user_table u join (select case when user_id = :userId then followers else user_id end " +
+            "as other_id from user_followers where user_id = :userId or followers = :userId " +
+            "order by user_id, followers limit :limit) e on e.other_id = u.id " +
+            "set u.version = u.version + 1", nativeQuery = true)
+    int touchFollowerCounterparts(@Param("userId") Integer userId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "delete from user_followings where user_id = :userId or followings = :userId " +
+            "order by user_id, followings limit :limit", nativeQuery = true)
+    int deleteFollowingEdges(@Param("userId") Integer userId, @Param("limit") int limit);
+
+    /** Bumps the users on the other end of the next {@link #deleteFollowingEdges} chunk. */
+    @Modifying
+    @Query(value = "update user_table u join (select case when user_id = :userId then followings else user_id end " +
+            "as other_id from user_followings where user_id = :userId or followings = :userId " +
+            "order by user_id, followings limit :limit) e on e.other_id = u.id " +
+            "set u.version = u.version + 1", nativeQuery = true)
+    int touchFollowingCounterparts(@Param("userId") Integer userId, @Param("limit") int limit);
 
+    @Modifying
+    @Query(value = "delete from user_table where id = :userId and is_deleted = true", nativeQuery = true)
+    int deleteTombstonedById(@Param("userId") Integer userId);
 }
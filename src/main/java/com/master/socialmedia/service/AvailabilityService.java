@@ -0,0 +1,12 @@
+package com.master.socialmedia.service;
+
+public interface AvailabilityService {
+
+    boolean isUserNameAvailable(String userName);
+
+    boolean isEmailAvailable(String email);
+
+    void recordUser(String userName, String email);
+
+    void rebuild();
+}
@@ -0,0 +1,14 @@
+package com.master.socialmedia.service;
+
+public interface ETagService {
+
+    String forUser(Integer userId);
+
+    String forUserName(String userName);
+
+    String forPost(Integer postId);
+
+    String forPostsByUser(Integer userId);
+
+    String forPublicPosts();
+}
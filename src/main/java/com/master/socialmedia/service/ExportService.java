@@ -0,0 +1,13 @@
+package com.master.socialmedia.service;
+
+import com.master.socialmedia.dto.ExportStatusDTO;
+import org.springframework.security.core.Authentication;
+
+public interface ExportService {
+
+    ExportStatusDTO startExport(Authentication authentication);
+
+    ExportStatusDTO resumeExport(String exportId, Authentication authentication);
+
+    ExportStatusDTO getExportStatus(String exportId, Authentication authentication);
+}
@@ -0,0 +1,28 @@
+package com.master.socialmedia.service;
+
+import com.master.socialmedia.dto.FollowRelationDTO;
+
+public interface FollowGraphService {
+
+    boolean follows(Integer followerId, Integer followeeId);
+
+    int[] getFollowing(int userId);
+
+    int[] getFollowers(int userId);
+
+    int[] getCommonFollowers(int userId, int otherUserId, int limit);
+
+    int[] getMostFollowed(int limit);
+
+    FollowRelationDTO getRelation(Integer userId, Integer otherUserId);
+
+    void recordFollow(Integer followerId, Integer followeeId);
+
+    void removeUser(Integer userId);
+
+    void compact();
+
+    int syncChanges();
+
+    int pruneChangeLog();
+}
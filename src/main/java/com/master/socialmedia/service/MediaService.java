@@ -0,0 +1,35 @@
+package com.master.socialmedia.service;
+
+import com.master.socialmedia.dto.MediaAssetDTO;
+import com.master.socialmedia.dto.MediaFileDTO;
+import com.master.socialmedia.dto.MediaUploadDTO;
+import com.master.socialmedia.enums.MediaKind;
+import com.master.socialmedia.enums.MediaRendition;
+import org.springframework.security.core.Authentication;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+
+public interface MediaService {
+
+    MediaUploadDTO createUpload(String contentType, long sizeBytes, Authentication authentication);
+
+    long writeChunk(String mediaId, long expires, String signature, String contentRange, ReadableByteChannel body);
+
+    MediaAssetDTO completeUpload(String mediaId, long expires, String signature);
+
+    /**
+     * Media URLs are capability URLs: anyone holding one can fetch the asset
+     * without signing in, and the random id is what keeps it private. Only
+     * assets shown on a public post are marked {@code shared}, so shared caches
+     * never keep a copy of media behind a FRIENDS_ONLY or unpublished post.
+     */
+    MediaFileDTO resolve(String mediaId, MediaRendition rendition);
+
+    void transfer(MediaFileDTO file, long start, long length, OutputStream out) throws IOException;
+
+    void checkAttachment(String url, MediaKind kind, Integer ownerId);
+
+    int deleteOwnedBy(Integer ownerId, int limit);
+}
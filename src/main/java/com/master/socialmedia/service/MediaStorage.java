@@ -0,0 +1,25 @@
+package com.master.socialmedia.service;
+
+import com.master.socialmedia.enums.MediaRendition;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Byte store for uploaded originals and their renditions, keyed by media id.
+ * The local implementation keeps plain files; an object-store backed one only
+ * has to hand out a readable {@link FileChannel} (e.g. from a local cache).
+ */
+public interface MediaStorage {
+
+    long writeChunk(String mediaId, long offset, long length, ReadableByteChannel source) throws IOException;
+
+    long size(String mediaId, MediaRendition rendition) throws IOException;
+
+    FileChannel open(String mediaId, MediaRendition rendition) throws IOException;
+
+    void store(String mediaId, MediaRendition rendition, byte[] content) throws IOException;
+
+    void delete(String mediaId) throws IOException;
+}
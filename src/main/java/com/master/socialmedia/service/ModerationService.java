@@ -0,0 +1,24 @@
+package com.master.socialmedia.service;
+
+import com.master.socialmedia.dto.ModerationPageDTO;
+import com.master.socialmedia.enums.ReportReason;
+import org.springframework.security.core.Authentication;
+
+import java.util.Collection;
+
+public interface ModerationService {
+
+    boolean reportPost(Integer postId, ReportReason reason, Authentication authentication);
+
+    int aggregateReports();
+
+    ModerationPageDTO getQueue(Authentication authentication, String cursor, int size);
+
+    void dismissReports(Integer postId, Authentication authentication);
+
+    void removePost(Integer postId, Authentication authentication);
+
+    int deleteForPosts(Collection<Integer> postIds);
+
+    int deleteReportsByReporter(Integer userId, int limit);
+}
@@ -0,0 +1,17 @@
+package com.master.socialmedia.service;
+
+import com.master.socialmedia.dto.NotificationPageDTO;
+import org.springframework.security.core.Authentication;
+
+public interface NotificationService {
+
+    NotificationPageDTO getInbox(Authentication authentication, String cursor, int size);
+
+    int getUnreadCount(Authentication authentication);
+
+    int markAllRead(Authentication authentication);
+
+    void markRead(Long notificationId, Authentication authentication);
+
+    void flush();
+}
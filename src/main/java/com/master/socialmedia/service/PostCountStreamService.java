@@ -0,0 +1,10 @@
+package com.master.socialmedia.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+public interface PostCountStreamService {
+
+    SseEmitter subscribe(Set<Integer> postIds);
+}
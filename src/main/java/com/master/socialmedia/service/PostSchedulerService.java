@@ -0,0 +1,14 @@
+package com.master.socialmedia.service;
+
+import java.time.LocalDateTime;
+
+public interface PostSchedulerService {
+
+    void schedule(Integer postId, LocalDateTime dueAt);
+
+    int rebuild();
+
+    int extendHorizon();
+
+    int applyDueTransitions();
+}
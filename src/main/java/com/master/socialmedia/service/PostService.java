@@ -1,23 +1,35 @@
 package com.master.socialmedia.service;
 
+import com.master.socialmedia.dto.PostCountsDTO;
 import com.master.socialmedia.dto.PostDTO;
 import com.master.socialmedia.entity.Post;
 import com.master.socialmedia.entity.User;
 import com.master.socialmedia.enums.PostStatus;
 import org.springframework.security.core.Authentication;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface PostService {
 
-    PostDTO createPost(Post post, Authentication authentication);
+    PostDTO createPost(Post post, LocalDateTime publishAt, Integer archiveAfterHours, Authentication authentication);
 
     List<PostDTO> getPostsByAuthenticatedUser(Authentication authentication);
 
     List<PostDTO> getAllPublicPosts();
 
+    void streamPublicPosts(Consumer<PostDTO> sink);
+
     List<PostDTO> getPostsByUser(Integer userId);
 
+    PostDTO getPostById(Integer postId);
+
+    List<PostDTO> getPostsByIds(List<Integer> postIds);
+
+    Map<Integer, PostCountsDTO> getCountsByPostIds(List<Integer> postIds);
+
     PostDTO updatePost(Integer postId, Post updatedPost, Authentication authentication);
 
     void deletePost(Integer postId, Authentication authentication);
@@ -38,7 +50,7 @@ public interface PostService {
 
     List<PostDTO> getPostsForUser(User viewer, Integer ownerId);
 
-    List<PostDTO> searchPosts(String keyword);
+    void searchPosts(String keyword, Consumer<PostDTO> sink);
 
     PostDTO changePostStatus(Integer postId, Integer userId, PostStatus newStatus);
 }
@@ -0,0 +1,17 @@
+package com.master.socialmedia.service;
+
+import com.master.socialmedia.dto.TagPageDTO;
+import com.master.socialmedia.entity.Post;
+
+import java.util.Collection;
+
+public interface PostTagService {
+
+    void sync(Post post, boolean isNew);
+
+    TagPageDTO getTagPage(char sigil, String tag, String cursor, int size);
+
+    long getPostCount(char sigil, String tag);
+
+    int deleteForPosts(Collection<Integer> postIds);
+}
@@ -0,0 +1,6 @@
+package com.master.socialmedia.service;
+
+public interface PurgeService {
+
+    void purgeTombstones();
+}
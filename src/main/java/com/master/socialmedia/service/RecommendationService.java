@@ -0,0 +1,17 @@
+package com.master.socialmedia.service;
+
+import com.master.socialmedia.dto.UserRecommendationDTO;
+import org.springframework.security.core.Authentication;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface RecommendationService {
+
+    List<UserRecommendationDTO> getPeopleYouMayKnow(Authentication authentication, int limit);
+
+    void refreshStale();
+
+    /** Computes and caches the recommendations of users that have none cached yet. */
+    void precompute(Collection<Integer> userIds);
+}
@@ -0,0 +1,16 @@
+package com.master.socialmedia.service;
+
+import io.jsonwebtoken.Claims;
+
+public interface TokenRevocationService {
+
+    boolean isRevoked(Claims claims);
+
+    void revokeToken(String token);
+
+    void revokeAllTokens(String userName);
+
+    int syncRevocations();
+
+    int pruneExpired();
+}
@@ -0,0 +1,14 @@
+package com.master.socialmedia.service;
+
+import com.master.socialmedia.dto.PostDTO;
+
+import java.util.List;
+
+public interface TrendingService {
+
+    List<PostDTO> getTrendingPosts();
+
+    void refresh();
+
+    void rebuild();
+}
@@ -5,10 +5,13 @@ import com.master.socialmedia.entity.User;
 import org.springframework.security.core.Authentication;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
 
-    List<UserDTO> getAllUsers();
+    boolean hasUsers();
+
+    void streamAllUsers(Consumer<UserDTO> sink);
 
     UserDTO findUserByUserName(Authentication authentication);
 
@@ -18,6 +21,8 @@ public interface UserService {
 
     UserDTO findUserById(Integer userId);
 
+    List<UserDTO> findUsersByIds(List<Integer> userIds);
+
     UserDTO findUserByEmail(String email);
 
     UserDTO updateUser(User user, Authentication authentication);
@@ -0,0 +1,17 @@
+package com.master.socialmedia.service;
+
+import com.master.socialmedia.dto.PostDTO;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+
+public interface ViewTrackingService {
+
+    void recordViews(List<PostDTO> posts, Authentication authentication);
+
+    long getPostReach(Integer postId);
+
+    long getAuthorReach(Integer authorId);
+
+    void flush();
+}
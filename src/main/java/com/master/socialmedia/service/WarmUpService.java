@@ -0,0 +1,11 @@
+package com.master.socialmedia.service;
+
+public interface WarmUpService {
+
+    /** The warm-up requests run as this principal. Usernames cannot contain a hyphen, so no account can match it. */
+    String PRINCIPAL = "warm-up";
+
+    boolean isReady();
+
+    void warmUp();
+}
@@ -0,0 +1,136 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.dto.UserIdentityView;
+import com.master.socialmedia.repository.UserRepository;
+import com.master.socialmedia.service.AvailabilityService;
+import com.master.socialmedia.utils.BloomFilter;
+import com.master.socialmedia.utils.DbUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AvailabilityServiceImpl implements AvailabilityService {
+
+    private static final String USERNAME_PREFIX = "u:";
+    private static final String EMAIL_PREFIX = "e:";
+
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${availability.expected-insertions}")
+    private long expectedInsertions;
+
+    @Value("${availability.false-positive-rate}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+    private volatile boolean ready;
+
+    private Counter definitelyFree;
+    private Counter maybeTaken;
+    private Counter falsePositives;
+
+    @PostConstruct
+    void init() {
+        filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        definitelyFree = meterRegistry.counter("availability.filter.checks", "result", "definitely_free");
+        maybeTaken = meterRegistry.counter("availability.filter.checks", "result", "maybe_taken");
+        falsePositives = meterRegistry.counter("availability.filter.false_positives");
+        Gauge.builder("availability.filter.expected_false_positive_rate", this, s -> s.filter.expectedFalsePositiveRate())
+                .register(meterRegistry);
+        Gauge.builder("availability.filter.observed_false_positive_rate", this, AvailabilityServiceImpl::observedFalsePositiveRate)
+                .register(meterRegistry);
+        Gauge.builder("availability.filter.insertions", this, s -> s.filter.insertions())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean isUserNameAvailable(String userName) {
+        if (ready && !filter.mightContain(USERNAME_PREFIX + normalize(userName))) {
+            definitelyFree.increment();
+            return true;
+        }
+        maybeTaken.increment();
+        boolean available = !userRepository.existsByUserName(userName);
+        if (available && ready) {
+            falsePositives.increment();
+        }
+        return available;
+    }
+
+    @Override
+    public boolean isEmailAvailable(String email) {
+        if (ready && !filter.mightContain(EMAIL_PREFIX + normalize(email))) {
+            definitelyFree.increment();
+            return true;
+        }
+        maybeTaken.increment();
+        boolean available = !userRepository.existsByEmail(email);
+        if (available && ready) {
+            falsePositives.increment();
+        }
+        return available;
+    }
+
+    @Override
+    public void recordUser(String userName, String email) {
+        // After commit, so a rebuild that reads the users before the row is visible still gets it through building.
+        DbUtil.afterCommit(() -> {
+            BloomFilter next = building;
+            put(filter, userName, email);
+            if (next != null) {
+                put(next, userName, email);
+            }
+        });
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${availability.rebuild-interval-ms}", initialDelayString = "${availability.rebuild-interval-ms}")
+    public synchronized void rebuild() {
+        // Published before the snapshot is read, so a user who registers while it loads is recorded in both.
+        BloomFilter next = new BloomFilter(Math.max(expectedInsertions, userRepository.count() * 4), falsePositiveRate);
+        building = next;
+        List<UserIdentityView> identities = userRepository.findAllIdentities();
+        for (UserIdentityView identity : identities) {
+            put(next, identity.getUserName(), identity.getEmail());
+        }
+        filter = next;
+        building = null;
+        ready = true;
+        log.info("Rebuilt availability filter with {} users ({} bits)", identities.size(), next.bitSize());
+    }
+
+    private void put(BloomFilter target, String userName, String email) {
+        if (userName != null) {
+            target.put(USERNAME_PREFIX + normalize(userName));
+        }
+        if (email != null) {
+            target.put(EMAIL_PREFIX + normalize(email));
+        }
+    }
+
+    private double observedFalsePositiveRate() {
+        double negatives = falsePositives.count() + definitelyFree.count();
+        return negatives == 0 ? 0 : falsePositives.count() / negatives;
+    }
+
+    private String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,68 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.dto.PostListVersionView;
+import com.master.socialmedia.dto.PostVersionView;
+import com.master.socialmedia.enums.PostStatus;
+import com.master.socialmedia.repository.PostRepository;
+import com.master.socialmedia.repository.UserRepository;
+import com.master.socialmedia.service.ETagService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+@Service
+@RequiredArgsConstructor
+public class ETagServiceImpl implements ETagService {
+
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+
+    @Override
+    public String forUser(Integer userId) {
+        Long version = userRepository.findVersionById(userId);
+        return version == null ? null : quote("u" + userId + "-v" + version);
+    }
+
+    @Override
+    public String forUserName(String userName) {
+        Long version = userRepository.findVersionByUserName(userName);
+        return version == null ? null : quote("u-" + userName + "-v" + version);
+    }
+
+    @Override
+    public String forPost(Integer postId) {
+        PostVersionView version = postRepository.findVersionById(postId, PostStatus.PUBLIC);
+        if (version == null) {
+            return null;
+        }
+        return quote("p" + postId + "-" + micros(version.getUpdatedAt()) + "-v" + version.getUserVersion());
+    }
+
+    @Override
+    public String forPostsByUser(Integer userId) {
+        return forList("up" + userId, postRepository.findListVersionByUserId(userId, PostStatus.PUBLIC));
+    }
+
+    @Override
+    public String forPublicPosts() {
+        return "W/" + forList("pub", postRepository.findListVersionByStatus(PostStatus.PUBLIC));
+    }
+
+    private String forList(String prefix, PostListVersionView version) {
+        if (version == null || version.getPostCount() == null || version.getPostCount() == 0) {
+            return quote(prefix + "-empty");
+        }
+        return quote(prefix + "-" + version.getPostCount() + "-" + version.getIdSum() + "-"
+                + micros(version.getMaxUpdatedAt()) + "-v" + version.getUserVersionSum());
+    }
+
+    private long micros(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    private String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
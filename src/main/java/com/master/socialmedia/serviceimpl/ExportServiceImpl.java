@@ -0,0 +1,318 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.master.socialmedia.dto.ExportStatusDTO;
+import com.master.socialmedia.enums.ExportState;
+import com.master.socialmedia.exception.ExportInProgressException;
+import com.master.socialmedia.exception.ResourceNotFoundException;
+import com.master.socialmedia.exception.UnauthorizedActionException;
+import com.master.socialmedia.service.ExportService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportServiceImpl implements ExportService {
+
+    private static final String CHECKPOINT_FILE = "checkpoint.json";
+    private static final Pattern EXPORT_ID = Pattern.compile("\\d{8}-\\d{6}");
+    private static final DateTimeFormatter EXPORT_ID_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private static final List<ExportTable> TABLES = List.of(
+            new ExportTable("users", "select id, first_name, last_name, user_name, email, gender from user_table " +
+                    "where is_deleted = false and id > ? order by id limit ?", List.of("id")),
+            new ExportTable("posts", "select id, user_id, caption, image_url, video_url, location, status, report_count, " +
+                    "created_at, updated_at from post_table where is_deleted = false and id > ? order by id limit ?",
+                    List.of("id")),
+            new ExportTable("comments", "select id, post_id, user_id, text, created_at from comment_table " +
+                    "where id > ? order by id limit ?", List.of("id")),
+            new ExportTable("likes", "select post_id, user_id from post_likes " +
+                    "where post_id > ? or (post_id = ? and user_id > ?) order by post_id, user_id limit ?",
+                    List.of("post_id", "user_id")),
+            new ExportTable("follows", "select user_id as follower_id, followings as followee_id from user_followings " +
+                    "where user_id > ? or (user_id = ? and followings > ?) order by user_id, followings limit ?",
+                    List.of("follower_id", "followee_id")));
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${admin.usernames:}")
+    private Set<String> adminUsernames;
+
+    @Value("${export.dir}")
+    private String exportDir;
+
+    @Value("${export.chunk-size}")
+    private int chunkSize;
+
+    private JdbcTemplate jdbcTemplate;
+    private ExecutorService executor;
+    private final AtomicReference<String> running = new AtomicReference<>();
+    private final Map<String, ExportStatusDTO> statuses = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(chunkSize);
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "data-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public ExportStatusDTO startExport(Authentication authentication) {
+        requireAdmin(authentication);
+        String exportId = EXPORT_ID_FORMAT.format(Instant.now());
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.setExportId(exportId);
+        checkpoint.setStartedAt(Instant.now());
+        return submit(checkpoint);
+    }
+
+    @Override
+    public ExportStatusDTO resumeExport(String exportId, Authentication authentication) {
+        requireAdmin(authentication);
+        Checkpoint checkpoint = readCheckpoint(exportId);
+        if (checkpoint.isCompleted()) {
+            return toStatus(checkpoint, ExportState.COMPLETED);
+        }
+        return submit(checkpoint);
+    }
+
+    @Override
+    public ExportStatusDTO getExportStatus(String exportId, Authentication authentication) {
+        requireAdmin(authentication);
+        ExportStatusDTO status = statuses.get(exportId);
+        if (status != null) {
+            return status;
+        }
+        Checkpoint checkpoint = readCheckpoint(exportId);
+        return toStatus(checkpoint, checkpoint.isCompleted() ? ExportState.COMPLETED : ExportState.INTERRUPTED);
+    }
+
+    private ExportStatusDTO submit(Checkpoint checkpoint) {
+        String exportId = checkpoint.getExportId();
+        if (!running.compareAndSet(null, exportId)) {
+            throw new ExportInProgressException("Export " + running.get() + " is still running");
+        }
+        ExportStatusDTO status = toStatus(checkpoint, ExportState.RUNNING);
+        statuses.put(exportId, status);
+        executor.execute(() -> {
+            try {
+                runExport(checkpoint, status);
+                status.setState(checkpoint.isCompleted() ? ExportState.COMPLETED : ExportState.INTERRUPTED);
+            } catch (Exception e) {
+                log.error("Export {} failed", exportId, e);
+                status.setState(ExportState.FAILED);
+                status.setError(e.getMessage());
+            } finally {
+                status.setFinishedAt(Instant.now());
+                running.set(null);
+            }
+        });
+        return status;
+    }
+
+    private void runExport(Checkpoint checkpoint, ExportStatusDTO status) throws IOException {
+        Path dir = exportPath(checkpoint.getExportId());
+        Files.createDirectories(dir);
+        for (ExportTable table : TABLES) {
+            TableProgress progress = checkpoint.getTables().computeIfAbsent(table.name(), name -> new TableProgress());
+            if (!progress.isDone() && !exportTable(table, progress, dir, checkpoint, status)) {
+                return;
+            }
+        }
+        checkpoint.setCompleted(true);
+        writeCheckpoint(dir, checkpoint);
+        log.info("Export {} written to {}", checkpoint.getExportId(), dir);
+    }
+
+    private boolean exportTable(ExportTable table, TableProgress progress, Path dir, Checkpoint checkpoint,
+                                ExportStatusDTO status) throws IOException {
+        try (FileChannel rows = openAt(dir.resolve(table.name() + ".ndjson"), progress.getRowsBytes());
+             FileChannel columns = openAt(dir.resolve(table.name() + ".columns.ndjson"), progress.getColumnsBytes())) {
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                List<Map<String, Object>> chunk = jdbcTemplate.queryForList(table.sql(), table.params(progress.getCursor(), chunkSize));
+                if (!chunk.isEmpty()) {
+                    write(rows, rowsOf(chunk));
+                    write(columns, columnsOf(chunk, progress.getRowGroups()));
+                    rows.force(false);
+                    columns.force(false);
+
+                    Map<String, Object> last = chunk.get(chunk.size() - 1);
+                    for (int i = 0; i < table.keys().size(); i++) {
+                        progress.getCursor()[i] = ((Number) last.get(table.keys().get(i))).longValue();
+                    }
+                    progress.setRowsBytes(rows.position());
+                    progress.setColumnsBytes(columns.position());
+                    progress.setRowGroups(progress.getRowGroups() + 1);
+                    progress.setRowCount(progress.getRowCount() + chunk.size());
+                    Map<String, Long> exported = new LinkedHashMap<>(status.getRowsExported());
+                    exported.put(table.name(), progress.getRowCount());
+                    status.setRowsExported(exported);
+                    meterRegistry.counter("export.rows", "table", table.name()).increment(chunk.size());
+                }
+                progress.setDone(chunk.size() < chunkSize);
+                writeCheckpoint(dir, checkpoint);
+                if (progress.isDone()) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    private byte[] rowsOf(List<Map<String, Object>> chunk) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (Map<String, Object> row : chunk) {
+            out.write(objectMapper.writeValueAsBytes(row));
+            out.write('\n');
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] columnsOf(List<Map<String, Object>> chunk, int rowGroup) throws IOException {
+        Map<String, List<Object>> columns = new LinkedHashMap<>();
+        for (String column : chunk.get(0).keySet()) {
+            List<Object> values = new ArrayList<>(chunk.size());
+            for (Map<String, Object> row : chunk) {
+                values.add(row.get(column));
+            }
+            columns.put(column, values);
+        }
+        Map<String, Object> group = new LinkedHashMap<>();
+        group.put("rowGroup", rowGroup);
+        group.put("rows", chunk.size());
+        group.put("columns", columns);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(objectMapper.writeValueAsBytes(group));
+        out.write('\n');
+        return out.toByteArray();
+    }
+
+    private FileChannel openAt(Path file, long offset) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(offset);
+        channel.position(offset);
+        return channel;
+    }
+
+    private void write(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void writeCheckpoint(Path dir, Checkpoint checkpoint) throws IOException {
+        Path tmp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.write(tmp, objectMapper.writeValueAsBytes(checkpoint));
+        Files.move(tmp, dir.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Checkpoint readCheckpoint(String exportId) {
+        Path file = exportPath(exportId).resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            throw new ResourceNotFoundException("Export not found: " + exportId);
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), Checkpoint.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable checkpoint for export " + exportId, e);
+        }
+    }
+
+    private Path exportPath(String exportId) {
+        if (exportId == null || !EXPORT_ID.matcher(exportId).matches()) {
+            throw new ResourceNotFoundException("Export not found: " + exportId);
+        }
+        return Paths.get(exportDir).toAbsolutePath().resolve(exportId);
+    }
+
+    private ExportStatusDTO toStatus(Checkpoint checkpoint, ExportState state) {
+        ExportStatusDTO status = new ExportStatusDTO();
+        status.setExportId(checkpoint.getExportId());
+        status.setState(state);
+        status.setDirectory(exportPath(checkpoint.getExportId()).toString());
+        status.setStartedAt(checkpoint.getStartedAt());
+        checkpoint.getTables().forEach((table, progress) -> status.getRowsExported().put(table, progress.getRowCount()));
+        return status;
+    }
+
+    private void requireAdmin(Authentication authentication) {
+        if (authentication == null || !adminUsernames.contains(authentication.getName())) {
+            throw new UnauthorizedActionException("Only administrators can run data exports");
+        }
+    }
+
+    private record ExportTable(String name, String sql, List<String> keys) {
+
+        Object[] params(long[] cursor, int limit) {
+            return keys.size() == 1
+                    ? new Object[]{cursor[0], limit}
+                    : new Object[]{cursor[0], cursor[0], cursor[1], limit};
+        }
+    }
+
+    @Data
+    public static class Checkpoint {
+        private String exportId;
+        private Instant startedAt;
+        private boolean completed;
+        private Map<String, TableProgress> tables = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class TableProgress {
+        private long[] cursor = new long[2];
+        private long rowsBytes;
+        private long columnsBytes;
+        private int rowGroups;
+        private long rowCount;
+        private boolean done;
+    }
+}
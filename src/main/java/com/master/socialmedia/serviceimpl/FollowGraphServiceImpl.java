@@ -0,0 +1,190 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.dto.FollowRelationDTO;
+import com.master.socialmedia.enums.FollowChange;
+import com.master.socialmedia.service.FollowGraphService;
+import com.master.socialmedia.utils.DbUtil;
+import com.master.socialmedia.utils.FollowGraph;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+
+/**
+ * Answers follow queries from an in-memory {@link FollowGraph} loaded from
+ * user_followings at startup and kept current by the follow and delete paths.
+ * <p>
+ * Those paths also write each change to follow_edge_log in their own
+ * transaction, and every instance re-reads the log for rows logged since its
+ * last sync, so follows and deletions made on other instances reach the graph
+ * within {@code sync-interval-ms}. Until then the graph may lag; decisions that
+ * gate what a user may see are made against user_followings instead.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@DependsOnDatabaseInitialization
+public class FollowGraphServiceImpl implements FollowGraphService {
+
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${graph.off-heap}")
+    private boolean offHeap;
+
+    @Value("${graph.load-fetch-size}")
+    private int loadFetchSize;
+
+    @Value("${graph.compaction-threshold}")
+    private long compactionThreshold;
+
+    @Value("${graph.sync-overlap-ms}")
+    private long syncOverlapMs;
+
+    @Value("${graph.log-retention-ms}")
+    private long logRetentionMs;
+
+    @Value("${graph.prune-batch-size}")
+    private int pruneBatchSize;
+
+    private FollowGraph graph;
+    private JdbcTemplate logTemplate;
+    private volatile long syncedAt;
+
+    @PostConstruct
+    void load() {
+        logTemplate = new JdbcTemplate(dataSource);
+        // Changes committed while the table is being read are picked up again by the first sync.
+        syncedAt = System.currentTimeMillis();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(loadFetchSize);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Long edges = jdbcTemplate.queryForObject("select count(*) from user_followings", Long.class);
+        FollowGraph.Builder builder = FollowGraph.builder((int) Math.min(Integer.MAX_VALUE - 8, edges != null ? edges : 0));
+        jdbcTemplate.query("select user_id, followings from user_followings",
+                (RowCallbackHandler) rs -> builder.add(rs.getInt(1), rs.getInt(2)));
+        graph = builder.build(offHeap);
+        jdbcTemplate.queryForList("select id from user_table where is_deleted = true", Integer.class)
+                .forEach(graph::removeUser);
+        graph.compact();
+        sample.stop(meterRegistry.timer("graph.load"));
+
+        meterRegistry.gauge("graph.edges", graph, FollowGraph::edgeCount);
+        meterRegistry.gauge("graph.memory.bytes", graph, FollowGraph::memoryBytes);
+        meterRegistry.gauge("graph.pending.changes", graph, FollowGraph::pendingChanges);
+        log.info("Loaded follow graph with {} edges in {} KiB ({})", graph.edgeCount(), graph.memoryBytes() / 1024,
+                offHeap ? "off-heap" : "heap");
+    }
+
+    @Override
+    public boolean follows(Integer followerId, Integer followeeId) {
+        return graph.follows(followerId, followeeId);
+    }
+
+    @Override
+    public FollowRelationDTO getRelation(Integer userId, Integer otherUserId) {
+        return new FollowRelationDTO(userId, otherUserId,
+                graph.follows(userId, otherUserId),
+                graph.follows(otherUserId, userId),
+                graph.commonFollowingCount(userId, otherUserId),
+                graph.commonFollowerCount(userId, otherUserId));
+    }
+
+    @Override
+    public int[] getFollowing(int userId) {
+        return graph.following(userId);
+    }
+
+    @Override
+    public int[] getFollowers(int userId) {
+        return graph.followers(userId);
+    }
+
+    @Override
+    public int[] getCommonFollowers(int userId, int otherUserId, int limit) {
+        return graph.commonFollowers(userId, otherUserId, limit);
+    }
+
+    @Override
+    public int[] getMostFollowed(int limit) {
+        return graph.mostFollowed(limit);
+    }
+
+    @Override
+    public void recordFollow(Integer followerId, Integer followeeId) {
+        logChange(FollowChange.FOLLOW, followerId, followeeId);
+        DbUtil.afterCommit(() -> graph.addEdge(followerId, followeeId));
+    }
+
+    @Override
+    public void removeUser(Integer userId) {
+        logChange(FollowChange.REMOVE_USER, userId, null);
+        DbUtil.afterCommit(() -> graph.removeUser(userId));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${graph.sync-interval-ms}", initialDelayString = "${graph.sync-interval-ms}")
+    public int syncChanges() {
+        long now = System.currentTimeMillis();
+        // Rows in the overlap are applied again; adding an edge or removing a user twice changes nothing.
+        long from = syncedAt - syncOverlapMs;
+        syncedAt = now;
+        int[] read = {0};
+        logTemplate.query("select change_type, follower_id, followee_id from follow_edge_log where logged_at >= ?",
+                rs -> {
+                    if (FollowChange.valueOf(rs.getString(1)) == FollowChange.FOLLOW) {
+                        graph.addEdge(rs.getInt(2), rs.getInt(3));
+                    } else {
+                        graph.removeUser(rs.getInt(2));
+                    }
+                    read[0]++;
+                },
+                DbUtil.toTimestamp(from));
+        return read[0];
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${graph.prune-interval-ms}", initialDelayString = "${graph.prune-interval-ms}")
+    public int pruneChangeLog() {
+        Timestamp cutoff = DbUtil.toTimestamp(System.currentTimeMillis() - logRetentionMs);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = logTemplate.update("delete from follow_edge_log where logged_at < ? limit ?", cutoff,
+                    pruneBatchSize);
+            total += deleted;
+        } while (deleted >= pruneBatchSize);
+        return total;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${graph.compaction-interval-ms}", initialDelayString = "${graph.compaction-interval-ms}")
+    public void compact() {
+        long pending = graph.pendingChanges();
+        if (pending < compactionThreshold) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        graph.compact();
+        sample.stop(meterRegistry.timer("graph.compaction"));
+        log.info("Compacted {} follow graph changes, {} edges in {} KiB", pending, graph.edgeCount(),
+                graph.memoryBytes() / 1024);
+    }
+
+    private void logChange(FollowChange change, Integer followerId, Integer followeeId) {
+        logTemplate.update("insert into follow_edge_log (change_type, follower_id, followee_id, logged_at) "
+                + "values (?, ?, ?, ?)", change.name(), followerId, followeeId,
+                DbUtil.toTimestamp(System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,89 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.enums.MediaRendition;
+import com.master.socialmedia.service.MediaStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+@Service
+public class LocalMediaStorage implements MediaStorage {
+
+    private final Path root;
+
+    public LocalMediaStorage(@Value("${media.dir}") String mediaDir) {
+        this.root = Paths.get(mediaDir).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public long writeChunk(String mediaId, long offset, long length, ReadableByteChannel source) throws IOException {
+        Path file = path(mediaId, MediaRendition.ORIGINAL);
+        Files.createDirectories(file.getParent());
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            while (written < length) {
+                long transferred = channel.transferFrom(source, offset + written, length - written);
+                if (transferred <= 0) {
+                    break;
+                }
+                written += transferred;
+            }
+        }
+        return written;
+    }
+
+    @Override
+    public long size(String mediaId, MediaRendition rendition) throws IOException {
+        try {
+            return Files.size(path(mediaId, rendition));
+        } catch (NoSuchFileException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public FileChannel open(String mediaId, MediaRendition rendition) throws IOException {
+        return FileChannel.open(path(mediaId, rendition), StandardOpenOption.READ);
+    }
+
+    @Override
+    public void store(String mediaId, MediaRendition rendition, byte[] content) throws IOException {
+        Path file = path(mediaId, rendition);
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, content);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void delete(String mediaId) throws IOException {
+        Path dir = directory(mediaId);
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private Path directory(String mediaId) {
+        return root.resolve(mediaId.substring(0, 2)).resolve(mediaId);
+    }
+
+    private Path path(String mediaId, MediaRendition rendition) {
+        return directory(mediaId).resolve(rendition.getPathSegment());
+    }
+}
@@ -0,0 +1,481 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.dto.MediaAssetDTO;
+import com.master.socialmedia.dto.MediaFileDTO;
+import com.master.socialmedia.dto.MediaUploadDTO;
+import com.master.socialmedia.entity.MediaAsset;
+import com.master.socialmedia.enums.MediaKind;
+import com.master.socialmedia.enums.MediaRendition;
+import com.master.socialmedia.enums.MediaState;
+import com.master.socialmedia.enums.PostStatus;
+import com.master.socialmedia.exception.CustomAuthenticationException;
+import com.master.socialmedia.exception.InvalidPostDataException;
+import com.master.socialmedia.exception.MediaUploadException;
+import com.master.socialmedia.exception.ResourceNotFoundException;
+import com.master.socialmedia.exception.UnauthorizedActionException;
+import com.master.socialmedia.exception.UserNotFoundException;
+import com.master.socialmedia.repository.MediaAssetRepository;
+import com.master.socialmedia.repository.PostRepository;
+import com.master.socialmedia.repository.UserRepository;
+import com.master.socialmedia.service.MediaService;
+import com.master.socialmedia.service.MediaStorage;
+import com.master.socialmedia.utils.MediaUrls;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Uploads arrive as signed, append-only chunks written straight to the media
+ * store. Completed images are scaled into feed and thumbnail renditions on a
+ * bounded pool; anything the pool cannot take, or that was queued when the
+ * application stopped, is picked up again by {@link #maintain()}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MediaServiceImpl implements MediaService {
+
+    private static final Pattern CONTENT_RANGE = Pattern.compile("^bytes (\\d+)-(\\d+)/(\\d+)$");
+    private static final String HMAC = "HmacSHA256";
+    private static final String RENDITION_CONTENT_TYPE = "image/jpeg";
+    private static final float JPEG_QUALITY = 0.82f;
+    private static final String MEDIA_NOT_FOUND = "Media not found with ID: ";
+
+    private final MediaAssetRepository mediaAssetRepository;
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final MediaStorage mediaStorage;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${media.signing-secret}")
+    private String signingSecret;
+
+    @Value("${media.upload-url-ttl-ms}")
+    private long uploadUrlTtlMs;
+
+    @Value("${media.max-upload-bytes}")
+    private long maxUploadBytes;
+
+    @Value("${media.max-chunk-bytes}")
+    private long maxChunkBytes;
+
+    @Value("${media.max-pixels}")
+    private long maxPixels;
+
+    @Value("${media.map-window-bytes}")
+    private long mapWindowBytes;
+
+    @Value("${media.processing.threads}")
+    private int processingThreads;
+
+    @Value("${media.processing.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${media.processing.retry-interval-ms}")
+    private long retryIntervalMs;
+
+    private ThreadPoolExecutor executor;
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(processingThreads, processingThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "media-rendition-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("media.processing.queued", executor.getQueue(), Collection::size);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public MediaUploadDTO createUpload(String contentType, long sizeBytes, Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new CustomAuthenticationException("Invalid or missing authentication");
+        }
+        Integer ownerId = userRepository.findIdByUserName(authentication.getName());
+        if (ownerId == null) {
+            throw new UserNotFoundException("Authenticated user not found.");
+        }
+        MediaKind kind = MediaKind.forContentType(contentType)
+                .orElseThrow(() -> new MediaUploadException("Unsupported content type: " + contentType));
+        if (sizeBytes <= 0 || sizeBytes > maxUploadBytes) {
+            throw new MediaUploadException("Upload size must be between 1 and " + maxUploadBytes + " bytes");
+        }
+
+        MediaAsset asset = new MediaAsset();
+        asset.setId(UUID.randomUUID().toString());
+        asset.setOwnerId(ownerId);
+        asset.setKind(kind);
+        asset.setContentType(contentType);
+        asset.setSizeBytes(sizeBytes);
+        asset.setState(MediaState.UPLOADING);
+        mediaAssetRepository.save(asset);
+
+        long expires = Instant.now().plusMillis(uploadUrlTtlMs).getEpochSecond();
+        String query = "?expires=" + expires + "&signature=" + sign(asset.getId(), expires);
+        String uploadUrl = MediaUrls.MEDIA_PATH + "uploads/" + asset.getId();
+        return new MediaUploadDTO(asset.getId(), MediaUrls.reference(asset.getId()), uploadUrl + query,
+                uploadUrl + "/complete" + query, Instant.ofEpochSecond(expires), maxChunkBytes);
+    }
+
+    @Override
+    public long writeChunk(String mediaId, long expires, String signature, String contentRange, ReadableByteChannel body) {
+        verifySignature(mediaId, expires, signature);
+        MediaAsset asset = findUploading(mediaId);
+
+        Matcher range = contentRange != null ? CONTENT_RANGE.matcher(contentRange) : null;
+        if (range == null || !range.matches()) {
+            throw new MediaUploadException("Content-Range must be of the form 'bytes start-end/total'");
+        }
+        long start = Long.parseLong(range.group(1));
+        long end = Long.parseLong(range.group(2));
+        long total = Long.parseLong(range.group(3));
+        long length = end - start + 1;
+        if (total != asset.getSizeBytes() || end < start || end >= total) {
+            throw new MediaUploadException("Content-Range does not fit the declared size of " + asset.getSizeBytes() + " bytes");
+        }
+        if (length > maxChunkBytes) {
+            throw new MediaUploadException("Chunks may not exceed " + maxChunkBytes + " bytes");
+        }
+
+        try {
+            long received = Math.max(0, mediaStorage.size(mediaId, MediaRendition.ORIGINAL));
+            if (start > received) {
+                throw new MediaUploadException("Chunk starts at " + start + " but only " + received + " bytes were received");
+            }
+            long written = mediaStorage.writeChunk(mediaId, start, length, body);
+            if (written != length) {
+                throw new MediaUploadException("Chunk ended after " + written + " of " + length + " bytes");
+            }
+            meterRegistry.counter("media.upload.bytes").increment(written);
+            return Math.max(received, end + 1);
+        } catch (IOException e) {
+            throw new MediaUploadException("Could not store chunk: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public MediaAssetDTO completeUpload(String mediaId, long expires, String signature) {
+        verifySignature(mediaId, expires, signature);
+        MediaAsset completed = transactionTemplate.execute(status -> {
+            MediaAsset asset = findUploading(mediaId);
+            try {
+                long received = mediaStorage.size(mediaId, MediaRendition.ORIGINAL);
+                if (received != asset.getSizeBytes()) {
+                    throw new MediaUploadException("Upload incomplete: received " + Math.max(0, received) + " of "
+                            + asset.getSizeBytes() + " bytes");
+                }
+            } catch (IOException e) {
+                throw new MediaUploadException("Could not read upload: " + e.getMessage());
+            }
+            asset.setState(asset.getKind() == MediaKind.IMAGE ? MediaState.PROCESSING : MediaState.READY);
+            return asset;
+        });
+
+        if (completed.getState() == MediaState.PROCESSING) {
+            enqueue(mediaId);
+        }
+        return new MediaAssetDTO(completed);
+    }
+
+    @Override
+    public MediaFileDTO resolve(String mediaId, MediaRendition rendition) {
+        MediaAsset asset = mediaAssetRepository.findById(mediaId)
+                .filter(found -> found.getState() != MediaState.UPLOADING)
+                .orElseThrow(() -> new ResourceNotFoundException(MEDIA_NOT_FOUND + mediaId));
+        boolean shared = postRepository.existsByUserIdAndMediaUrl(asset.getOwnerId(), MediaUrls.reference(mediaId),
+                PostStatus.PUBLIC);
+        try {
+            if (rendition != MediaRendition.ORIGINAL && asset.getKind() == MediaKind.IMAGE) {
+                long size = mediaStorage.size(mediaId, rendition);
+                if (size >= 0) {
+                    return new MediaFileDTO(mediaId, rendition, RENDITION_CONTENT_TYPE, size, true, shared);
+                }
+            }
+            long size = mediaStorage.size(mediaId, MediaRendition.ORIGINAL);
+            if (size < 0) {
+                throw new ResourceNotFoundException(MEDIA_NOT_FOUND + mediaId);
+            }
+            boolean immutable = rendition == MediaRendition.ORIGINAL || asset.getKind() != MediaKind.IMAGE
+                    || asset.getState() == MediaState.FAILED;
+            return new MediaFileDTO(mediaId, MediaRendition.ORIGINAL, asset.getContentType(), size, immutable, shared);
+        } catch (IOException e) {
+            throw new ResourceNotFoundException(MEDIA_NOT_FOUND + mediaId);
+        }
+    }
+
+    @Override
+    public void transfer(MediaFileDTO file, long start, long length, OutputStream out) throws IOException {
+        try (FileChannel channel = mediaStorage.open(file.getMediaId(), file.getRendition())) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                long window = Math.min(mapWindowBytes, end - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, window);
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                position += window;
+            }
+        }
+    }
+
+    @Override
+    public void checkAttachment(String url, MediaKind kind, Integer ownerId) {
+        String mediaId = MediaUrls.mediaId(url).orElse(null);
+        if (mediaId == null) {
+            return;
+        }
+        MediaAsset asset = mediaAssetRepository.findById(mediaId)
+                .orElseThrow(() -> new InvalidPostDataException(MEDIA_NOT_FOUND + mediaId));
+        if (!asset.getOwnerId().equals(ownerId)) {
+            throw new InvalidPostDataException("Media " + mediaId + " was uploaded by another user");
+        }
+        if (asset.getKind() != kind) {
+            throw new InvalidPostDataException("Media " + mediaId + " is not of type " + kind);
+        }
+        if (asset.getState() == MediaState.UPLOADING || asset.getState() == MediaState.FAILED) {
+            throw new InvalidPostDataException("Media " + mediaId + " is not available (" + asset.getState() + ")");
+        }
+    }
+
+    @Override
+    public int deleteOwnedBy(Integer ownerId, int limit) {
+        List<String> mediaIds = mediaAssetRepository.findIdsByOwnerId(ownerId, PageRequest.of(0, limit));
+        deleteAll(mediaIds);
+        return mediaIds.size();
+    }
+
+    @Scheduled(fixedDelayString = "${media.processing.retry-interval-ms}",
+            initialDelayString = "${media.processing.retry-interval-ms}")
+    public void maintain() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        mediaAssetRepository.findTop100ByStateAndUpdatedAtBefore(MediaState.PROCESSING, now.minus(Duration.ofMillis(retryIntervalMs)))
+                .forEach(asset -> enqueue(asset.getId()));
+
+        List<String> abandoned = mediaAssetRepository
+                .findTop100ByStateAndUpdatedAtBefore(MediaState.UPLOADING, now.minus(Duration.ofMillis(uploadUrlTtlMs)))
+                .stream()
+                .map(MediaAsset::getId)
+                .toList();
+        if (!abandoned.isEmpty()) {
+            deleteAll(abandoned);
+            log.info("Removed {} abandoned media uploads", abandoned.size());
+        }
+    }
+
+    private void enqueue(String mediaId) {
+        if (!queued.add(mediaId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(mediaId);
+                } finally {
+                    queued.remove(mediaId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.remove(mediaId);
+            meterRegistry.counter("media.processing.rejected").increment();
+            log.debug("Rendition queue full, media {} will be retried", mediaId);
+        }
+    }
+
+    private void process(String mediaId) {
+        MediaAsset asset = mediaAssetRepository.findById(mediaId).orElse(null);
+        if (asset == null || asset.getState() != MediaState.PROCESSING) {
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        MediaState outcome = MediaState.FAILED;
+        try {
+            BufferedImage original = decode(mediaId);
+            for (MediaRendition rendition : List.of(MediaRendition.FEED, MediaRendition.THUMBNAIL)) {
+                mediaStorage.store(mediaId, rendition, encodeJpeg(scale(original, rendition.getMaxWidth())));
+            }
+            outcome = MediaState.READY;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate renditions for media {}: {}", mediaId, e.getMessage());
+        }
+
+        MediaState finalState = outcome;
+        transactionTemplate.executeWithoutResult(status -> mediaAssetRepository.findById(mediaId)
+                .filter(current -> current.getState() == MediaState.PROCESSING)
+                .ifPresent(current -> current.setState(finalState)));
+        sample.stop(meterRegistry.timer("media.processing", "outcome", outcome.name().toLowerCase()));
+    }
+
+    private BufferedImage decode(String mediaId) throws IOException {
+        try (FileChannel channel = mediaStorage.open(mediaId, MediaRendition.ORIGINAL);
+             ImageInputStream input = ImageIO.createImageInputStream(Channels.newInputStream(channel))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("unrecognised image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("image of " + width + "x" + height + " exceeds " + maxPixels + " pixels");
+                }
+                // Decoding every pixel of a huge original only to shrink it wastes memory; skip rows and columns.
+                int subsampling = Math.max(1, width / (MediaRendition.FEED.getMaxWidth() * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int maxWidth) {
+        int targetWidth = Math.min(maxWidth, source.getWidth());
+        int targetHeight = Math.max(1, Math.round((float) source.getHeight() * targetWidth / source.getWidth()));
+
+        // Halving step by step keeps bilinear filtering from dropping detail on large reductions.
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private MediaAsset findUploading(String mediaId) {
+        MediaAsset asset = mediaAssetRepository.findById(mediaId)
+                .orElseThrow(() -> new ResourceNotFoundException(MEDIA_NOT_FOUND + mediaId));
+        if (asset.getState() != MediaState.UPLOADING) {
+            throw new MediaUploadException("Media " + mediaId + " is no longer accepting data");
+        }
+        return asset;
+    }
+
+    private void deleteAll(List<String> mediaIds) {
+        for (String mediaId : mediaIds) {
+            try {
+                mediaStorage.delete(mediaId);
+            } catch (IOException e) {
+                log.warn("Could not delete files of media {}: {}", mediaId, e.getMessage());
+            }
+        }
+        mediaAssetRepository.deleteAllByIdInBatch(mediaIds);
+    }
+
+    private void verifySignature(String mediaId, long expires, String signature) {
+        if (Instant.now().getEpochSecond() > expires) {
+            throw new UnauthorizedActionException("Upload URL has expired");
+        }
+        byte[] expected = sign(mediaId, expires).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = signature != null ? signature.getBytes(StandardCharsets.US_ASCII) : new byte[0];
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new UnauthorizedActionException("Invalid upload signature");
+        }
+    }
+
+    private String sign(String mediaId, long expires) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(signingSecret.getBytes(StandardCharsets.UTF_8), HMAC));
+            byte[] digest = mac.doFinal((mediaId + ":" + expires).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign upload URLs", e);
+        }
+    }
+}
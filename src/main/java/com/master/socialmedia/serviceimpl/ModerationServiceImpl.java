@@ -0,0 +1,372 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.dto.ModerationItemDTO;
+import com.master.socialmedia.dto.ModerationPageDTO;
+import com.master.socialmedia.entity.Post;
+import com.master.socialmedia.enums.PostStatus;
+import com.master.socialmedia.enums.ReportReason;
+import com.master.socialmedia.exception.ResourceNotFoundException;
+import com.master.socialmedia.exception.UnauthorizedActionException;
+import com.master.socialmedia.exception.UserNotFoundException;
+import com.master.socialmedia.exception.UserOperationException;
+import com.master.socialmedia.repository.PostRepository;
+import com.master.socialmedia.repository.UserRepository;
+import com.master.socialmedia.service.ModerationService;
+import com.master.socialmedia.service.PostTagService;
+import com.master.socialmedia.utils.DbUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Post reports and the moderation queue. Reporting appends a row to
+ * post_report and touches nothing else; a scheduled aggregator folds pending
+ * reports into post_table.report_count and moderation_queue in a few
+ * multi-row statements per batch and hides public posts that cross the
+ * report threshold.
+ * <p>
+ * Report velocity uses forward decay in log space: each report adds
+ * {@code exp(lambda * (t - EPOCH))} to a post's weight and the queue stores the
+ * log of the sum. The decay factor at read time is the same for every post,
+ * so ordering by the stored key ranks posts by recent report rate.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ModerationServiceImpl implements ModerationService {
+
+    private static final long EPOCH_MILLIS = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final Set<PostStatus> REPORTABLE = Set.of(PostStatus.PUBLIC, PostStatus.FRIENDS_ONLY);
+
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final PostTagService postTagService;
+    private final DataSource dataSource;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${moderation.hide-threshold}")
+    private int hideThreshold;
+
+    @Value("${moderation.velocity-half-life-ms}")
+    private long velocityHalfLifeMs;
+
+    @Value("${moderation.batch-size}")
+    private int batchSize;
+
+    @Value("${moderation.max-page-size}")
+    private int maxPageSize;
+
+    @Value("${admin.usernames:}")
+    private Set<String> adminUsernames;
+
+    private final AtomicLong pending = new AtomicLong();
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate aggregateTransaction;
+    private double lambda;
+    private Timer aggregateTimer;
+    private Counter reportsAccepted;
+    private Counter reportsDuplicate;
+    private Counter aggregated;
+    private Counter hidden;
+
+    @PostConstruct
+    void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // Read committed keeps the pending-report scan from gap-locking the end of
+        // the index, where new reports are being inserted.
+        aggregateTransaction = new TransactionTemplate(transactionManager);
+        aggregateTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        lambda = Math.log(2) / velocityHalfLifeMs;
+        aggregateTimer = meterRegistry.timer("moderation.aggregate");
+        reportsAccepted = meterRegistry.counter("moderation.reports", "result", "accepted");
+        reportsDuplicate = meterRegistry.counter("moderation.reports", "result", "duplicate");
+        aggregated = meterRegistry.counter("moderation.aggregated");
+        hidden = meterRegistry.counter("moderation.hidden");
+        meterRegistry.gauge("moderation.pending", pending);
+    }
+
+    @Override
+    public boolean reportPost(Integer postId, ReportReason reason, Authentication authentication) {
+        Integer reporterId = userRepository.findIdByUserName(authentication.getName());
+        if (reporterId == null) {
+            throw new UserNotFoundException("Authenticated user not found.");
+        }
+
+        List<ReportTarget> targets = jdbcTemplate.query(
+                "select user_id, status from post_table where id = ? and is_deleted = false",
+                (rs, rowNum) -> new ReportTarget(rs.getInt(1), PostStatus.valueOf(rs.getString(2))), postId);
+        ReportTarget target = targets.isEmpty() ? null : targets.get(0);
+        if (target == null || !REPORTABLE.contains(target.status())
+                || (target.status() == PostStatus.FRIENDS_ONLY && !target.ownerId().equals(reporterId)
+                && userRepository.countFollowEdges(reporterId, target.ownerId()) == 0)) {
+            throw new ResourceNotFoundException("Post not found with id: " + postId);
+        }
+        if (target.ownerId().equals(reporterId)) {
+            throw new UserOperationException("You cannot report your own post.");
+        }
+
+        int inserted = jdbcTemplate.update("insert ignore into post_report (post_id, reporter_id, reason, created_at, "
+                        + "aggregated) values (?, ?, ?, ?, false)",
+                postId, reporterId, reason.name(), Timestamp.valueOf(LocalDateTime.now(ZoneOffset.UTC)));
+        (inserted > 0 ? reportsAccepted : reportsDuplicate).increment();
+        return inserted > 0;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${moderation.aggregate-interval-ms}", initialDelayString = "${moderation.aggregate-interval-ms}")
+    public int aggregateReports() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        int total = 0;
+        try {
+            int folded;
+            do {
+                Integer result = aggregateTransaction.execute(status -> aggregateBatch());
+                folded = result != null ? result : 0;
+                total += folded;
+            } while (folded >= batchSize);
+            Long remaining = jdbcTemplate.queryForObject("select count(*) from post_report where aggregated = false",
+                    Long.class);
+            pending.set(remaining != null ? remaining : 0);
+        } finally {
+            sample.stop(aggregateTimer);
+        }
+        if (total > 0) {
+            log.debug("Aggregated {} post reports", total);
+        }
+        return total;
+    }
+
+    @Override
+    public ModerationPageDTO getQueue(Authentication authentication, String cursor, int size) {
+        requireAdmin(authentication);
+        QueueCursor position = QueueCursor.parse(cursor);
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        double decay = lambda * (System.currentTimeMillis() - EPOCH_MILLIS);
+
+        List<QueueRow> rows = jdbcTemplate.query("""
+                        select q.post_id, p.user_id, p.caption, p.status, q.report_count, q.velocity_key,
+                               q.first_reported_at, q.last_reported_at
+                        from moderation_queue q join post_table p on p.id = q.post_id
+                        where q.velocity_key <= ? and (q.velocity_key < ? or q.post_id < ?)
+                        order by q.velocity_key desc, q.post_id desc
+                        limit ?""",
+                (rs, rowNum) -> new QueueRow(rs.getDouble(6),
+                        new ModerationItemDTO(rs.getInt(1), rs.getInt(2), rs.getString(3),
+                                PostStatus.valueOf(rs.getString(4)), rs.getInt(5),
+                                lambda * Math.exp(rs.getDouble(6) - decay) * HOUR_MILLIS,
+                                rs.getTimestamp(7).toLocalDateTime(), rs.getTimestamp(8).toLocalDateTime())),
+                position.before(), position.before(), position.beforePostId(), limit);
+
+        String nextCursor = null;
+        if (rows.size() == limit) {
+            QueueRow last = rows.get(rows.size() - 1);
+            nextCursor = QueueCursor.encode(last.velocityKey(), last.item().getPostId());
+        }
+        return new ModerationPageDTO(rows.stream().map(QueueRow::item).toList(), nextCursor);
+    }
+
+    @Override
+    public void dismissReports(Integer postId, Authentication authentication) {
+        requireAdmin(authentication);
+        Post post = postRepository.findById(postId)
+                .filter(p -> !p.isDeleted())
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found with id: " + postId));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("update post_table set status = if(status = 'HIDDEN', 'PUBLIC', status), "
+                            + "is_reported = false, report_count = 0, updated_at = ?, version = version + 1 where id = ?",
+                    Timestamp.valueOf(LocalDateTime.now(ZoneOffset.UTC)), postId);
+            jdbcTemplate.update("delete from moderation_queue where post_id = ?", postId);
+            if (post.getStatus() == PostStatus.HIDDEN) {
+                // Back in public view, so back in the tag feeds.
+                post.setStatus(PostStatus.PUBLIC);
+                postTagService.sync(post, false);
+            }
+        });
+    }
+
+    @Override
+    public void removePost(Integer postId, Authentication authentication) {
+        requireAdmin(authentication);
+        transactionTemplate.executeWithoutResult(status -> {
+            int removed = jdbcTemplate.update("update post_table set status = 'DELETED', is_deleted = true, "
+                    + "updated_at = ?, version = version + 1 where id = ? and is_deleted = false",
+                    Timestamp.valueOf(LocalDateTime.now(ZoneOffset.UTC)), postId);
+            if (removed == 0) {
+                throw new ResourceNotFoundException("Post not found with id: " + postId);
+            }
+            jdbcTemplate.update("delete from moderation_queue where post_id = ?", postId);
+            postTagService.deleteForPosts(List.of(postId));
+        });
+    }
+
+    @Override
+    public int deleteForPosts(Collection<Integer> postIds) {
+        if (postIds.isEmpty()) {
+            return 0;
+        }
+        Object[] ids = new LinkedHashSet<>(postIds).toArray();
+        String in = DbUtil.placeholders(ids.length);
+        return jdbcTemplate.update("delete from moderation_queue where post_id in (" + in + ")", ids)
+                + jdbcTemplate.update("delete from post_report where post_id in (" + in + ")", ids);
+    }
+
+    @Override
+    public int deleteReportsByReporter(Integer userId, int limit) {
+        return jdbcTemplate.update("delete from post_report where reporter_id = ? limit ?", userId, limit);
+    }
+
+    private int aggregateBatch() {
+        List<PendingReport> reports = jdbcTemplate.query(
+                "select id, post_id, created_at from post_report where aggregated = false order by id limit ? for update",
+                (rs, rowNum) -> new PendingReport(rs.getLong(1), rs.getInt(2), rs.getTimestamp(3).toLocalDateTime()),
+                batchSize);
+        if (reports.isEmpty()) {
+            return 0;
+        }
+
+        // Post id order keeps row locks in the same order across concurrent aggregators.
+        Map<Integer, ReportBatch> batches = new TreeMap<>();
+        for (PendingReport report : reports) {
+            long millis = report.createdAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+            batches.computeIfAbsent(report.postId(), k -> new ReportBatch())
+                    .add(report.createdAt(), lambda * (millis - EPOCH_MILLIS));
+        }
+        List<Integer> postIds = new ArrayList<>(batches.keySet());
+
+        List<Object> counts = new ArrayList<>(postIds.size() * 2);
+        batches.forEach((postId, batch) -> {
+            counts.add(postId);
+            counts.add(batch.count);
+        });
+        jdbcTemplate.update("update post_table p join ("
+                + String.join(" union all ", Collections.nCopies(postIds.size(), "select ? as id, ? as n"))
+                + ") d on d.id = p.id set p.report_count = p.report_count + d.n, p.is_reported = true", counts.toArray());
+
+        List<Object> queue = new ArrayList<>(postIds.size() * 5);
+        batches.forEach((postId, batch) -> {
+            queue.add(postId);
+            queue.add(batch.count);
+            queue.add(batch.velocityKey());
+            queue.add(Timestamp.valueOf(batch.first));
+            queue.add(Timestamp.valueOf(batch.last));
+        });
+        jdbcTemplate.update("insert into moderation_queue (post_id, report_count, velocity_key, first_reported_at, "
+                + "last_reported_at) values " + String.join(", ", Collections.nCopies(postIds.size(), "(?, ?, ?, ?, ?)"))
+                + " on duplicate key update report_count = report_count + values(report_count),"
+                + " velocity_key = greatest(velocity_key, values(velocity_key))"
+                + " + ln(1 + exp(-abs(velocity_key - values(velocity_key)))),"
+                + " last_reported_at = greatest(last_reported_at, values(last_reported_at))", queue.toArray());
+
+        jdbcTemplate.update("update post_report set aggregated = true where id in ("
+                        + DbUtil.placeholders(reports.size()) + ")",
+                reports.stream().map(PendingReport::id).toArray());
+
+        List<Object> hideParams = new ArrayList<>(postIds);
+        hideParams.add(hideThreshold);
+        List<Integer> toHide = jdbcTemplate.queryForList("select id from post_table where id in ("
+                + DbUtil.placeholders(postIds.size()) + ") and status = 'PUBLIC' and report_count >= ? for update",
+                Integer.class, hideParams.toArray());
+        if (!toHide.isEmpty()) {
+            List<Object> params = new ArrayList<>(toHide.size() + 1);
+            params.add(Timestamp.valueOf(LocalDateTime.now(ZoneOffset.UTC)));
+            params.addAll(toHide);
+            jdbcTemplate.update("update post_table set status = 'HIDDEN', updated_at = ?, version = version + 1 "
+                    + "where id in (" + DbUtil.placeholders(toHide.size()) + ")", params.toArray());
+            postTagService.deleteForPosts(toHide);
+            hidden.increment(toHide.size());
+            log.info("Hid {} posts past {} reports: {}", toHide.size(), hideThreshold, toHide);
+        }
+
+        aggregated.increment(reports.size());
+        return reports.size();
+    }
+
+    private void requireAdmin(Authentication authentication) {
+        if (authentication == null || !adminUsernames.contains(authentication.getName())) {
+            throw new UnauthorizedActionException("Only administrators can moderate posts");
+        }
+    }
+
+    private record ReportTarget(Integer ownerId, PostStatus status) {
+    }
+
+    private record PendingReport(long id, int postId, LocalDateTime createdAt) {
+    }
+
+    private record QueueRow(double velocityKey, ModerationItemDTO item) {
+    }
+
+    /** Reports of one post within a batch; the weight is kept as a running log-sum-exp. */
+    private static final class ReportBatch {
+        private int count;
+        private double logWeight = Double.NEGATIVE_INFINITY;
+        private LocalDateTime first;
+        private LocalDateTime last;
+
+        void add(LocalDateTime reportedAt, double exponent) {
+            count++;
+            double high = Math.max(logWeight, exponent);
+            logWeight = high + Math.log1p(Math.exp(Math.min(logWeight, exponent) - high));
+            first = first == null || reportedAt.isBefore(first) ? reportedAt : first;
+            last = last == null || reportedAt.isAfter(last) ? reportedAt : last;
+        }
+
+        double velocityKey() {
+            return logWeight;
+        }
+    }
+
+    private record QueueCursor(double before, int beforePostId) {
+
+        private static final QueueCursor FIRST = new QueueCursor(Double.MAX_VALUE, Integer.MAX_VALUE);
+
+        static QueueCursor parse(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return FIRST;
+            }
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+                return new QueueCursor(Double.parseDouble(parts[0]), Integer.parseInt(parts[1]));
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new UserOperationException("Invalid moderation cursor.");
+            }
+        }
+
+        static String encode(double velocityKey, int postId) {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((velocityKey + ":" + postId).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.dto.NotificationDTO;
+import com.master.socialmedia.dto.NotificationPageDTO;
+import com.master.socialmedia.dto.NotificationView;
+import com.master.socialmedia.enums.EngagementType;
+import com.master.socialmedia.enums.NotificationType;
+import com.master.socialmedia.event.PostEngagementEvent;
+import com.master.socialmedia.event.UserFollowEvent;
+import com.master.socialmedia.exception.UserNotFoundException;
+import com.master.socialmedia.exception.UserOperationException;
+import com.master.socialmedia.repository.NotificationRepository;
+import com.master.socialmedia.repository.UserRepository;
+import com.master.socialmedia.service.NotificationService;
+import com.master.socialmedia.utils.KeysetCursor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns like, comment and follow events into inbox entries without writing on
+ * the request path. Events are folded in memory per recipient and target, and
+ * a scheduled flush upserts them in multi-row statements and refreshes the
+ * unread counters of the recipients it touched.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationServiceImpl implements NotificationService {
+
+    private static final Comparator<GroupKey> LOCK_ORDER = Comparator.comparingInt(GroupKey::recipientId)
+            .thenComparing(GroupKey::type)
+            .thenComparingInt(GroupKey::targetId);
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${notifications.batch-size}")
+    private int batchSize;
+
+    @Value("${notifications.max-pending}")
+    private int maxPending;
+
+    @Value("${notifications.max-page-size}")
+    private int maxPageSize;
+
+    private final Map<GroupKey, PendingGroup> pending = new ConcurrentHashMap<>();
+    private JdbcTemplate jdbcTemplate;
+    private Timer flushTimer;
+    private Counter written;
+    private Counter dropped;
+
+    @PostConstruct
+    void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        flushTimer = meterRegistry.timer("notifications.flush");
+        written = meterRegistry.counter("notifications.written");
+        dropped = meterRegistry.counter("notifications.dropped");
+        meterRegistry.gauge("notifications.pending", pending, Map::size);
+    }
+
+    @TransactionalEventListener
+    public void onEngagement(PostEngagementEvent event) {
+        if (event.getType() == EngagementType.LIKE) {
+            // Likes carry the post's current like count, so the group shows the total rather than a tally of events.
+            record(event.getPostOwnerId(), NotificationType.LIKE, event.getPostId(), event.getActorId(),
+                    event.getLikeCount(), event.getOccurredAt().atOffset(ZoneOffset.UTC).toLocalDateTime());
+        } else if (event.getType() == EngagementType.COMMENT) {
+            record(event.getPostOwnerId(), NotificationType.COMMENT, event.getPostId(), event.getActorId(),
+                    1, event.getOccurredAt().atOffset(ZoneOffset.UTC).toLocalDateTime());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onFollow(UserFollowEvent event) {
+        record(event.getFolloweeId(), NotificationType.FOLLOW, 0, event.getFollowerId(),
+                1, event.getOccurredAt().atOffset(ZoneOffset.UTC).toLocalDateTime());
+    }
+
+    @Override
+    public NotificationPageDTO getInbox(Authentication authentication, String cursor, int size) {
+        Integer userId = currentUserId(authentication);
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+
+        KeysetCursor position;
+        try {
+            position = KeysetCursor.parse(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new UserOperationException("Invalid notification cursor.");
+        }
+
+        List<NotificationView> rows = notificationRepository.findInboxPage(userId, position.before(),
+                position.beforeId(), limit);
+        String nextCursor = null;
+        if (rows.size() == limit) {
+            NotificationView last = rows.get(rows.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getUpdatedAt(), last.getId());
+        }
+        Integer unread = notificationRepository.findUnreadCount(userId);
+        return new NotificationPageDTO(rows.stream().map(NotificationDTO::new).toList(), nextCursor,
+                unread != null ? unread : 0);
+    }
+
+    @Override
+    public int getUnreadCount(Authentication authentication) {
+        Integer unread = notificationRepository.findUnreadCount(currentUserId(authentication));
+        return unread != null ? unread : 0;
+    }
+
+    @Override
+    @Transactional
+    public int markAllRead(Authentication authentication) {
+        Integer userId = currentUserId(authentication);
+        int updated = notificationRepository.markAllRead(userId);
+        notificationRepository.refreshUnreadCounts(List.of(userId));
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public void markRead(Long notificationId, Authentication authentication) {
+        Integer userId = currentUserId(authentication);
+        if (notificationRepository.markRead(notificationId, userId) > 0) {
+            notificationRepository.refreshUnreadCounts(List.of(userId));
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${notifications.flush-interval-ms}", initialDelayString = "${notifications.flush-interval-ms}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<GroupKey, PendingGroup> drained = new HashMap<>();
+        for (GroupKey key : new ArrayList<>(pending.keySet())) {
+            PendingGroup group = pending.remove(key);
+            if (group != null) {
+                drained.put(key, group);
+            }
+        }
+        List<GroupKey> keys = new ArrayList<>(drained.keySet());
+        keys.sort(LOCK_ORDER);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < keys.size(); from += batchSize) {
+                    List<GroupKey> chunk = keys.subList(from, Math.min(keys.size(), from + batchSize));
+                    jdbcTemplate.update(upsertSql(chunk.size()), upsertParams(chunk, drained));
+                }
+                List<Integer> recipients = new ArrayList<>(new TreeSet<>(keys.stream().map(GroupKey::recipientId).toList()));
+                for (int from = 0; from < recipients.size(); from += batchSize) {
+                    notificationRepository.refreshUnreadCounts(
+                            recipients.subList(from, Math.min(recipients.size(), from + batchSize)));
+                }
+            });
+            written.increment(keys.size());
+            log.debug("Flushed {} notification groups", keys.size());
+        } catch (RuntimeException e) {
+            // A failed commit surfaces as a TransactionException, which is not a DataAccessException.
+            // Put the groups back behind anything that arrived meanwhile; the next run retries them.
+            drained.forEach((key, group) -> pending.merge(key, group, (newer, older) -> older.then(newer, key.type())));
+            log.warn("Failed to flush {} notification groups, will retry", keys.size(), e);
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void record(Integer recipientId, NotificationType type, Integer targetId, Integer actorId,
+                        int actorCount, LocalDateTime occurredAt) {
+        if (recipientId == null || actorId == null || recipientId.equals(actorId)) {
+            return;
+        }
+        GroupKey key = new GroupKey(recipientId, type, targetId);
+        PendingGroup group = new PendingGroup(actorCount, actorId, occurredAt);
+        if (pending.size() >= maxPending && !pending.containsKey(key)) {
+            dropped.increment();
+            return;
+        }
+        pending.merge(key, group, (older, newer) -> older.then(newer, type));
+    }
+
+    private Integer currentUserId(Authentication authentication) {
+        Integer userId = userRepository.findIdByUserName(authentication.getName());
+        if (userId == null) {
+            throw new UserNotFoundException("Authenticated user not found.");
+        }
+        return userId;
+    }
+
+    private static String upsertSql(int rows) {
+        StringBuilder sql = new StringBuilder("insert into notification "
+                + "(recipient_id, type, target_id, unread, actor_count, last_actor_id, created_at, updated_at) values ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, true, ?, ?, ?, ?)");
+        }
+        return sql.append(" on duplicate key update"
+                + " actor_count = if(values(type) = 'LIKE', values(actor_count), actor_count + values(actor_count)),"
+                + " last_actor_id = values(last_actor_id),"
+                + " updated_at = greatest(updated_at, values(updated_at))").toString();
+    }
+
+    private static Object[] upsertParams(List<GroupKey> keys, Map<GroupKey, PendingGroup> groups) {
+        Object[] params = new Object[keys.size() * 7];
+        int i = 0;
+        for (GroupKey key : keys) {
+            PendingGroup group = groups.get(key);
+            params[i++] = key.recipientId();
+            params[i++] = key.type().name();
+            params[i++] = key.targetId();
+            params[i++] = group.actorCount();
+            params[i++] = group.lastActorId();
+            params[i++] = group.occurredAt();
+            params[i++] = group.occurredAt();
+        }
+        return params;
+    }
+
+    private record GroupKey(Integer recipientId, NotificationType type, Integer targetId) {
+    }
+
+    private record PendingGroup(int actorCount, int lastActorId, LocalDateTime occurredAt) {
+
+        PendingGroup then(PendingGroup newer, NotificationType type) {
+            int count = type == NotificationType.LIKE ? newer.actorCount : actorCount + newer.actorCount;
+            return new PendingGroup(count, newer.lastActorId, newer.occurredAt);
+        }
+    }
+}
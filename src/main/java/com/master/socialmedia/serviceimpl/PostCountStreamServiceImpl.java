@@ -0,0 +1,275 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.dto.PostCountDeltaDTO;
+import com.master.socialmedia.event.PostEngagementEvent;
+import com.master.socialmedia.exception.InvalidPostDataException;
+import com.master.socialmedia.service.PostCountStreamService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostCountStreamServiceImpl implements PostCountStreamService {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${stream.max-posts-per-subscription}")
+    private int maxPostsPerSubscription;
+
+    @Value("${stream.buffer-size}")
+    private int bufferSize;
+
+    @Value("${stream.flush-interval-ms}")
+    private long flushIntervalMs;
+
+    @Value("${stream.heartbeat-interval-ms}")
+    private long heartbeatIntervalMs;
+
+    @Value("${stream.timeout-ms}")
+    private long timeoutMs;
+
+    @Value("${stream.sender-threads}")
+    private int senderThreads;
+
+    @Value("${stream.send-timeout-ms}")
+    private long sendTimeoutMs;
+
+    private final Map<Integer, Set<Subscriber>> subscribersByPost = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    private ScheduledExecutorService senders;
+    private ExecutorService writers;
+    private Counter droppedUpdates;
+    private Counter slowSubscribers;
+
+    @PostConstruct
+    void init() {
+        // Updates are coalesced per post, so a buffer as large as the subscription could never overflow.
+        if (bufferSize < 1 || bufferSize >= maxPostsPerSubscription) {
+            throw new IllegalStateException("stream.buffer-size must be between 1 and stream.max-posts-per-subscription - 1");
+        }
+        senders = Executors.newScheduledThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "post-count-stream-" + nextShard.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int shard = 0; shard < senderThreads; shard++) {
+            int current = shard;
+            senders.scheduleWithFixedDelay(() -> flushShard(current), flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        senders.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        // Writes block on the client's socket, so they run here and a slow client only holds up its own connection.
+        AtomicInteger writerCount = new AtomicInteger();
+        writers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "post-count-writer-" + writerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        droppedUpdates = meterRegistry.counter("stream.post_counts.dropped_updates");
+        slowSubscribers = meterRegistry.counter("stream.post_counts.slow_subscribers");
+        meterRegistry.gaugeCollectionSize("stream.post_counts.subscribers", List.of(), subscribers);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        writers.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    @Override
+    public SseEmitter subscribe(Set<Integer> postIds) {
+        if (postIds == null || postIds.isEmpty()) {
+            throw new InvalidPostDataException("At least one post id is required.");
+        }
+        if (postIds.size() > maxPostsPerSubscription) {
+            throw new InvalidPostDataException("Cannot subscribe to more than " + maxPostsPerSubscription + " posts.");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(postIds),
+                Math.floorMod(nextShard.getAndIncrement(), senderThreads));
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        subscribers.add(subscriber);
+        for (Integer postId : subscriber.postIds) {
+            subscribersByPost.computeIfAbsent(postId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onEngagement(PostEngagementEvent event) {
+        int likeDelta;
+        int commentDelta = 0;
+        switch (event.getType()) {
+            case LIKE -> likeDelta = 1;
+            case UNLIKE -> likeDelta = -1;
+            case COMMENT -> {
+                likeDelta = 0;
+                commentDelta = 1;
+            }
+            default -> {
+                return;
+            }
+        }
+
+        Set<Subscriber> interested = subscribersByPost.get(event.getPostId());
+        if (interested == null) {
+            return;
+        }
+        for (Subscriber subscriber : interested) {
+            if (subscriber.offer(event.getPostId(), likeDelta, commentDelta, event.getLikeCount(), event.getCommentCount())) {
+                droppedUpdates.increment();
+            }
+        }
+    }
+
+    private void flushShard(int shard) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.shard != shard || busy(subscriber)) {
+                continue;
+            }
+            List<PostCountDeltaDTO> updates = subscriber.drain();
+            if (updates.isEmpty()) {
+                continue;
+            }
+            send(subscriber, SseEmitter.event().name("counts").data(updates));
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            if (!busy(subscriber)) {
+                send(subscriber, SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    /**
+     * Each connection has at most one write in flight. While it does, its
+     * updates keep coalescing in the buffer; once the write is overdue the
+     * subscriber is dropped and the client reconnects.
+     */
+    private boolean busy(Subscriber subscriber) {
+        long sendingSince = subscriber.sendingSince.get();
+        if (sendingSince == 0) {
+            return false;
+        }
+        if (System.currentTimeMillis() - sendingSince > sendTimeoutMs) {
+            log.debug("Dropping post count subscriber still writing after {} ms", sendTimeoutMs);
+            slowSubscribers.increment();
+            unsubscribe(subscriber);
+            // complete() waits for the stuck write, so it must not run on a sender thread.
+            write(subscriber, subscriber.emitter::complete);
+        }
+        return true;
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        subscriber.sendingSince.set(System.currentTimeMillis());
+        write(subscriber, () -> {
+            try {
+                subscriber.emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping post count subscriber: {}", e.getMessage());
+                unsubscribe(subscriber);
+            } finally {
+                subscriber.sendingSince.set(0);
+            }
+        });
+    }
+
+    private void write(Subscriber subscriber, Runnable write) {
+        try {
+            writers.execute(write);
+        } catch (RejectedExecutionException e) {
+            subscriber.sendingSince.set(0);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        for (Integer postId : subscriber.postIds) {
+            subscribersByPost.computeIfPresent(postId, (id, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Integer> postIds;
+        private final int shard;
+        private final LinkedHashMap<Integer, PostCountDeltaDTO> pending = new LinkedHashMap<>();
+        private final AtomicLong sendingSince = new AtomicLong();
+
+        private Subscriber(SseEmitter emitter, Set<Integer> postIds, int shard) {
+            this.emitter = emitter;
+            this.postIds = postIds;
+            this.shard = shard;
+        }
+
+        private synchronized boolean offer(Integer postId, int likeDelta, int commentDelta, int likeCount, int commentCount) {
+            PostCountDeltaDTO delta = pending.remove(postId);
+            if (delta == null) {
+                delta = new PostCountDeltaDTO(postId, 0, 0, likeCount, commentCount);
+            }
+            delta.setLikeDelta(delta.getLikeDelta() + likeDelta);
+            delta.setCommentDelta(delta.getCommentDelta() + commentDelta);
+            delta.setLikeCount(likeCount);
+            delta.setCommentCount(commentCount);
+            pending.put(postId, delta);
+
+            if (pending.size() > bufferSize) {
+                Iterator<Integer> oldest = pending.keySet().iterator();
+                oldest.next();
+                oldest.remove();
+                return true;
+            }
+            return false;
+        }
+
+        private synchronized List<PostCountDeltaDTO> drain() {
+            if (pending.isEmpty()) {
+                return List.of();
+            }
+            List<PostCountDeltaDTO> updates = new ArrayList<>(pending.values());
+            pending.clear();
+            return updates;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.entity.Post;
+import com.master.socialmedia.enums.PostStatus;
+import com.master.socialmedia.service.PostSchedulerService;
+import com.master.socialmedia.service.PostTagService;
+import com.master.socialmedia.utils.DbUtil;
+import com.master.socialmedia.utils.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scheduled publishing and story archiving. The database is the source of
+ * truth: a post with something pending carries the time in due_at, and the
+ * status says what happens then (SCHEDULED posts are published, visible
+ * posts are archived). This instance keeps the transitions due within the
+ * next {@code horizon-ms} in a hierarchical timing wheel, loaded once at
+ * start-up and then a stretch at a time from the (status, due_at) index, so
+ * nothing polls post_table for due rows.
+ * <p>
+ * A transition is applied only if the row still has the status and a due_at
+ * that has passed when it is locked, and applying it clears or moves due_at.
+ * Stale or duplicate wheel entries, a second instance firing the same post,
+ * or a restart between firing and committing therefore never apply a
+ * transition twice, and the start-up load picks up anything that came due
+ * while no instance was running.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostSchedulerServiceImpl implements PostSchedulerService {
+
+    private static final String PENDING_STATUSES = "'SCHEDULED', 'PUBLIC', 'FRIENDS_ONLY', 'PRIVATE', 'HIDDEN'";
+    private static final Timestamp BEGINNING = Timestamp.valueOf("1970-01-01 00:00:00");
+
+    private final PostTagService postTagService;
+    private final DataSource dataSource;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${post-scheduler.tick-ms}")
+    private long tickMs;
+
+    @Value("${post-scheduler.wheel-size}")
+    private int wheelSize;
+
+    @Value("${post-scheduler.levels}")
+    private int levels;
+
+    @Value("${post-scheduler.horizon-ms}")
+    private long horizonMs;
+
+    @Value("${post-scheduler.batch-size}")
+    private int batchSize;
+
+    @Value("${post-scheduler.retry-delay-ms}")
+    private long retryDelayMs;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transitionTransaction;
+    private HierarchicalTimingWheel wheel;
+    // Transitions due before this instant are in the wheel; later ones are loaded as the horizon moves on.
+    private volatile long loadedUntil = Long.MIN_VALUE;
+    private Timer applyTimer;
+    private Timer lag;
+    private Counter published;
+    private Counter archived;
+    private Counter stale;
+    private Counter failures;
+
+    @PostConstruct
+    void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // Read committed so locking due rows by id never gap-locks the status/due_at index.
+        transitionTransaction = new TransactionTemplate(transactionManager);
+        transitionTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        wheel = new HierarchicalTimingWheel(tickMs, wheelSize, levels, System.currentTimeMillis());
+        applyTimer = meterRegistry.timer("post.scheduler.apply");
+        lag = meterRegistry.timer("post.scheduler.lag");
+        published = meterRegistry.counter("post.scheduler.transitions", "transition", "publish");
+        archived = meterRegistry.counter("post.scheduler.transitions", "transition", "archive");
+        stale = meterRegistry.counter("post.scheduler.stale");
+        failures = meterRegistry.counter("post.scheduler.failures");
+        meterRegistry.gauge("post.scheduler.pending", wheel, HierarchicalTimingWheel::size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        rebuild();
+    }
+
+    @Override
+    public void schedule(Integer postId, LocalDateTime dueAt) {
+        if (postId == null || dueAt == null) {
+            return;
+        }
+        long dueMillis = toMillis(dueAt);
+        // Checked after commit: a horizon load that starts later sees the row, one that started earlier moved
+        // loadedUntil first. Either way the post is loaded at least once.
+        DbUtil.afterCommit(() -> {
+            if (dueMillis < loadedUntil) {
+                wheel.add(postId, deadlineOf(dueAt));
+            }
+        });
+    }
+
+    @Override
+    public synchronized int rebuild() {
+        long until = System.currentTimeMillis() + horizonMs;
+        loadedUntil = until;
+        int loaded = load(BEGINNING, until);
+        log.info("Post scheduler loaded {} transitions due within {} ms", loaded, horizonMs);
+        return loaded;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${post-scheduler.refill-interval-ms}", initialDelayString = "${post-scheduler.refill-interval-ms}")
+    public synchronized int extendHorizon() {
+        long from = loadedUntil;
+        long until = System.currentTimeMillis() + horizonMs;
+        if (from == Long.MIN_VALUE || until <= from) {
+            return 0;
+        }
+        loadedUntil = until;
+        int loaded = load(DbUtil.toTimestamp(from), until);
+        log.debug("Post scheduler loaded {} more transitions", loaded);
+        return loaded;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${post-scheduler.tick-ms}", initialDelayString = "${post-scheduler.tick-ms}")
+    public int applyDueTransitions() {
+        List<HierarchicalTimingWheel.Entry> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return 0;
+        }
+        // Id order keeps row locks in the same order across instances.
+        List<Integer> ids = due.stream().map(HierarchicalTimingWheel.Entry::id).distinct().sorted().toList();
+        int applied = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Integer> batch = ids.subList(from, Math.min(ids.size(), from + batchSize));
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                Integer result = transitionTransaction.execute(status -> applyBatch(batch));
+                applied += result != null ? result : 0;
+            } catch (RuntimeException e) {
+                // Nothing was committed, so firing the same posts again later is safe; dropping them would
+                // leave them stuck until the next restart.
+                failures.increment();
+                long retryAt = System.currentTimeMillis() + retryDelayMs;
+                batch.forEach(id -> wheel.add(id, retryAt));
+                log.warn("Could not apply {} post transitions, retrying in {} ms", batch.size(), retryDelayMs, e);
+            } finally {
+                sample.stop(applyTimer);
+            }
+        }
+        return applied;
+    }
+
+    private int applyBatch(List<Integer> ids) {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        Timestamp nowTs = Timestamp.valueOf(now);
+        List<Object> params = new ArrayList<>(ids);
+        params.add(nowTs);
+        List<DueRow> rows = jdbcTemplate.query("select id, status, caption, created_at, due_at, archive_at "
+                        + "from post_table where id in (" + DbUtil.placeholders(ids.size()) + ") and status in ("
+                        + PENDING_STATUSES + ") and due_at <= ? for update",
+                (rs, rowNum) -> new DueRow(rs.getInt(1), PostStatus.valueOf(rs.getString(2)), rs.getString(3),
+                        rs.getTimestamp(4).toLocalDateTime(), rs.getTimestamp(5).toLocalDateTime(),
+                        rs.getTimestamp(6) != null ? rs.getTimestamp(6).toLocalDateTime() : null),
+                params.toArray());
+        stale.increment(ids.size() - rows.size());
+
+        List<DueRow> toPublish = rows.stream().filter(row -> row.status() == PostStatus.SCHEDULED).toList();
+        List<DueRow> toArchive = rows.stream().filter(row -> row.status() != PostStatus.SCHEDULED).toList();
+
+        if (!toPublish.isEmpty()) {
+            update("update post_table set status = 'PUBLIC', due_at = archive_at, updated_at = ?, "
+                    + "version = version + 1", nowTs, toPublish);
+            for (DueRow row : toPublish) {
+                Post post = new Post();
+                post.setId(row.id());
+                post.setCaption(row.caption());
+                post.setCreatedAt(row.createdAt());
+                post.setStatus(PostStatus.PUBLIC);
+                postTagService.sync(post, true);
+                // A story that was due to be archived while it waited goes on the next tick.
+                schedule(row.id(), row.archiveAt());
+            }
+            published.increment(toPublish.size());
+        }
+        if (!toArchive.isEmpty()) {
+            update("update post_table set status = 'ARCHIVED', due_at = null, updated_at = ?, version = version + 1",
+                    nowTs, toArchive);
+            postTagService.deleteForPosts(toArchive.stream().map(DueRow::id).toList());
+            archived.increment(toArchive.size());
+        }
+        rows.forEach(row -> lag.record(Duration.between(row.dueAt(), now)));
+        return rows.size();
+    }
+
+    private void update(String sql, Timestamp updatedAt, List<DueRow> rows) {
+        List<Object> params = new ArrayList<>(rows.size() + 1);
+        params.add(updatedAt);
+        rows.forEach(row -> params.add(row.id()));
+        jdbcTemplate.update(sql + " where id in (" + DbUtil.placeholders(rows.size()) + ")", params.toArray());
+    }
+
+    private int load(Timestamp from, long untilMillis) {
+        int[] loaded = {0};
+        jdbcTemplate.query("select id, due_at from post_table where status in (" + PENDING_STATUSES + ") "
+                        + "and due_at >= ? and due_at < ?",
+                rs -> {
+                    wheel.add(rs.getInt(1), deadlineOf(rs.getTimestamp(2).toLocalDateTime()));
+                    loaded[0]++;
+                },
+                from, DbUtil.toTimestamp(untilMillis));
+        return loaded[0];
+    }
+
+    private static long toMillis(LocalDateTime utc) {
+        return utc.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /** due_at has microseconds; rounding up keeps the due_at <= now check from rejecting a timely firing. */
+    private static long deadlineOf(LocalDateTime utc) {
+        Instant instant = utc.toInstant(ZoneOffset.UTC);
+        return instant.toEpochMilli() + (instant.getNano() % 1_000_000 != 0 ? 1 : 0);
+    }
+
+    private record DueRow(int id, PostStatus status, String caption, LocalDateTime createdAt, LocalDateTime dueAt,
+                          LocalDateTime archiveAt) {
+    }
+}
@@ -1,26 +1,50 @@
 package com.master.socialmedia.serviceimpl;
 
+import com.master.socialmedia.annotation.RetryOnConflict;
+import com.master.socialmedia.dto.PostCountsDTO;
 import com.master.socialmedia.dto.PostDTO;
+import com.master.socialmedia.dto.PostRowView;
+import com.master.socialmedia.dto.PostSummaryView;
+import com.master.socialmedia.dto.UserDTO;
 import com.master.socialmedia.entity.Comment;
 import com.master.socialmedia.entity.Post;
 import com.master.socialmedia.entity.User;
+import com.master.socialmedia.enums.EngagementType;
+import com.master.socialmedia.enums.MediaKind;
 import com.master.socialmedia.enums.PostStatus;
+import com.master.socialmedia.event.PostEngagementEvent;
 import com.master.socialmedia.exception.*;
+import com.master.socialmedia.repository.CommentRepository;
 import com.master.socialmedia.repository.PostRepository;
 import com.master.socialmedia.repository.UserRepository;
+import com.master.socialmedia.service.MediaService;
+import com.master.socialmedia.service.PostSchedulerService;
+import com.master.socialmedia.service.PostTagService;
 import com.master.socialmedia.service.PostService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -32,9 +56,21 @@ public class PostServiceImpl implements PostService {
 
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final CommentRepository commentRepository;
+    private final MediaService mediaService;
+    private final PostTagService postTagService;
+    private final PostSchedulerService postSchedulerService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${batch.max-ids}")
+    private int maxBatchIds;
+
+    @Value("${post-scheduler.max-archive-hours}")
+    private int maxArchiveHours;
 
     @Override
-    public PostDTO createPost(Post post, Authentication authentication) {
+    public PostDTO createPost(Post post, LocalDateTime publishAt, Integer archiveAfterHours,
+                              Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new CustomAuthenticationException("Invalid or missing authentication");
         }
@@ -50,12 +86,26 @@ public class PostServiceImpl implements PostService {
             throw new UserOperationException("Post caption cannot be empty.");
         }
 
+        if (archiveAfterHours != null && (archiveAfterHours < 1 || archiveAfterHours > maxArchiveHours)) {
+            throw new InvalidPostDataException("Stories can stay up between 1 and " + maxArchiveHours + " hours.");
+        }
+
+        mediaService.checkAttachment(post.getImageUrl(), MediaKind.IMAGE, user.getId());
+        mediaService.checkAttachment(post.getVideoUrl(), MediaKind.VIDEO, user.getId());
+
+        LocalDateTime now = ZonedDateTime.now(ZoneOffset.UTC).toLocalDateTime();
+        boolean scheduled = publishAt != null && publishAt.isAfter(now);
+        LocalDateTime postedAt = scheduled ? publishAt : now;
+
         post.setUser(user);
-        post.setCreatedAt(ZonedDateTime.now(ZoneOffset.UTC).toLocalDateTime());
-        post.setStatus(PostStatus.PUBLIC);
+        post.setCreatedAt(postedAt);
+        post.setStatus(scheduled ? PostStatus.SCHEDULED : PostStatus.PUBLIC);
+        post.setArchiveAt(archiveAfterHours != null ? postedAt.plusHours(archiveAfterHours) : null);
+        post.setDueAt(scheduled ? postedAt : post.getArchiveAt());
         post.setDeleted(false);
         post.setReported(false);
         post.setReportCount(0);
+        post.setVersion(0);
 
         // Avoid overwriting likes, saves, and comments if they are not meant to be set initially
         post.setLikedBy(new HashSet<>());
@@ -63,6 +113,8 @@ public class PostServiceImpl implements PostService {
         post.setComments(new ArrayList<>());
 
         Post savedPost = postRepository.save(post);
+        postTagService.sync(savedPost, true);
+        postSchedulerService.schedule(savedPost.getId(), savedPost.getDueAt());
         return new PostDTO(savedPost);
     }
 
@@ -79,7 +131,7 @@ public class PostServiceImpl implements PostService {
             throw new UserNotFoundException("Authenticated user not found.");
         }
 
-        List<Post> userPosts = postRepository.findByUser(user);
+        List<PostRowView> userPosts = postRepository.findRowsByUserId(user.getId());
 
         if (userPosts.isEmpty()) {
             throw new ResourceNotFoundException("No posts found for user: " + currentUsername);
@@ -91,17 +143,71 @@ public class PostServiceImpl implements PostService {
 
     @Override
     public List<PostDTO> getAllPublicPosts() {
-        return postRepository.findByStatus(PostStatus.PUBLIC)
-                .stream().map(PostDTO::new).toList();
+        try (Stream<PostRowView> rows = postRepository.streamRowsByStatus(PostStatus.PUBLIC)) {
+            return rows.map(PostDTO::new).toList();
+        }
+    }
+
+    @Override
+    public void streamPublicPosts(Consumer<PostDTO> sink) {
+        try (Stream<PostRowView> rows = postRepository.streamRowsByStatus(PostStatus.PUBLIC)) {
+            rows.map(PostDTO::new).forEach(sink);
+        }
     }
 
     @Override
     public List<PostDTO> getPostsByUser(Integer userId) {
-        List<Post> userPosts = postRepository.findByUserIdAndStatus(userId, PostStatus.PUBLIC);
+        List<PostRowView> userPosts = postRepository.findRowsByUserIdAndStatus(userId, PostStatus.PUBLIC);
         return userPosts.stream().map(PostDTO::new).toList();
     }
 
     @Override
+    public PostDTO getPostById(Integer postId) {
+        Post post = postRepository.findById(postId)
+                .filter(p -> p.getStatus() == PostStatus.PUBLIC)
+                .orElseThrow(() -> new ResourceNotFoundException(POST_NOT_FOUND + postId));
+        return new PostDTO(post);
+    }
+
+    @Override
+    public List<PostDTO> getPostsByIds(List<Integer> postIds) {
+        Set<Integer> ids = distinctBatchIds(postIds);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, PostSummaryView> posts = postRepository.findSummariesByIdIn(ids, PostStatus.PUBLIC).stream()
+                .collect(Collectors.toMap(PostSummaryView::getId, Function.identity()));
+        if (posts.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Integer> authorIds = posts.values().stream().map(PostSummaryView::getUserId).collect(Collectors.toSet());
+        Map<Integer, UserDTO> authors = userRepository.findUserDTOsByIdIn(authorIds).stream()
+                .collect(Collectors.toMap(UserDTO::getId, Function.identity()));
+        Map<Integer, PostCountsDTO> counts = postRepository.findCountsByIdIn(posts.keySet(), PostStatus.PUBLIC).stream()
+                .collect(Collectors.toMap(PostCountsDTO::getPostId, Function.identity()));
+
+        return ids.stream()
+                .map(posts::get)
+                .filter(Objects::nonNull)
+                .map(post -> new PostDTO(post, authors.get(post.getUserId()), counts.get(post.getId())))
+                .toList();
+    }
+
+    @Override
+    public Map<Integer, PostCountsDTO> getCountsByPostIds(List<Integer> postIds) {
+        Set<Integer> ids = distinctBatchIds(postIds);
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Integer, PostCountsDTO> counts = new LinkedHashMap<>();
+        postRepository.findCountsByIdIn(ids, PostStatus.PUBLIC).forEach(c -> counts.put(c.getPostId(), c));
+        return counts;
+    }
+
+    @Override
+    @RetryOnConflict
     public PostDTO updatePost(Integer postId, Post updatedPost, Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new CustomAuthenticationException("Invalid or missing authentication");
@@ -120,20 +226,30 @@ public class PostServiceImpl implements PostService {
             throw new UnauthorizedActionException("You are not allowed to update this post");
         }
 
+        checkStatusChange(existingPost, updatedPost.getStatus());
+        mediaService.checkAttachment(updatedPost.getImageUrl(), MediaKind.IMAGE, currentUser.getId());
+        mediaService.checkAttachment(updatedPost.getVideoUrl(), MediaKind.VIDEO, currentUser.getId());
+
         // Update only the provided fields
         Optional.ofNullable(updatedPost.getCaption()).ifPresent(existingPost::setCaption);
         Optional.ofNullable(updatedPost.getImageUrl()).ifPresent(existingPost::setImageUrl);
         Optional.ofNullable(updatedPost.getVideoUrl()).ifPresent(existingPost::setVideoUrl);
-        Optional.ofNullable(updatedPost.getStatus()).ifPresent(existingPost::setStatus);
+        boolean rescheduled = updatedPost.getStatus() != null && setStatus(existingPost, updatedPost.getStatus());
         Optional.ofNullable(updatedPost.getLocation()).ifPresent(existingPost::setLocation);
 
         existingPost.setUpdatedAt(LocalDateTime.now());
 
-        return new PostDTO(postRepository.save(existingPost));
+        Post savedPost = postRepository.save(existingPost);
+        postTagService.sync(savedPost, false);
+        if (rescheduled) {
+            postSchedulerService.schedule(savedPost.getId(), savedPost.getDueAt());
+        }
+        return new PostDTO(savedPost);
     }
 
 
     @Override
+    @RetryOnConflict
     @Transactional
     public void deletePost(Integer postId, Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
@@ -153,10 +269,14 @@ public class PostServiceImpl implements PostService {
             throw new UnauthorizedActionException("You are not allowed to delete this post");
         }
 
-        postRepository.delete(post);
+        post.setDeleted(true);
+        setStatus(post, PostStatus.DELETED);
+        postRepository.save(post);
+        postTagService.sync(post, false);
     }
 
     @Override
+    @RetryOnConflict
     @Transactional
     public PostDTO toggleLikePost(Integer postId, Authentication authentication) {
 
@@ -173,17 +293,23 @@ public class PostServiceImpl implements PostService {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post not found with ID: " + postId));
 
+        EngagementType type;
         if (post.getLikedBy().contains(currentUser)) {
             post.getLikedBy().remove(currentUser);
+            type = EngagementType.UNLIKE;
         } else {
             post.getLikedBy().add(currentUser);
+            type = EngagementType.LIKE;
         }
 
+        post.setUpdatedAt(LocalDateTime.now(ZoneOffset.UTC));
         Post savedPost = postRepository.save(post);
+        publishEngagement(savedPost, currentUser, type);
         return new PostDTO(savedPost);
     }
 
     @Override
+    @RetryOnConflict
     @Transactional
     public PostDTO toggleSavePost(Integer postId, Authentication authentication) {
 
@@ -200,18 +326,24 @@ public class PostServiceImpl implements PostService {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException(POST_NOT_FOUND + postId));
 
+        EngagementType type;
         if (post.getSavedBy().contains(currentUser)) {
             post.getSavedBy().remove(currentUser);
+            type = EngagementType.UNSAVE;
         } else {
             post.getSavedBy().add(currentUser);
+            type = EngagementType.SAVE;
         }
 
+        post.setUpdatedAt(LocalDateTime.now(ZoneOffset.UTC));
         Post savedPost = postRepository.save(post);
+        publishEngagement(savedPost, currentUser, type);
         return new PostDTO(savedPost);
     }
 
 
     @Override
+    @RetryOnConflict
     @Transactional
     public PostDTO addComment(Integer postId, String commentText, Authentication authentication) {
 
@@ -236,7 +368,9 @@ public class PostServiceImpl implements PostService {
         comment.setUser(user);
 
         post.getComments().add(comment);
+        post.setUpdatedAt(LocalDateTime.now(ZoneOffset.UTC));
         Post savedPost = postRepository.save(post);
+        publishEngagement(savedPost, user, EngagementType.COMMENT);
 
         return new PostDTO(savedPost);
     }
@@ -244,11 +378,10 @@ public class PostServiceImpl implements PostService {
 
     @Override
     public List<String> getCommentTexts(Integer postId) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException(POST_NOT_FOUND + postId));
-        return post.getComments().stream()
-                .map(Comment::getText)
-                .toList();
+        if (!postRepository.existsById(postId)) {
+            throw new ResourceNotFoundException(POST_NOT_FOUND + postId);
+        }
+        return commentRepository.findTextsByPostId(postId);
     }
 
     @Override
@@ -264,8 +397,7 @@ public class PostServiceImpl implements PostService {
             throw new UserNotFoundException("Authenticated user not found.");
         }
 
-        return postRepository.findAll().stream()
-                .filter(post -> post.getSavedBy().contains(user))
+        return postRepository.findSavedRowsByUserId(user.getId()).stream()
                 .map(PostDTO::new)
                 .toList();
     }
@@ -273,33 +405,42 @@ public class PostServiceImpl implements PostService {
 
     @Override
     public int getLikeCount(Integer postId) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException(POST_NOT_FOUND + postId));
-        return post.getLikedBy().size();
+        return countsOf(postId).getLikeCount();
     }
 
     @Override
     public int getCommentCount(Integer postId) {
-        Post post = postRepository.findById(postId)
+        return countsOf(postId).getCommentCount();
+    }
+
+    private PostCountsDTO countsOf(Integer postId) {
+        return postRepository.findCountsById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException(POST_NOT_FOUND + postId));
-        return post.getComments().size();
     }
 
     @Override
-    public List<PostDTO> searchPosts(String keyword) {
-        return postRepository.findByCaptionContainingIgnoreCase(keyword)
-                .stream().map(PostDTO::new).toList();
+    public void searchPosts(String keyword, Consumer<PostDTO> sink) {
+        try (Stream<PostRowView> rows = postRepository.streamRowsByCaptionContaining(keyword)) {
+            rows.map(PostDTO::new).forEach(sink);
+        }
     }
 
     @Override
+    @RetryOnConflict
     public PostDTO changePostStatus(Integer postId, Integer userId, PostStatus newStatus) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException(POST_NOT_FOUND + postId));
         if (!post.getUser().getId().equals(userId)) {
             throw new UnauthorizedActionException("Only owner can change post status");
         }
-        post.setStatus(newStatus);
-        return new PostDTO(postRepository.save(post));
+        checkStatusChange(post, newStatus);
+        boolean rescheduled = setStatus(post, newStatus);
+        Post savedPost = postRepository.save(post);
+        postTagService.sync(savedPost, false);
+        if (rescheduled) {
+            postSchedulerService.schedule(savedPost.getId(), savedPost.getDueAt());
+        }
+        return new PostDTO(savedPost);
     }
 
     @Override
@@ -308,14 +449,75 @@ public class PostServiceImpl implements PostService {
             throw new UnauthorizedActionException("Viewer information is required.");
         }
 
-        List<Post> posts;
+        List<PostRowView> posts;
         if (viewer.getId().equals(ownerId)) {
-            posts = postRepository.findByUser_IdAndStatusNot(ownerId, PostStatus.DELETED);
+            posts = postRepository.findRowsByUserIdAndStatusNot(ownerId, PostStatus.DELETED);
         } else {
-            posts = postRepository.findByUser_IdAndStatusIn(
+            posts = postRepository.findRowsByUserIdAndStatusIn(
                     ownerId, List.of(PostStatus.PUBLIC, PostStatus.FRIENDS_ONLY)
             );
         }
         return posts.stream().map(PostDTO::new).toList();
     }
+
+    private void publishEngagement(Post post, User actor, EngagementType type) {
+        eventPublisher.publishEvent(new PostEngagementEvent(
+                post.getId(),
+                post.getUser().getId(),
+                actor.getId(),
+                type,
+                post.getLikedBy().size(),
+                post.getComments().size(),
+                Instant.now()));
+    }
+
+    /**
+     * HIDDEN is set and cleared by moderation only; the owner can still delete a hidden post. SCHEDULED is only
+     * set when a post is created with a future publish time; moving a scheduled post to a visible status
+     * publishes it now.
+     */
+    private void checkStatusChange(Post post, PostStatus requested) {
+        if (requested == null || requested == post.getStatus()) {
+            return;
+        }
+        if (requested == PostStatus.HIDDEN
+                || (post.getStatus() == PostStatus.HIDDEN && requested != PostStatus.DELETED)) {
+            throw new UnauthorizedActionException("This post is under moderation review");
+        }
+        if (requested == PostStatus.SCHEDULED) {
+            throw new InvalidPostDataException("Posts can only be scheduled when they are created.");
+        }
+    }
+
+    /**
+     * Keeps due_at in step with the status: cleared once the post is archived or deleted, the archive time while
+     * it is visible. A scheduled post published early is dated now. Returns whether the post scheduler has to
+     * hear about it.
+     */
+    private static boolean setStatus(Post post, PostStatus status) {
+        if (status == post.getStatus()) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        if (post.getStatus() == PostStatus.SCHEDULED && post.getCreatedAt().isAfter(now)) {
+            post.setCreatedAt(now);
+        }
+        post.setStatus(status);
+        post.setDueAt(switch (status) {
+            case PUBLIC, FRIENDS_ONLY, PRIVATE, HIDDEN -> post.getArchiveAt();
+            default -> null;
+        });
+        return post.getDueAt() != null;
+    }
+
+    private Set<Integer> distinctBatchIds(List<Integer> postIds) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        if (postIds != null) {
+            postIds.stream().filter(Objects::nonNull).forEach(ids::add);
+        }
+        if (ids.size() > maxBatchIds) {
+            throw new InvalidPostDataException("Cannot request more than " + maxBatchIds + " posts at once.");
+        }
+        return ids;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.dto.PostDTO;
+import com.master.socialmedia.dto.PostRowView;
+import com.master.socialmedia.dto.TagPageDTO;
+import com.master.socialmedia.entity.Post;
+import com.master.socialmedia.enums.PostStatus;
+import com.master.socialmedia.exception.InvalidPostDataException;
+import com.master.socialmedia.repository.PostRepository;
+import com.master.socialmedia.service.PostTagService;
+import com.master.socialmedia.utils.DbUtil;
+import com.master.socialmedia.utils.KeysetCursor;
+import com.master.socialmedia.utils.TagParser;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps post_tag and tag_count in step with post writes and serves tag feeds
+ * from the (tag, created_at, post_id) index. Only publicly visible posts are
+ * indexed, so a feed page is one index range scan plus a hydration query.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostTagServiceImpl implements PostTagService {
+
+    private final PostRepository postRepository;
+    private final DataSource dataSource;
+
+    @Value("${tags.max-page-size}")
+    private int maxPageSize;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void sync(Post post, boolean isNew) {
+        boolean visible = post.getStatus() == PostStatus.PUBLIC && !post.isDeleted();
+        Set<String> wanted = visible ? TagParser.parse(post.getCaption()) : Set.of();
+        if (isNew && wanted.isEmpty()) {
+            return;
+        }
+        Set<String> current = isNew ? Set.of() : new HashSet<>(jdbcTemplate.queryForList(
+                "select tag from post_tag where post_id = ?", String.class, post.getId()));
+
+        List<String> removed = current.stream().filter(tag -> !wanted.contains(tag)).toList();
+        List<String> added = wanted.stream().filter(tag -> !current.contains(tag)).toList();
+
+        if (!removed.isEmpty()) {
+            List<Object> params = new ArrayList<>(removed.size() + 1);
+            params.add(post.getId());
+            params.addAll(removed);
+            jdbcTemplate.update("delete from post_tag where post_id = ? and tag in ("
+                    + DbUtil.placeholders(removed.size()) + ")", params.toArray());
+            jdbcTemplate.update("update tag_count set post_count = post_count - 1 where tag in ("
+                    + DbUtil.placeholders(removed.size()) + ")", removed.toArray());
+        }
+        if (!added.isEmpty()) {
+            Timestamp createdAt = Timestamp.valueOf(post.getCreatedAt());
+            List<Object> rows = new ArrayList<>(added.size() * 3);
+            for (String tag : added) {
+                rows.add(tag);
+                rows.add(post.getId());
+                rows.add(createdAt);
+            }
+            jdbcTemplate.update("insert into post_tag (tag, post_id, created_at) values "
+                    + String.join(", ", Collections.nCopies(added.size(), "(?, ?, ?)")), rows.toArray());
+            jdbcTemplate.update("insert into tag_count (tag, post_count) values "
+                    + String.join(", ", Collections.nCopies(added.size(), "(?, 1)"))
+                    + " on duplicate key update post_count = post_count + 1", added.toArray());
+        }
+    }
+
+    @Override
+    public TagPageDTO getTagPage(char sigil, String tag, String cursor, int size) {
+        String normalized = normalize(sigil, tag);
+        KeysetCursor position;
+        try {
+            position = KeysetCursor.parse(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPostDataException("Invalid tag cursor.");
+        }
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+
+        List<TagHit> hits = jdbcTemplate.query("""
+                        select post_id, created_at from post_tag
+                        where tag = ? and (created_at < ? or (created_at = ? and post_id < ?))
+                        order by created_at desc, post_id desc
+                        limit ?""",
+                (rs, rowNum) -> new TagHit(rs.getInt(1), rs.getTimestamp(2).toLocalDateTime()),
+                normalized, position.before(), position.before(), position.beforeId(), limit);
+
+        List<PostDTO> posts = List.of();
+        String nextCursor = null;
+        if (!hits.isEmpty()) {
+            List<Integer> ids = hits.stream().map(TagHit::postId).toList();
+            Map<Integer, PostRowView> rows = postRepository.findRowsByIdInAndStatus(ids, PostStatus.PUBLIC).stream()
+                    .collect(Collectors.toMap(PostRowView::getId, Function.identity()));
+            posts = ids.stream().map(rows::get).filter(Objects::nonNull).map(PostDTO::new).toList();
+
+            if (hits.size() == limit) {
+                TagHit last = hits.get(hits.size() - 1);
+                nextCursor = KeysetCursor.encode(last.createdAt(), last.postId());
+            }
+        }
+        return new TagPageDTO(normalized, countOf(normalized), posts, nextCursor);
+    }
+
+    @Override
+    public long getPostCount(char sigil, String tag) {
+        return countOf(normalize(sigil, tag));
+    }
+
+    @Override
+    public int deleteForPosts(Collection<Integer> postIds) {
+        if (postIds.isEmpty()) {
+            return 0;
+        }
+        Object[] ids = new LinkedHashSet<>(postIds).toArray();
+        String in = DbUtil.placeholders(ids.length);
+        jdbcTemplate.update("update tag_count c join (select tag, count(*) as n from post_tag where post_id in (" + in
+                + ") group by tag) d on d.tag = c.tag set c.post_count = c.post_count - d.n", ids);
+        return jdbcTemplate.update("delete from post_tag where post_id in (" + in + ")", ids);
+    }
+
+    private long countOf(String tag) {
+        List<Long> counts = jdbcTemplate.queryForList("select post_count from tag_count where tag = ?", Long.class, tag);
+        return counts.isEmpty() ? 0 : Math.max(0, counts.get(0));
+    }
+
+    private static String normalize(char sigil, String tag) {
+        String normalized = TagParser.normalize(sigil, tag);
+        if (normalized == null) {
+            throw new InvalidPostDataException("Invalid tag: " + tag);
+        }
+        return normalized;
+    }
+
+    private record TagHit(int postId, LocalDateTime createdAt) {
+    }
+}
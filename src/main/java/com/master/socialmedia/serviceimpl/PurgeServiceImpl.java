@@ -0,0 +1,155 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.repository.CommentRepository;
+import com.master.socialmedia.repository.NotificationRepository;
+import com.master.socialmedia.repository.PostReachRepository;
+import com.master.socialmedia.repository.PostRepository;
+import com.master.socialmedia.repository.UserRepository;
+import com.master.socialmedia.service.MediaService;
+import com.master.socialmedia.service.ModerationService;
+import com.master.socialmedia.service.PostTagService;
+import com.master.socialmedia.service.PurgeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PurgeServiceImpl implements PurgeService {
+
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final CommentRepository commentRepository;
+    private final PostReachRepository postReachRepository;
+    private final NotificationRepository notificationRepository;
+    private final MediaService mediaService;
+    private final PostTagService postTagService;
+    private final ModerationService moderationService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${purge.posts-per-run}")
+    private int postsPerRun;
+
+    @Value("${purge.users-per-run}")
+    private int usersPerRun;
+
+    @Value("${purge.chunk-size}")
+    private int chunkSize;
+
+    @Value("${purge.pause-ms}")
+    private long pauseMs;
+
+    private final AtomicLong pendingPosts = new AtomicLong();
+    private final AtomicLong pendingUsers = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        meterRegistry.gauge("purge.pending", List.of(Tag.of("type", "posts")), pendingPosts);
+        meterRegistry.gauge("purge.pending", List.of(Tag.of("type", "users")), pendingUsers);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${purge.interval-ms}", initialDelayString = "${purge.interval-ms}")
+    public void purgeTombstones() {
+        purgePosts();
+        purgeUsers();
+        pendingPosts.set(postRepository.countTombstoned());
+        pendingUsers.set(userRepository.countTombstoned());
+    }
+
+    // Post purges need no touch: tombstoned posts already drop out of every ETag.
+    private void purgePosts() {
+        List<Integer> postIds = postRepository.findTombstonedIds(postsPerRun);
+        if (postIds.isEmpty()) {
+            return;
+        }
+
+        drain("comment_table", () -> commentRepository.deleteByPostIds(postIds, chunkSize));
+        drain("post_likes", () -> postRepository.deleteLikesByPostIds(postIds, chunkSize));
+        drain("post_saves", () -> postRepository.deleteSavesByPostIds(postIds, chunkSize));
+        drain("post_reach", () -> postReachRepository.deleteByPostIds(postIds));
+        drain("post_tag", () -> postTagService.deleteForPosts(postIds));
+        drain("post_report", () -> moderationService.deleteForPosts(postIds));
+        drain("post_table", () -> postRepository.deleteTombstonedByIds(postIds));
+
+        log.info("Purged {} deleted posts", postIds.size());
+    }
+
+    private void purgeUsers() {
+        for (Integer userId : userRepository.findTombstonedIds(usersPerRun)) {
+            // Each chunk first touches the posts and users whose counts it changes, so their ETags move with it.
+            drain("comment_table", () -> {
+                commentRepository.touchPostsCommentedByUser(userId, chunkSize, now());
+                return commentRepository.deleteByUserId(userId, chunkSize);
+            });
+            drain("post_likes", () -> {
+                postRepository.touchPostsLikedByUser(userId, chunkSize, now());
+                return postRepository.deleteLikesByUserId(userId, chunkSize);
+            });
+            drain("post_saves", () -> {
+                postRepository.touchPostsSavedByUser(userId, chunkSize, now());
+                return postRepository.deleteSavesByUserId(userId, chunkSize);
+            });
+            drain("user_followers", () -> {
+                userRepository.touchFollowerCounterparts(userId, chunkSize);
+                return userRepository.deleteFollowerEdges(userId, chunkSize);
+            });
+            drain("user_followings", () -> {
+                userRepository.touchFollowingCounterparts(userId, chunkSize);
+                return userRepository.deleteFollowingEdges(userId, chunkSize);
+            });
+
+            if (postRepository.countIncludingTombstonedByUserId(userId) > 0) {
+                log.info("Deleted user {} still owns posts awaiting purge", userId);
+                continue;
+            }
+            drain("media_asset", () -> mediaService.deleteOwnedBy(userId, chunkSize));
+            drain("post_report", () -> moderationService.deleteReportsByReporter(userId, chunkSize));
+            drain("notification", () -> notificationRepository.deleteByRecipientId(userId, chunkSize));
+            drain("notification_unread", () -> notificationRepository.deleteUnreadCount(userId));
+            drain("user_table", () -> userRepository.deleteTombstonedById(userId));
+            log.info("Purged deleted user {}", userId);
+        }
+    }
+
+    private void drain(String table, IntSupplier deleteChunk) {
+        int deleted;
+        do {
+            Integer result = transactionTemplate.execute(status -> deleteChunk.getAsInt());
+            deleted = result != null ? result : 0;
+            if (deleted > 0) {
+                meterRegistry.counter("purge.deleted_rows", "table", table).increment(deleted);
+                pause();
+            }
+        } while (deleted >= chunkSize);
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
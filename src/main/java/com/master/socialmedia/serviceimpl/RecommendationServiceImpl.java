@@ -0,0 +1,260 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.dto.UserDTO;
+import com.master.socialmedia.dto.UserRecommendationDTO;
+import com.master.socialmedia.event.UserFollowEvent;
+import com.master.socialmedia.exception.UserNotFoundException;
+import com.master.socialmedia.repository.UserRepository;
+import com.master.socialmedia.service.FollowGraphService;
+import com.master.socialmedia.service.RecommendationService;
+import com.master.socialmedia.service.UserService;
+import com.master.socialmedia.utils.ExpiringCache;
+import com.master.socialmedia.utils.IntCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Suggests accounts followed by the people a user follows, ranked by how many
+ * of them follow the candidate. Walks run on a dedicated fork-join pool over
+ * the in-memory follow graph, and the top candidates are cached per user and
+ * recomputed in the background when a follow changes them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecommendationServiceImpl implements RecommendationService {
+
+    // Upper bound on candidate visits per leaf; smaller leaves spend more time merging counters than walking.
+    private static final int VISITS_PER_TASK = 65_536;
+
+    private final FollowGraphService followGraphService;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${recommendations.parallelism}")
+    private int parallelism;
+
+    @Value("${recommendations.max-seeds}")
+    private int maxSeeds;
+
+    @Value("${recommendations.per-node-cap}")
+    private int perNodeCap;
+
+    @Value("${recommendations.max-visits}")
+    private int maxVisits;
+
+    @Value("${recommendations.top-k}")
+    private int topK;
+
+    @Value("${recommendations.cache-size}")
+    private int cacheSize;
+
+    @Value("${recommendations.cache-ttl-ms}")
+    private long cacheTtlMs;
+
+    @Value("${recommendations.refresh-batch}")
+    private int refreshBatch;
+
+    @Value("${recommendations.invalidation-fanout}")
+    private int invalidationFanout;
+
+    private final Set<Integer> stale = ConcurrentHashMap.newKeySet();
+    private ForkJoinPool pool;
+    private ExpiringCache<Integer, Recommendations> cache;
+    private Timer computeTimer;
+    private Counter cacheHits;
+    private Counter cacheMisses;
+
+    @PostConstruct
+    void init() {
+        pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("recommendations-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        cache = new ExpiringCache<>(cacheSize, cacheTtlMs);
+        computeTimer = meterRegistry.timer("recommendations.compute");
+        cacheHits = meterRegistry.counter("recommendations.cache", "result", "hit");
+        cacheMisses = meterRegistry.counter("recommendations.cache", "result", "miss");
+        meterRegistry.gaugeCollectionSize("recommendations.stale", List.of(), stale);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Override
+    public List<UserRecommendationDTO> getPeopleYouMayKnow(Authentication authentication, int limit) {
+        Integer userId = userRepository.findIdByUserName(authentication.getName());
+        if (userId == null) {
+            throw new UserNotFoundException("Authenticated user not found.");
+        }
+
+        Recommendations recommendations = cache.get(userId);
+        if (recommendations == null) {
+            cacheMisses.increment();
+            recommendations = compute(userId);
+            cache.put(userId, recommendations);
+        } else {
+            cacheHits.increment();
+        }
+
+        // The cached list may predate follows that have not been refreshed yet, and the in-memory graph may not
+        // have caught up with follows made on other instances, so followed candidates are dropped per user_followings.
+        if (recommendations.ids.length == 0) {
+            return List.of();
+        }
+        Set<Integer> followed = new HashSet<>(userRepository.findFollowedAmong(userId,
+                Arrays.stream(recommendations.ids).boxed().toList()));
+        int size = Math.max(1, Math.min(limit, topK));
+        List<Integer> ids = new ArrayList<>(size);
+        Map<Integer, Integer> mutualCounts = new HashMap<>();
+        for (int i = 0; i < recommendations.ids.length && ids.size() < size; i++) {
+            int candidate = recommendations.ids[i];
+            if (!followed.contains(candidate)) {
+                ids.add(candidate);
+                mutualCounts.put(candidate, recommendations.mutualCounts[i]);
+            }
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<UserRecommendationDTO> result = new ArrayList<>(ids.size());
+        for (UserDTO user : userService.findUsersByIds(ids)) {
+            result.add(new UserRecommendationDTO(user, mutualCounts.get(user.getId())));
+        }
+        return result;
+    }
+
+    @TransactionalEventListener
+    public void onFollow(UserFollowEvent event) {
+        // The follower's own list changes, and everyone following the follower
+        // gains a new two-hop path to the followee.
+        stale.add(event.getFollowerId());
+        for (int follower : sample(followGraphService.getFollowers(event.getFollowerId()), invalidationFanout)) {
+            if (cache.get(follower) != null) {
+                stale.add(follower);
+            }
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${recommendations.refresh-interval-ms}",
+            initialDelayString = "${recommendations.refresh-interval-ms}")
+    public void refreshStale() {
+        int refreshed = 0;
+        Iterator<Integer> it = stale.iterator();
+        while (it.hasNext() && refreshed < refreshBatch) {
+            Integer userId = it.next();
+            it.remove();
+            if (cache.get(userId) != null) {
+                cache.put(userId, compute(userId));
+                refreshed++;
+            }
+        }
+        if (refreshed > 0) {
+            log.debug("Refreshed recommendations for {} users, {} still stale", refreshed, stale.size());
+        }
+    }
+
+    @Override
+    public void precompute(Collection<Integer> userIds) {
+        for (Integer userId : userIds) {
+            if (cache.get(userId) == null) {
+                cache.put(userId, compute(userId));
+            }
+        }
+    }
+
+    Recommendations compute(int userId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        int[] following = followGraphService.getFollowing(userId);
+        int[] seeds = sample(following, maxSeeds);
+        int perSeed = Math.max(1, Math.min(perNodeCap, maxVisits / Math.max(1, seeds.length)));
+
+        IntCounter counts = pool.invoke(new WalkTask(seeds, 0, seeds.length, perSeed));
+        int[][] top = counts.top(topK, candidate -> candidate != userId && Arrays.binarySearch(following, candidate) < 0);
+        sample.stop(computeTimer);
+        return new Recommendations(top[0], top[1]);
+    }
+
+    /** Evenly spaced subset of a sorted id list, so high-degree accounts cost a bounded amount. */
+    private static int[] sample(int[] ids, int cap) {
+        if (ids.length <= cap) {
+            return ids;
+        }
+        int[] result = new int[cap];
+        for (int i = 0; i < cap; i++) {
+            result[i] = ids[(int) ((long) i * ids.length / cap)];
+        }
+        return result;
+    }
+
+    record Recommendations(int[] ids, int[] mutualCounts) {
+    }
+
+    private final class WalkTask extends RecursiveTask<IntCounter> {
+        private final int[] seeds;
+        private final int from;
+        private final int to;
+        private final int perSeed;
+
+        private WalkTask(int[] seeds, int from, int to, int perSeed) {
+            this.seeds = seeds;
+            this.from = from;
+            this.to = to;
+            this.perSeed = perSeed;
+        }
+
+        @Override
+        protected IntCounter compute() {
+            if (to - from <= 1 || (long) (to - from) * perSeed <= VISITS_PER_TASK) {
+                IntCounter counts = new IntCounter(Math.min((to - from) * perSeed, VISITS_PER_TASK));
+                for (int i = from; i < to; i++) {
+                    for (int candidate : sample(followGraphService.getFollowing(seeds[i]), perSeed)) {
+                        counts.add(candidate, 1);
+                    }
+                }
+                return counts;
+            }
+            int mid = (from + to) >>> 1;
+            WalkTask left = new WalkTask(seeds, from, mid, perSeed);
+            left.fork();
+            IntCounter right = new WalkTask(seeds, mid, to, perSeed).compute();
+            IntCounter merged = left.join();
+            if (merged.size() < right.size()) {
+                right.merge(merged);
+                return right;
+            }
+            merged.merge(right);
+            return merged;
+        }
+    }
+}
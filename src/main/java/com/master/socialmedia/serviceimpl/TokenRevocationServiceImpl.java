@@ -0,0 +1,178 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.enums.RevocationScope;
+import com.master.socialmedia.service.TokenRevocationService;
+import com.master.socialmedia.utils.DbUtil;
+import com.master.socialmedia.utils.JwtUtil;
+import com.master.socialmedia.utils.TimePartitionedSet;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revokes JWTs before they expire. Logging out revokes one token by its jti;
+ * revoking all of a user's tokens records a cutoff that rejects every token
+ * issued up to then. Both are written to token_revocation and held in memory:
+ * token ids in a {@link TimePartitionedSet} bucketed by the token's own
+ * expiry, cutoffs in a map by user name. The filter's check is two hash
+ * lookups with no I/O, and entries are dropped once the tokens they cover
+ * would have expired anyway.
+ * <p>
+ * The table is loaded at start-up and re-read for rows revoked since the last
+ * sync, so revocations made by other instances take effect within
+ * {@code sync-interval-ms}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@DependsOnDatabaseInitialization
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private final JwtUtil jwtUtil;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${token-revocation.bucket-ms}")
+    private long bucketMs;
+
+    @Value("${token-revocation.sync-overlap-ms}")
+    private long syncOverlapMs;
+
+    @Value("${token-revocation.prune-batch-size}")
+    private int pruneBatchSize;
+
+    private JdbcTemplate jdbcTemplate;
+    private TimePartitionedSet<String> revokedTokens;
+    // Tokens of the user issued at or before this instant (epoch millis) are revoked.
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+    private volatile long syncedAt;
+    private Counter rejected;
+    private Counter tokensRevoked;
+    private Counter usersRevoked;
+
+    @PostConstruct
+    void load() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        revokedTokens = new TimePartitionedSet<>(bucketMs);
+        long now = System.currentTimeMillis();
+        syncedAt = now;
+        int loaded = read("expires_at > ?", DbUtil.toTimestamp(now), now);
+
+        rejected = meterRegistry.counter("token.revocation.rejected");
+        tokensRevoked = meterRegistry.counter("token.revocation.revoked", "scope", "token");
+        usersRevoked = meterRegistry.counter("token.revocation.revoked", "scope", "user");
+        meterRegistry.gauge("token.revocation.tokens", revokedTokens, TimePartitionedSet::size);
+        meterRegistry.gauge("token.revocation.buckets", revokedTokens, TimePartitionedSet::bucketCount);
+        meterRegistry.gauge("token.revocation.users", revokedBefore, Map::size);
+        log.info("Loaded {} unexpired token revocations", loaded);
+    }
+
+    @Override
+    public boolean isRevoked(Claims claims) {
+        String tokenId = claims.getId();
+        Date expiration = claims.getExpiration();
+        Long cutoff = revokedBefore.get(claims.getSubject());
+        boolean revoked = (tokenId != null && expiration != null && revokedTokens.contains(tokenId, expiration.getTime()))
+                || (cutoff != null && isIssuedBy(claims, cutoff));
+        if (revoked) {
+            rejected.increment();
+        }
+        return revoked;
+    }
+
+    private boolean isIssuedBy(Claims claims, long cutoff) {
+        Long issuedAt = jwtUtil.extractIssuedAtMillis(claims);
+        return issuedAt == null || issuedAt <= cutoff;
+    }
+
+    @Override
+    public void revokeToken(String token) {
+        Claims claims = jwtUtil.extractAllClaims(token);
+        if (claims.getId() == null) {
+            // Issued before tokens carried an id; only a cutoff can reach it.
+            revokeAllTokens(claims.getSubject());
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = claims.getExpiration().getTime();
+        write(RevocationScope.TOKEN, claims.getId(), claims.getSubject(), now, expiresAt);
+        DbUtil.afterCommit(() -> revokedTokens.add(claims.getId(), expiresAt, System.currentTimeMillis()));
+        tokensRevoked.increment();
+    }
+
+    @Override
+    public void revokeAllTokens(String userName) {
+        long now = System.currentTimeMillis();
+        write(RevocationScope.USER, userName, userName, now, now + jwtUtil.getExpirationMillis());
+        DbUtil.afterCommit(() -> revokedBefore.merge(userName, now, Math::max));
+        usersRevoked.increment();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${token-revocation.sync-interval-ms}", initialDelayString = "${token-revocation.sync-interval-ms}")
+    public int syncRevocations() {
+        long now = System.currentTimeMillis();
+        long from = syncedAt - syncOverlapMs;
+        syncedAt = now;
+        return read("revoked_at >= ?", DbUtil.toTimestamp(from), now);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${token-revocation.prune-interval-ms}", initialDelayString = "${token-revocation.prune-interval-ms}")
+    public int pruneExpired() {
+        long now = System.currentTimeMillis();
+        int dropped = revokedTokens.prune(now);
+        long expiration = jwtUtil.getExpirationMillis();
+        revokedBefore.values().removeIf(cutoff -> cutoff + expiration <= now);
+
+        Timestamp expired = DbUtil.toTimestamp(now);
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("delete from token_revocation where expires_at <= ? limit ?", expired,
+                    pruneBatchSize);
+        } while (deleted >= pruneBatchSize);
+        return dropped;
+    }
+
+    private void write(RevocationScope scope, String key, String userName, long revokedAt, long expiresAt) {
+        jdbcTemplate.update("insert into token_revocation (scope, token_key, user_name, revoked_at, expires_at) "
+                        + "values (?, ?, ?, ?, ?) on duplicate key update revoked_at = greatest(revoked_at, "
+                        + "values(revoked_at)), expires_at = greatest(expires_at, values(expires_at))",
+                scope.name(), key, userName, DbUtil.toTimestamp(revokedAt), DbUtil.toTimestamp(expiresAt));
+    }
+
+    private int read(String condition, Timestamp from, long now) {
+        int[] read = {0};
+        jdbcTemplate.query("select scope, token_key, revoked_at, expires_at from token_revocation where " + condition,
+                rs -> {
+                    String key = rs.getString(2);
+                    if (RevocationScope.valueOf(rs.getString(1)) == RevocationScope.TOKEN) {
+                        revokedTokens.add(key, toMillis(rs.getTimestamp(4)), now);
+                    } else if (toMillis(rs.getTimestamp(4)) > now) {
+                        revokedBefore.merge(key, toMillis(rs.getTimestamp(3)), Math::max);
+                    }
+                    read[0]++;
+                },
+                from);
+        return read[0];
+    }
+
+    private static long toMillis(Timestamp utc) {
+        return utc.toLocalDateTime().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,143 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.dto.CommentActivityView;
+import com.master.socialmedia.dto.PostDTO;
+import com.master.socialmedia.dto.PostEngagementView;
+import com.master.socialmedia.entity.Post;
+import com.master.socialmedia.enums.EngagementType;
+import com.master.socialmedia.enums.PostStatus;
+import com.master.socialmedia.event.PostEngagementEvent;
+import com.master.socialmedia.repository.CommentRepository;
+import com.master.socialmedia.repository.PostRepository;
+import com.master.socialmedia.service.TrendingService;
+import com.master.socialmedia.utils.DecayingTopK;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TrendingServiceImpl implements TrendingService {
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+
+    @Value("${trending.size}")
+    private int trendingSize;
+
+    @Value("${trending.stripes}")
+    private int stripes;
+
+    @Value("${trending.half-life-ms}")
+    private long halfLifeMs;
+
+    @Value("${trending.window-ms}")
+    private long windowMs;
+
+    @Value("${trending.weights.like}")
+    private double likeWeight;
+
+    @Value("${trending.weights.save}")
+    private double saveWeight;
+
+    @Value("${trending.weights.comment}")
+    private double commentWeight;
+
+    private DecayingTopK scoreBoard;
+
+    private volatile List<PostDTO> trendingPosts = Collections.emptyList();
+
+    @PostConstruct
+    void init() {
+        scoreBoard = new DecayingTopK(stripes, halfLifeMs, windowMs);
+    }
+
+    @Override
+    public List<PostDTO> getTrendingPosts() {
+        return trendingPosts;
+    }
+
+    @TransactionalEventListener
+    public void onEngagement(PostEngagementEvent event) {
+        double weight = weightOf(event.getType());
+        if (weight != 0) {
+            scoreBoard.record(event.getPostId(), weight, event.getOccurredAt().toEpochMilli());
+        }
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${trending.refresh-interval-ms}", initialDelayString = "${trending.refresh-interval-ms}")
+    public void refresh() {
+        List<Integer> ranked = scoreBoard.topK(trendingSize, System.currentTimeMillis());
+        if (ranked.isEmpty()) {
+            trendingPosts = Collections.emptyList();
+            return;
+        }
+
+        Map<Integer, Post> postsById = postRepository.findAllById(ranked).stream()
+                .filter(post -> post.getStatus() == PostStatus.PUBLIC && !post.isDeleted())
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+
+        trendingPosts = ranked.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .map(PostDTO::new)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime since = LocalDateTime.now(ZoneOffset.UTC).minusNanos(windowMs * 1_000_000L);
+        scoreBoard.clear();
+
+        List<PostEngagementView> posts = postRepository.findEngagementSince(PostStatus.PUBLIC, since);
+        for (PostEngagementView view : posts) {
+            double score = view.getLikeCount() * likeWeight + view.getSaveCount() * saveWeight;
+            if (score > 0) {
+                scoreBoard.record(view.getPostId(), score, toEpochMilli(view.getCreatedAt()));
+            }
+        }
+
+        List<CommentActivityView> comments = commentRepository.findActivitySince(since);
+        for (CommentActivityView view : comments) {
+            scoreBoard.record(view.getPostId(), commentWeight, toEpochMilli(view.getCreatedAt()));
+        }
+
+        log.info("Rebuilt trending scores from {} posts and {} comments", posts.size(), comments.size());
+        refresh();
+    }
+
+    private double weightOf(EngagementType type) {
+        return switch (type) {
+            case LIKE -> likeWeight;
+            case UNLIKE -> -likeWeight;
+            case SAVE -> saveWeight;
+            case UNSAVE -> -saveWeight;
+            case COMMENT -> commentWeight;
+        };
+    }
+
+    private long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
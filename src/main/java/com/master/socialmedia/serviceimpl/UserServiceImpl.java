@@ -1,14 +1,24 @@
 package com.master.socialmedia.serviceimpl;
 
+import com.master.socialmedia.annotation.RetryOnConflict;
 import com.master.socialmedia.dto.UserDTO;
 import com.master.socialmedia.entity.User;
+import com.master.socialmedia.enums.PostStatus;
+import com.master.socialmedia.event.UserFollowEvent;
 import com.master.socialmedia.exception.*;
+import com.master.socialmedia.repository.PostRepository;
 import com.master.socialmedia.repository.UserRepository;
+import com.master.socialmedia.service.AvailabilityService;
+import com.master.socialmedia.service.FollowGraphService;
+import com.master.socialmedia.service.TokenRevocationService;
 import com.master.socialmedia.service.UserService;
 import com.master.socialmedia.utils.JwtUtil;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -17,7 +27,16 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -30,14 +49,27 @@ public class UserServiceImpl implements UserService {
 
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
+    private final PostRepository postRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
+    private final AvailabilityService availabilityService;
+    private final FollowGraphService followGraphService;
+    private final TokenRevocationService tokenRevocationService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${batch.max-ids}")
+    private int maxBatchIds;
 
     @Override
-    public List<UserDTO> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(UserDTO::new)
-                .toList();
+    public boolean hasUsers() {
+        return userRepository.count() > 0;
+    }
+
+    @Override
+    public void streamAllUsers(Consumer<UserDTO> sink) {
+        try (Stream<UserDTO> users = userRepository.streamAllUserDTOs()) {
+            users.forEach(sink);
+        }
     }
 
     @Override
@@ -53,11 +85,11 @@ public class UserServiceImpl implements UserService {
     @Override
     public String registerUser(User user) {
 
-        if (userRepository.existsByUserName(user.getUserName())) {
+        if (!availabilityService.isUserNameAvailable(user.getUserName())) {
             throw new UsernameAlreadyExistsException("Username already exists: " + user.getUserName());
         }
 
-        if (userRepository.existsByEmail(user.getEmail())) {
+        if (!availabilityService.isEmailAvailable(user.getEmail())) {
             throw new EmailAlreadyExistsException(EMAIL_ALREADY_EXISTS_MSG + user.getEmail());
         }
 
@@ -70,6 +102,7 @@ public class UserServiceImpl implements UserService {
         newUser.setPassword(passwordEncoder.encode(user.getPassword()));
 
         userRepository.save(newUser);
+        availabilityService.recordUser(newUser.getUserName(), newUser.getEmail());
 
         authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(user.getUserName(), user.getPassword()));
@@ -109,6 +142,27 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND_ID_MSG + userId));
     }
 
+    @Override
+    public List<UserDTO> findUsersByIds(List<Integer> userIds) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        if (userIds != null) {
+            userIds.stream().filter(Objects::nonNull).forEach(ids::add);
+        }
+        if (ids.size() > maxBatchIds) {
+            throw new UserOperationException("Cannot request more than " + maxBatchIds + " users at once.");
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, UserDTO> users = userRepository.findUserDTOsByIdIn(ids).stream()
+                .collect(Collectors.toMap(UserDTO::getId, Function.identity()));
+        return ids.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     @Override
     public UserDTO findUserByEmail(String email) {
         User user = userRepository.findByEmail(email);
@@ -119,6 +173,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @RetryOnConflict
     public UserDTO followUser(Authentication authentication, Integer userIdToFollow) {
 
         if (authentication == null || !authentication.isAuthenticated()) {
@@ -139,20 +194,31 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new UserNotFoundException("User with ID " + userIdToFollow + " not found"));
 
         try {
-            userToFollow.getFollowers().add(currentUser.getId());
+            boolean newFollower = userToFollow.getFollowers().add(currentUser.getId());
 
-            currentUser.getFollowings().add(userToFollow.getId());
+            boolean newFollow = currentUser.getFollowings().add(userToFollow.getId());
 
             userRepository.save(currentUser);
             userRepository.save(userToFollow);
+            if (newFollow || newFollower) {
+                // Edges are excluded from the version check; bump it here so user ETags see the new counts.
+                userRepository.incrementVersions(List.of(currentUser.getId(), userToFollow.getId()));
+            }
+            if (newFollow) {
+                followGraphService.recordFollow(currentUser.getId(), userToFollow.getId());
+                eventPublisher.publishEvent(new UserFollowEvent(currentUser.getId(), userToFollow.getId(), Instant.now()));
+            }
 
             return new UserDTO(currentUser);
+        } catch (ConcurrencyFailureException e) {
+            throw e;
         } catch (Exception e) {
             throw new UserOperationException("Failed to follow user: " + e.getMessage());
         }
     }
 
     @Override
+    @RetryOnConflict
     public UserDTO updateUser(User user, Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new CustomAuthenticationException("Invalid or missing authentication");
@@ -181,25 +247,31 @@ public class UserServiceImpl implements UserService {
                 existingUser.setEmail(user.getEmail());
             }
 
-            return new UserDTO(userRepository.save(existingUser));
+            User savedUser = userRepository.save(existingUser);
+            availabilityService.recordUser(savedUser.getUserName(), savedUser.getEmail());
+            return new UserDTO(savedUser);
+        } catch (ConcurrencyFailureException e) {
+            throw e;
         } catch (Exception e) {
             throw new UserOperationException("Failed to update user: " + e.getMessage());
         }
     }
 
     @Override
+    @RetryOnConflict
     public void deleteUser(Integer userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND_ID_MSG + userId));
 
-        userRepository.delete(user);
+        user.setDeleted(true);
+        userRepository.save(user);
+        postRepository.tombstoneByUserId(userId, PostStatus.DELETED);
+        followGraphService.removeUser(userId);
+        tokenRevocationService.revokeAllTokens(user.getUserName());
     }
 
     @Override
     public List<UserDTO> searchUser(String query) {
-        return userRepository.searchUser(query)
-                .stream()
-                .map(UserDTO::new)
-                .toList();
+        return userRepository.searchUser(query);
     }
 }
\ No newline at end of file
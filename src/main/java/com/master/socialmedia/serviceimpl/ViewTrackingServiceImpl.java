@@ -0,0 +1,151 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.dto.PostDTO;
+import com.master.socialmedia.entity.PostReach;
+import com.master.socialmedia.repository.PostReachRepository;
+import com.master.socialmedia.service.ViewTrackingService;
+import com.master.socialmedia.service.WarmUpService;
+import com.master.socialmedia.utils.HyperLogLog;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ViewTrackingServiceImpl implements ViewTrackingService {
+
+    private static final int SKETCH_PRECISION = 12;
+
+    private final PostReachRepository postReachRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Integer, PendingReach> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordViews(List<PostDTO> posts, Authentication authentication) {
+        if (authentication == null || posts == null || posts.isEmpty()
+                || WarmUpService.PRINCIPAL.equals(authentication.getName())) {
+            return;
+        }
+        String viewer = authentication.getName();
+        for (PostDTO post : posts) {
+            Integer authorId = post.getUser() != null ? post.getUser().getId() : null;
+            if (authorId == null || viewer.equals(post.getUser().getUsername())) {
+                continue;
+            }
+            pending.compute(post.getId(), (postId, reach) -> {
+                PendingReach current = reach != null ? reach : new PendingReach(authorId);
+                current.sketch.offer(viewer);
+                return current;
+            });
+        }
+    }
+
+    @Override
+    public long getPostReach(Integer postId) {
+        HyperLogLog sketch = postReachRepository.findById(postId)
+                .map(reach -> HyperLogLog.fromBytes(reach.getSketch()))
+                .orElseGet(() -> new HyperLogLog(SKETCH_PRECISION));
+        mergePending(postId, sketch);
+        return sketch.cardinality();
+    }
+
+    @Override
+    public long getAuthorReach(Integer authorId) {
+        HyperLogLog sketch = new HyperLogLog(SKETCH_PRECISION);
+        for (PostReach reach : postReachRepository.findByAuthorId(authorId)) {
+            sketch.merge(HyperLogLog.fromBytes(reach.getSketch()));
+        }
+        pending.forEach((postId, reach) -> {
+            if (authorId.equals(reach.authorId)) {
+                mergePending(postId, sketch);
+            }
+        });
+        return sketch.cardinality();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${reach.flush-interval-ms}", initialDelayString = "${reach.flush-interval-ms}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, PendingReach> drained = new HashMap<>();
+        for (Integer postId : new ArrayList<>(pending.keySet())) {
+            PendingReach reach = pending.remove(postId);
+            if (reach != null) {
+                drained.put(postId, reach);
+            }
+        }
+
+        try {
+            // Locking the stored rows keeps another instance from overwriting this merge with its own.
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Integer, PostReach> stored = postReachRepository.findAllByIdForUpdate(drained.keySet()).stream()
+                        .collect(Collectors.toMap(PostReach::getPostId, Function.identity()));
+                LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+
+                List<PostReach> updated = new ArrayList<>(drained.size());
+                drained.forEach((postId, reach) -> {
+                    PostReach row = stored.get(postId);
+                    if (row == null) {
+                        updated.add(new PostReach(postId, reach.authorId, reach.sketch.toBytes(), now));
+                    } else {
+                        HyperLogLog merged = HyperLogLog.fromBytes(row.getSketch());
+                        merged.merge(reach.sketch);
+                        row.setSketch(merged.toBytes());
+                        row.setUpdatedAt(now);
+                        updated.add(row);
+                    }
+                });
+                postReachRepository.saveAll(updated);
+            });
+            log.debug("Flushed reach sketches for {} posts", drained.size());
+        } catch (RuntimeException e) {
+            // Also covers failures at commit, which surface as TransactionException rather than DataAccessException.
+            // Merge the sketches back into whatever arrived meanwhile; the next run retries them.
+            drained.forEach((postId, reach) -> pending.merge(postId, reach, (newer, older) -> {
+                newer.sketch.merge(older.sketch);
+                return newer;
+            }));
+            log.warn("Failed to flush reach sketches for {} posts, will retry", drained.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void mergePending(Integer postId, HyperLogLog target) {
+        pending.computeIfPresent(postId, (id, reach) -> {
+            target.merge(reach.sketch);
+            return reach;
+        });
+    }
+
+    private static final class PendingReach {
+        private final Integer authorId;
+        private final HyperLogLog sketch = new HyperLogLog(SKETCH_PRECISION);
+
+        private PendingReach(Integer authorId) {
+            this.authorId = authorId;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.dto.PostDTO;
+import com.master.socialmedia.dto.UserDTO;
+import com.master.socialmedia.enums.PostStatus;
+import com.master.socialmedia.repository.PostRepository;
+import com.master.socialmedia.service.FollowGraphService;
+import com.master.socialmedia.service.RecommendationService;
+import com.master.socialmedia.service.TokenRevocationService;
+import com.master.socialmedia.service.TrendingService;
+import com.master.socialmedia.service.UserService;
+import com.master.socialmedia.service.WarmUpService;
+import com.master.socialmedia.utils.JwtUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a new instance out of rotation until its hot paths are warm. Once the
+ * application is ready, a background thread replays read-only API traffic for
+ * the profiles and posts of the most followed users and the trending and
+ * newest public posts over the loopback interface, so the JWT filter,
+ * controllers, DTO mapping, JSON serialisation, repository queries and the
+ * database buffer pool all see real requests. The recommendation cache of the
+ * same users is filled directly. Rounds repeat until a round triggers little
+ * new JIT compilation or the time budget runs out.
+ * <p>
+ * The requests run as the synthetic {@link WarmUpService#PRINCIPAL}, never as a
+ * real user, with one short-lived token that is revoked as soon as warm-up
+ * finishes. Views it generates are not counted towards post reach.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WarmUpServiceImpl implements WarmUpService {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final FollowGraphService followGraphService;
+    private final UserService userService;
+    private final TrendingService trendingService;
+    private final RecommendationService recommendationService;
+    private final PostRepository postRepository;
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${warmup.enabled}")
+    private boolean enabled;
+
+    @Value("${warmup.hot-users}")
+    private int hotUsers;
+
+    @Value("${warmup.hot-posts}")
+    private int hotPosts;
+
+    @Value("${warmup.posts-per-request}")
+    private int postsPerRequest;
+
+    @Value("${warmup.min-rounds}")
+    private int minRounds;
+
+    @Value("${warmup.settle-compile-ms}")
+    private long settleCompileMs;
+
+    @Value("${warmup.max-duration-ms}")
+    private long maxDurationMs;
+
+    @Value("${server.servlet.context-path:}")
+    private String contextPath;
+
+    private volatile boolean ready;
+    private volatile String baseUrl;
+    private final AtomicInteger warmedUsers = new AtomicInteger();
+    private final AtomicInteger warmedPosts = new AtomicInteger();
+    private final AtomicInteger rounds = new AtomicInteger();
+    private final AtomicLong lastRoundCompileMs = new AtomicLong();
+    private Timer duration;
+    private Counter succeeded;
+    private Counter failed;
+
+    @PostConstruct
+    void init() {
+        duration = meterRegistry.timer("warmup.duration");
+        succeeded = meterRegistry.counter("warmup.requests", "outcome", "ok");
+        failed = meterRegistry.counter("warmup.requests", "outcome", "failed");
+        meterRegistry.gauge("warmup.ready", this, service -> service.ready ? 1 : 0);
+        meterRegistry.gauge("warmup.users", warmedUsers);
+        meterRegistry.gauge("warmup.posts", warmedPosts);
+        meterRegistry.gauge("warmup.rounds", rounds);
+        meterRegistry.gauge("warmup.round.compile.ms", lastRoundCompileMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        if (!enabled || !(event.getApplicationContext() instanceof WebServerApplicationContext web)
+                || web.getWebServer() == null) {
+            ready = true;
+            return;
+        }
+        baseUrl = "http://localhost:" + web.getWebServer().getPort() + contextPath;
+        Thread thread = new Thread(this::warmUp, "warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void warmUp() {
+        long start = System.nanoTime();
+        String token = null;
+        try {
+            List<UserDTO> users = hotUsers();
+            List<Integer> postIds = hotPostIds();
+            warmedUsers.set(users.size());
+            warmedPosts.set(postIds.size());
+            if (users.isEmpty()) {
+                log.info("Nothing to warm up, accepting traffic");
+                return;
+            }
+
+            // Twice the budget, so a last round that starts just before the deadline still authenticates.
+            token = jwtUtil.generateToken(PRINCIPAL, 2 * maxDurationMs);
+            recommendationService.precompute(users.stream().map(UserDTO::getId).toList());
+
+            HttpClient client = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+            CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+            long compiled = compileMillis(jit);
+            while (true) {
+                round(client, users, postIds, token);
+                int round = rounds.incrementAndGet();
+                long previous = compiled;
+                compiled = compileMillis(jit);
+                lastRoundCompileMs.set(compiled - previous);
+                if (round >= minRounds && compiled - previous < settleCompileMs) {
+                    break;
+                }
+                if (System.nanoTime() > deadline) {
+                    log.warn("Warm-up hit its {} ms budget before JIT compilation settled", maxDurationMs);
+                    break;
+                }
+            }
+            log.info("Warmed up {} users and {} posts in {} rounds ({} ms)", users.size(), postIds.size(),
+                    rounds.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            // A failed warm-up only costs latency; it must not keep the instance out of rotation.
+            log.warn("Warm-up failed, accepting traffic cold", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            revoke(token);
+            duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            ready = true;
+        }
+    }
+
+    private void revoke(String token) {
+        if (token == null) {
+            return;
+        }
+        try {
+            tokenRevocationService.revokeToken(token);
+        } catch (RuntimeException e) {
+            // Still expires on its own within the short lifetime it was issued with.
+            log.warn("Could not revoke the warm-up token", e);
+        }
+    }
+
+    private List<UserDTO> hotUsers() {
+        int[] ids = followGraphService.getMostFollowed(hotUsers);
+        if (ids.length == 0) {
+            return List.of();
+        }
+        return userService.findUsersByIds(Arrays.stream(ids).boxed().toList());
+    }
+
+    private List<Integer> hotPostIds() {
+        Set<Integer> ids = trendingService.getTrendingPosts().stream()
+                .map(PostDTO::getId)
+                .limit(hotPosts)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.size() < hotPosts) {
+            ids.addAll(postRepository.findRecentIdsByStatus(PostStatus.PUBLIC, hotPosts - ids.size()));
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private void round(HttpClient client, List<UserDTO> users, List<Integer> postIds, String token)
+            throws InterruptedException {
+        for (UserDTO user : users) {
+            get(client, token, "/api/users/" + user.getId());
+            get(client, token, "/api/posts/user/" + user.getId());
+            get(client, token, "/api/posts/trending");
+        }
+        for (int from = 0; from < postIds.size(); from += postsPerRequest) {
+            String ids = postIds.subList(from, Math.min(postIds.size(), from + postsPerRequest)).stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(","));
+            get(client, token, "/api/posts/batch?ids=" + ids);
+            get(client, token, "/api/posts/counts?ids=" + ids);
+        }
+    }
+
+    private void get(HttpClient client, String token, String path) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .GET()
+                .build();
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            // A 404 for a user without posts still ran the full request path; only server errors count as failures.
+            (status < 500 ? succeeded : failed).increment();
+        } catch (IOException e) {
+            failed.increment();
+            log.debug("Warm-up request {} failed", path, e);
+        }
+    }
+
+    private static long compileMillis(CompilationMXBean jit) {
+        return jit != null && jit.isCompilationTimeMonitoringSupported() ? jit.getTotalCompilationTime() : 0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.master.socialmedia.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+
+/** Helpers shared by the services that write through {@code JdbcTemplate}. */
+public final class DbUtil {
+
+    private DbUtil() {
+    }
+
+    /**
+     * Runs {@code change} once the current transaction commits, and not at all if
+     * it rolls back. Without a transaction it runs straight away.
+     */
+    public static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    /** Epoch millis as a UTC {@code datetime} parameter, matching how the entities store their timestamps. */
+    public static Timestamp toTimestamp(long millis) {
+        return Timestamp.valueOf(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC));
+    }
+
+    /** {@code count} comma-separated {@code ?} markers for an {@code in (...)} list. */
+    public static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
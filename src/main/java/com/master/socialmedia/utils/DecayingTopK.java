@@ -0,0 +1,159 @@
+package com.master.socialmedia.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lock-striped, time-decayed score board over a sliding window.
+ * <p>
+ * Scores use forward decay: every increment is stored relative to a shared base time, so
+ * the relative order of entries never changes between events and no background decay pass
+ * is needed. Entries without activity inside the window are evicted on {@link #topK}.
+ */
+public class DecayingTopK {
+
+    private static final double MAX_EXPONENT = 600.0;
+
+    private final Stripe[] stripes;
+    private final double lambda;
+    private final long windowMillis;
+
+    public DecayingTopK(int stripeCount, long halfLifeMillis, long windowMillis) {
+        if (stripeCount <= 0 || halfLifeMillis <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("Stripe count, half-life and window must be positive");
+        }
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.lambda = Math.log(2) / halfLifeMillis;
+        this.windowMillis = windowMillis;
+    }
+
+    public void record(int key, double weight, long eventMillis) {
+        Stripe stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            if (stripe.baseMillis == 0) {
+                stripe.baseMillis = eventMillis;
+            }
+            double exponent = lambda * (eventMillis - stripe.baseMillis);
+            if (exponent > MAX_EXPONENT) {
+                stripe.rebase(eventMillis, lambda);
+                exponent = 0;
+            }
+            Entry entry = stripe.entries.computeIfAbsent(key, k -> new Entry());
+            entry.score += weight * Math.exp(exponent);
+            entry.lastEventMillis = Math.max(entry.lastEventMillis, eventMillis);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public List<Integer> topK(int k, long nowMillis) {
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+        PriorityQueue<Map.Entry<Integer, Double>> heap = new PriorityQueue<>(k + 1, Map.Entry.comparingByValue());
+        long cutoff = nowMillis - windowMillis;
+
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.rebase(nowMillis, lambda);
+                Iterator<Map.Entry<Integer, Entry>> it = stripe.entries.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<Integer, Entry> e = it.next();
+                    if (e.getValue().lastEventMillis < cutoff) {
+                        it.remove();
+                        continue;
+                    }
+                    heap.offer(Map.entry(e.getKey(), e.getValue().score));
+                    if (heap.size() > k) {
+                        heap.poll();
+                    }
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(heap);
+        ranked.sort(Map.Entry.<Integer, Double>comparingByValue(Comparator.reverseOrder()));
+        return ranked.stream().map(Map.Entry::getKey).toList();
+    }
+
+    public void remove(int key) {
+        Stripe stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            stripe.entries.remove(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.entries.clear();
+                stripe.baseMillis = 0;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(int key) {
+        int h = key * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Integer, Entry> entries = new HashMap<>();
+        private long baseMillis;
+
+        private void rebase(long newBaseMillis, double lambda) {
+            if (baseMillis == 0) {
+                baseMillis = newBaseMillis;
+                return;
+            }
+            double factor = Math.exp(-lambda * (newBaseMillis - baseMillis));
+            for (Entry entry : entries.values()) {
+                entry.score *= factor;
+            }
+            baseMillis = newBaseMillis;
+        }
+    }
+
+    private static final class Entry {
+        private double score;
+        private long lastEventMillis;
+    }
+}
@@ -0,0 +1,467 @@
+package com.master.socialmedia.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Follow graph held as two compressed sparse row (CSR) tables, one per
+ * direction: {@code offsets[id]..offsets[id + 1]} delimits the sorted
+ * neighbour ids of user {@code id} in {@code targets}. That is 4 bytes per
+ * edge and direction plus 4 bytes per user id, on or off heap.
+ * <p>
+ * The CSR tables are immutable. Edges added after the bulk load go to small
+ * sorted per-user arrays that are copied on write, and deleted users are
+ * tombstoned. {@link #compact()} folds both back into fresh tables. Readers
+ * never lock; writers and compaction serialise on one monitor.
+ * User ids index the offset table directly, which suits auto-increment keys.
+ */
+public final class FollowGraph {
+
+    private static final int[] NONE = new int[0];
+
+    private final boolean offHeap;
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot;
+
+    private FollowGraph(Csr out, Csr in, boolean offHeap) {
+        this.offHeap = offHeap;
+        this.snapshot = new Snapshot(out, in);
+    }
+
+    public static Builder builder(int expectedEdges) {
+        return new Builder(expectedEdges);
+    }
+
+    public boolean follows(int follower, int followee) {
+        Snapshot s = snapshot;
+        if (s.isRemoved(follower) || s.isRemoved(followee)) {
+            return false;
+        }
+        return s.out.contains(follower, followee) || contains(s.addedOut.getOrDefault(follower, NONE), followee);
+    }
+
+    public int followingCount(int userId) {
+        Snapshot s = snapshot;
+        return s.isRemoved(userId) ? 0 : degree(s, s.out, s.addedOut, userId);
+    }
+
+    public int followerCount(int userId) {
+        Snapshot s = snapshot;
+        return s.isRemoved(userId) ? 0 : degree(s, s.in, s.addedIn, userId);
+    }
+
+    /** Accounts the user follows, in ascending id order. */
+    public int[] following(int userId) {
+        Snapshot s = snapshot;
+        return neighbours(s, s.out, s.addedOut, userId);
+    }
+
+    /** Accounts following the user, in ascending id order. */
+    public int[] followers(int userId) {
+        Snapshot s = snapshot;
+        return neighbours(s, s.in, s.addedIn, userId);
+    }
+
+    /** Accounts followed by both users. */
+    public int commonFollowingCount(int a, int b) {
+        Snapshot s = snapshot;
+        return intersect(s, s.out, s.addedOut, a, b, Integer.MAX_VALUE, id -> { });
+    }
+
+    /** Accounts following both users. */
+    public int commonFollowerCount(int a, int b) {
+        Snapshot s = snapshot;
+        return intersect(s, s.in, s.addedIn, a, b, Integer.MAX_VALUE, id -> { });
+    }
+
+    public int[] commonFollowers(int a, int b, int limit) {
+        Snapshot s = snapshot;
+        int[] result = new int[Math.max(0, Math.min(limit, Math.min(
+                degree(s, s.in, s.addedIn, a), degree(s, s.in, s.addedIn, b))))];
+        int[] size = new int[1];
+        intersect(s, s.in, s.addedIn, a, b, result.length, id -> result[size[0]++] = id);
+        return size[0] == result.length ? result : Arrays.copyOf(result, size[0]);
+    }
+
+    /** Up to {@code limit} users with the most followers, most followed first. */
+    public int[] mostFollowed(int limit) {
+        Snapshot s = snapshot;
+        if (limit <= 0) {
+            return NONE;
+        }
+        int maxId = s.in.maxId();
+        for (int id : s.addedIn.keySet()) {
+            maxId = Math.max(maxId, id);
+        }
+        // Min-heap of (degree, id) packed into a long, so the weakest of the current top sits at the head.
+        PriorityQueue<Long> top = new PriorityQueue<>(limit + 1);
+        for (int id = 0; id <= maxId; id++) {
+            int degree = degree(s, s.in, s.addedIn, id);
+            if (degree == 0) {
+                continue;
+            }
+            long entry = (long) degree << 32 | (Integer.MAX_VALUE - id);
+            if (top.size() < limit) {
+                top.add(entry);
+            } else if (entry > top.peek()) {
+                top.poll();
+                top.add(entry);
+            }
+        }
+        int[] result = new int[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = Integer.MAX_VALUE - (int) (top.poll() & 0xFFFFFFFFL);
+        }
+        return result;
+    }
+
+    public boolean addEdge(int follower, int followee) {
+        synchronized (writeLock) {
+            Snapshot s = snapshot;
+            if (follower == followee || s.isRemoved(follower) || s.isRemoved(followee) || follows(follower, followee)) {
+                return false;
+            }
+            s.addedOut.put(follower, insert(s.addedOut.getOrDefault(follower, NONE), followee));
+            s.addedIn.put(followee, insert(s.addedIn.getOrDefault(followee, NONE), follower));
+            s.addedEdges++;
+            return true;
+        }
+    }
+
+    public void removeUser(int userId) {
+        synchronized (writeLock) {
+            snapshot.removed.add(userId);
+        }
+    }
+
+    public long pendingChanges() {
+        Snapshot s = snapshot;
+        return s.addedEdges + s.removed.size();
+    }
+
+    public long edgeCount() {
+        Snapshot s = snapshot;
+        return s.out.edgeCount() + s.addedEdges;
+    }
+
+    /** Bytes held by the CSR tables plus an estimate for the not yet compacted overlay. */
+    public long memoryBytes() {
+        Snapshot s = snapshot;
+        long overlay = overlayBytes(s.addedOut) + overlayBytes(s.addedIn) + s.removed.size() * 48L;
+        return s.out.bytes() + s.in.bytes() + overlay;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    public void compact() {
+        synchronized (writeLock) {
+            Snapshot s = snapshot;
+            if (s.addedEdges == 0 && s.removed.isEmpty()) {
+                return;
+            }
+            snapshot = new Snapshot(merge(s, s.out, s.addedOut), merge(s, s.in, s.addedIn));
+        }
+    }
+
+    private Csr merge(Snapshot s, Csr base, Map<Integer, int[]> added) {
+        int maxId = base.maxId();
+        for (int id : added.keySet()) {
+            maxId = Math.max(maxId, id);
+        }
+        int[] offsets = new int[maxId + 2];
+        for (int id = 0; id <= maxId; id++) {
+            offsets[id + 1] = offsets[id] + degree(s, base, added, id);
+        }
+        int[] targets = new int[offsets[maxId + 1]];
+        for (int id = 0; id <= maxId; id++) {
+            int[] position = {offsets[id]};
+            forEachNeighbour(s, base, added, id, neighbour -> targets[position[0]++] = neighbour);
+        }
+        return new Csr(toBuffer(offsets, offHeap), toBuffer(targets, offHeap), maxId);
+    }
+
+    private static int degree(Snapshot s, Csr base, Map<Integer, int[]> added, int id) {
+        if (s.isRemoved(id)) {
+            return 0;
+        }
+        int[] extra = added.getOrDefault(id, NONE);
+        if (s.removed.isEmpty()) {
+            return base.degree(id) + extra.length;
+        }
+        int[] count = new int[1];
+        forEachNeighbour(s, base, added, id, neighbour -> count[0]++);
+        return count[0];
+    }
+
+    private static int[] neighbours(Snapshot s, Csr base, Map<Integer, int[]> added, int id) {
+        int[] result = new int[degree(s, base, added, id)];
+        int[] size = new int[1];
+        forEachNeighbour(s, base, added, id, neighbour -> {
+            // A concurrent follow may lengthen the overlay after the degree was taken.
+            if (size[0] < result.length) {
+                result[size[0]++] = neighbour;
+            }
+        });
+        return size[0] == result.length ? result : Arrays.copyOf(result, size[0]);
+    }
+
+    private static void forEachNeighbour(Snapshot s, Csr base, Map<Integer, int[]> added, int id, IntConsumer action) {
+        if (s.isRemoved(id)) {
+            return;
+        }
+        Cursor cursor = new Cursor(s, base, added.getOrDefault(id, NONE), id);
+        for (int neighbour = cursor.next(); neighbour >= 0; neighbour = cursor.next()) {
+            action.accept(neighbour);
+        }
+    }
+
+    /**
+     * Merges the two neighbour lists when their sizes are similar. When one is
+     * much shorter, its ids are binary searched in the other instead.
+     */
+    private static int intersect(Snapshot s, Csr base, Map<Integer, int[]> added, int a, int b, int limit,
+                                 IntConsumer action) {
+        if (limit <= 0 || s.isRemoved(a) || s.isRemoved(b)) {
+            return 0;
+        }
+        int[] extraA = added.getOrDefault(a, NONE);
+        int[] extraB = added.getOrDefault(b, NONE);
+        long sizeA = base.degree(a) + extraA.length;
+        long sizeB = base.degree(b) + extraB.length;
+        if (sizeA > sizeB) {
+            return intersect(s, base, added, b, a, limit, action);
+        }
+
+        int found = 0;
+        Cursor small = new Cursor(s, base, extraA, a);
+        if (sizeA * (64 - Long.numberOfLeadingZeros(sizeB)) < sizeA + sizeB) {
+            for (int id = small.next(); id >= 0 && found < limit; id = small.next()) {
+                if (base.contains(b, id) || contains(extraB, id)) {
+                    action.accept(id);
+                    found++;
+                }
+            }
+            return found;
+        }
+
+        Cursor large = new Cursor(s, base, extraB, b);
+        int x = small.next();
+        int y = large.next();
+        while (x >= 0 && y >= 0 && found < limit) {
+            if (x == y) {
+                action.accept(x);
+                found++;
+                x = small.next();
+                y = large.next();
+            } else if (x < y) {
+                x = small.next();
+            } else {
+                y = large.next();
+            }
+        }
+        return found;
+    }
+
+    private static boolean contains(int[] sorted, int value) {
+        return sorted.length > 0 && Arrays.binarySearch(sorted, value) >= 0;
+    }
+
+    private static int[] insert(int[] sorted, int value) {
+        int index = -Arrays.binarySearch(sorted, value) - 1;
+        int[] copy = new int[sorted.length + 1];
+        System.arraycopy(sorted, 0, copy, 0, index);
+        copy[index] = value;
+        System.arraycopy(sorted, index, copy, index + 1, sorted.length - index);
+        return copy;
+    }
+
+    private static long overlayBytes(Map<Integer, int[]> added) {
+        long bytes = 0;
+        for (int[] ids : added.values()) {
+            // map node + boxed key + array header, then the ids themselves
+            bytes += 32 + 16 + 16 + 4L * ids.length;
+        }
+        return bytes;
+    }
+
+    private static IntBuffer toBuffer(int[] values, boolean offHeap) {
+        if (!offHeap) {
+            return IntBuffer.wrap(values);
+        }
+        IntBuffer buffer = ByteBuffer.allocateDirect(Math.max(4, values.length * 4))
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer();
+        buffer.put(values).flip();
+        return buffer;
+    }
+
+    private static final class Snapshot {
+        private final Csr out;
+        private final Csr in;
+        private final Map<Integer, int[]> addedOut = new ConcurrentHashMap<>();
+        private final Map<Integer, int[]> addedIn = new ConcurrentHashMap<>();
+        private final Set<Integer> removed = ConcurrentHashMap.newKeySet();
+        private volatile long addedEdges;
+
+        private Snapshot(Csr out, Csr in) {
+            this.out = out;
+            this.in = in;
+        }
+
+        private boolean isRemoved(int id) {
+            return !removed.isEmpty() && removed.contains(id);
+        }
+    }
+
+    private record Csr(IntBuffer offsets, IntBuffer targets, int maxId) {
+
+        private int degree(int id) {
+            return id < 0 || id > maxId ? 0 : offsets.get(id + 1) - offsets.get(id);
+        }
+
+        private boolean contains(int id, int target) {
+            if (id < 0 || id > maxId) {
+                return false;
+            }
+            int low = offsets.get(id);
+            int high = offsets.get(id + 1) - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int value = targets.get(mid);
+                if (value < target) {
+                    low = mid + 1;
+                } else if (value > target) {
+                    high = mid - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private long edgeCount() {
+            return offsets.get(maxId + 1);
+        }
+
+        private long bytes() {
+            return 4L * offsets.capacity() + 4L * targets.capacity();
+        }
+    }
+
+    /** Walks one user's CSR run and overlay array in ascending order, skipping removed users. */
+    private static final class Cursor {
+        private final Snapshot snapshot;
+        private final IntBuffer targets;
+        private final int end;
+        private final int[] extra;
+        private int position;
+        private int extraPosition;
+
+        private Cursor(Snapshot snapshot, Csr base, int[] extra, int id) {
+            this.snapshot = snapshot;
+            this.targets = base.targets();
+            this.extra = extra;
+            boolean inRange = id >= 0 && id <= base.maxId();
+            this.position = inRange ? base.offsets().get(id) : 0;
+            this.end = inRange ? base.offsets().get(id + 1) : 0;
+        }
+
+        private int next() {
+            while (true) {
+                int value;
+                boolean fromBase = position < end;
+                boolean fromExtra = extraPosition < extra.length;
+                if (fromBase && (!fromExtra || targets.get(position) <= extra[extraPosition])) {
+                    value = targets.get(position++);
+                } else if (fromExtra) {
+                    value = extra[extraPosition++];
+                } else {
+                    return -1;
+                }
+                if (!snapshot.isRemoved(value)) {
+                    return value;
+                }
+            }
+        }
+    }
+
+    /** Collects edges from a bulk scan in primitive arrays and lays them out as CSR. */
+    public static final class Builder {
+        private int[] sources;
+        private int[] destinations;
+        private int size;
+
+        private Builder(int expectedEdges) {
+            this.sources = new int[Math.max(16, expectedEdges)];
+            this.destinations = new int[sources.length];
+        }
+
+        public Builder add(int follower, int followee) {
+            if (follower < 0 || followee < 0 || follower == followee) {
+                return this;
+            }
+            if (size == sources.length) {
+                int capacity = size + (size >> 1);
+                sources = Arrays.copyOf(sources, capacity);
+                destinations = Arrays.copyOf(destinations, capacity);
+            }
+            sources[size] = follower;
+            destinations[size] = followee;
+            size++;
+            return this;
+        }
+
+        public FollowGraph build(boolean offHeap) {
+            int maxId = 0;
+            for (int i = 0; i < size; i++) {
+                maxId = Math.max(maxId, Math.max(sources[i], destinations[i]));
+            }
+            Csr out = layout(sources, destinations, maxId, offHeap);
+            Csr in = layout(destinations, sources, maxId, offHeap);
+            sources = NONE;
+            destinations = NONE;
+            return new FollowGraph(out, in, offHeap);
+        }
+
+        private Csr layout(int[] from, int[] to, int maxId, boolean offHeap) {
+            int[] offsets = new int[maxId + 2];
+            for (int i = 0; i < size; i++) {
+                offsets[from[i] + 1]++;
+            }
+            for (int id = 0; id <= maxId; id++) {
+                offsets[id + 1] += offsets[id];
+            }
+            int[] targets = new int[size];
+            int[] fill = Arrays.copyOf(offsets, maxId + 1);
+            for (int i = 0; i < size; i++) {
+                targets[fill[from[i]]++] = to[i];
+            }
+
+            // Sort each run and squeeze out duplicate edges in place.
+            int write = 0;
+            for (int id = 0; id <= maxId; id++) {
+                int start = offsets[id];
+                int end = offsets[id + 1];
+                Arrays.sort(targets, start, end);
+                offsets[id] = write;
+                for (int i = start; i < end; i++) {
+                    if (i == start || targets[i] != targets[i - 1]) {
+                        targets[write++] = targets[i];
+                    }
+                }
+            }
+            offsets[maxId + 1] = write;
+            int[] compacted = write == targets.length ? targets : Arrays.copyOf(targets, write);
+            return new Csr(toBuffer(offsets, offHeap), toBuffer(compacted, offHeap), maxId);
+        }
+    }
+}
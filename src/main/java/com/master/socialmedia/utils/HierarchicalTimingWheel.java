@@ -0,0 +1,109 @@
+package com.master.socialmedia.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel of int ids with millisecond deadlines. Level 0
+ * has one bucket per tick; each higher level has buckets {@code wheelSize}
+ * times wider than the level below. An entry goes into the lowest level whose
+ * span covers its delay and is cascaded one level down when the clock reaches
+ * its bucket, so adding and expiring an entry are O(1) no matter how far out
+ * the deadline is. Entries beyond the top level wait in an overflow list that
+ * is re-placed every time the top level turns over.
+ * <p>
+ * Entries fire on the first tick at or after their deadline, never before.
+ */
+public class HierarchicalTimingWheel {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelTicks;
+    private final List<Entry>[][] buckets;
+    private final List<Entry> overflow = new ArrayList<>();
+    private final List<Entry> expired = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis < 1 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel geometry");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelTicks = new long[levels + 1];
+        levelTicks[0] = 1;
+        for (int level = 1; level <= levels; level++) {
+            levelTicks[level] = Math.multiplyExact(levelTicks[level - 1], wheelSize);
+        }
+        this.buckets = new List[levels][wheelSize];
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /** Schedules {@code id} to fire at {@code deadlineMillis}; past deadlines fire on the next advance. */
+    public synchronized void add(int id, long deadlineMillis) {
+        place(new Entry(id, deadlineMillis));
+        size++;
+    }
+
+    /** Moves the clock to {@code nowMillis} and returns the ids whose deadline has passed. */
+    public synchronized List<Entry> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            // Top down, so an entry cascaded into a bucket that turns over on the same tick moves on again.
+            if (currentTick % levelTicks[buckets.length] == 0 && !overflow.isEmpty()) {
+                List<Entry> waiting = new ArrayList<>(overflow);
+                overflow.clear();
+                waiting.forEach(this::place);
+            }
+            for (int level = buckets.length - 1; level >= 0; level--) {
+                if (currentTick % levelTicks[level] != 0) {
+                    continue;
+                }
+                int slot = (int) ((currentTick / levelTicks[level]) % wheelSize);
+                List<Entry> bucket = buckets[level][slot];
+                if (bucket != null) {
+                    buckets[level][slot] = null;
+                    bucket.forEach(this::place);
+                }
+            }
+        }
+        if (expired.isEmpty()) {
+            return List.of();
+        }
+        List<Entry> due = new ArrayList<>(expired);
+        expired.clear();
+        size -= due.size();
+        return due;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void place(Entry entry) {
+        // Rounded up, so an entry never fires before its deadline.
+        long deadlineTick = -Math.floorDiv(-entry.deadlineMillis(), tickMillis);
+        long delay = deadlineTick - currentTick;
+        if (delay <= 0) {
+            expired.add(entry);
+            return;
+        }
+        for (int level = 0; level < buckets.length; level++) {
+            if (delay < levelTicks[level + 1]) {
+                int slot = (int) ((deadlineTick / levelTicks[level]) % wheelSize);
+                if (buckets[level][slot] == null) {
+                    buckets[level][slot] = new ArrayList<>();
+                }
+                buckets[level][slot].add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    public record Entry(int id, long deadlineMillis) {
+    }
+}
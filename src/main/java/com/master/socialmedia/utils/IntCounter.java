@@ -0,0 +1,111 @@
+package com.master.socialmedia.utils;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Open-addressing map from non-negative int keys to int counts, so hot
+ * counting loops do not box every key. Not thread-safe; merge per-thread
+ * instances instead.
+ */
+public class IntCounter {
+
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] counts;
+    private int size;
+
+    public IntCounter(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedKeys * 2 - 1)) << 1;
+        keys = new int[capacity];
+        counts = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public void add(int key, int delta) {
+        int mask = keys.length - 1;
+        int slot = (int) HashUtil.mix64(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                counts[slot] = delta;
+                grow();
+                return;
+            }
+        }
+        counts[slot] += delta;
+    }
+
+    public int get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = (int) HashUtil.mix64(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return counts[slot];
+            }
+        }
+        return 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void merge(IntCounter other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.keys[slot] != EMPTY) {
+                add(other.keys[slot], other.counts[slot]);
+            }
+        }
+    }
+
+    /**
+     * Keys with the highest counts, ties broken by lower key, skipping keys the
+     * filter rejects. Returns {@code [keys, counts]} of equal length.
+     */
+    public int[][] top(int k, IntPredicate include) {
+        int[] topKeys = new int[Math.max(0, k)];
+        int[] topCounts = new int[topKeys.length];
+        int filled = 0;
+        for (int slot = 0; slot < keys.length && topKeys.length > 0; slot++) {
+            int key = keys[slot];
+            if (key == EMPTY || !include.test(key)) {
+                continue;
+            }
+            int count = counts[slot];
+            if (filled == topKeys.length && !ranksBefore(count, key, topCounts[filled - 1], topKeys[filled - 1])) {
+                continue;
+            }
+            int position = filled < topKeys.length ? filled++ : filled - 1;
+            while (position > 0 && ranksBefore(count, key, topCounts[position - 1], topKeys[position - 1])) {
+                topKeys[position] = topKeys[position - 1];
+                topCounts[position] = topCounts[position - 1];
+                position--;
+            }
+            topKeys[position] = key;
+            topCounts[position] = count;
+        }
+        return new int[][]{Arrays.copyOf(topKeys, filled), Arrays.copyOf(topCounts, filled)};
+    }
+
+    private static boolean ranksBefore(int count, int key, int otherCount, int otherKey) {
+        return count > otherCount || (count == otherCount && key < otherKey);
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new int[oldKeys.length * 2];
+        counts = new int[keys.length];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                add(oldKeys[slot], oldCounts[slot]);
+            }
+        }
+    }
+}
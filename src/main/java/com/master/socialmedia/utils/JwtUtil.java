@@ -10,16 +10,24 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
+    // iat only has whole seconds; this private claim keeps the issue time to the millisecond.
+    private static final String ISSUED_AT_MILLIS = "iat_ms";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
     @Value("${jwt.expiration}")
     private long jwtExpirationInMs;
 
+    public long getExpirationMillis() {
+        return jwtExpirationInMs;
+    }
+
     private SecretKey getSigningKey() {
         return Keys.hmacShaKeyFor(secretKey.getBytes());
     }
@@ -32,7 +40,7 @@ public class JwtUtil {
         return extractAllClaims(token).getExpiration();
     }
 
-    private Claims extractAllClaims(String token) {
+    public Claims extractAllClaims(String token) {
         return Jwts.parser()
                 .verifyWith(getSigningKey())
                 .build()
@@ -41,22 +49,39 @@ public class JwtUtil {
     }
 
 
+    /** Issue time in epoch millis, or the second-precision {@code iat} for tokens issued without the claim. */
+    public Long extractIssuedAtMillis(Claims claims) {
+        Long issuedAtMillis = claims.get(ISSUED_AT_MILLIS, Long.class);
+        if (issuedAtMillis != null) {
+            return issuedAtMillis;
+        }
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt == null ? null : issuedAt.getTime();
+    }
+
     private boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
 
     public String generateToken(String username) {
+        return generateToken(username, jwtExpirationInMs);
+    }
+
+    /** A token that expires after {@code expirationMillis} instead of the configured lifetime. */
+    public String generateToken(String username, long expirationMillis) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, username);
+        return createToken(claims, username, expirationMillis);
     }
 
-    private String createToken(Map<String, Object> claims, String subject) {
+    private String createToken(Map<String, Object> claims, String subject, long expirationMillis) {
         long now = System.currentTimeMillis();
         return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
+                .id(UUID.randomUUID().toString())
                 .issuedAt(new Date(now))
-                .expiration(new Date(now + jwtExpirationInMs))
+                .claim(ISSUED_AT_MILLIS, now)
+                .expiration(new Date(now + expirationMillis))
                 .signWith(getSigningKey())
                 .compact();
     }
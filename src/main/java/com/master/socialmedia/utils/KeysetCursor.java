@@ -0,0 +1,37 @@
+package com.master.socialmedia.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Opaque position in a list ordered by {@code (timestamp desc, id desc)}. Pages
+ * continue strictly after the last row returned, so rows inserted meanwhile
+ * neither shift nor repeat later pages.
+ */
+public record KeysetCursor(LocalDateTime before, long beforeId) {
+
+    private static final KeysetCursor FIRST = new KeysetCursor(LocalDateTime.of(9999, 1, 1, 0, 0), Long.MAX_VALUE);
+
+    /** Returns the first-page cursor for a null or blank value; throws IllegalArgumentException if malformed. */
+    public static KeysetCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return FIRST;
+        }
+        String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.US_ASCII).split(":");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        long micros = Long.parseLong(parts[0]);
+        LocalDateTime before = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+        return new KeysetCursor(before, Long.parseLong(parts[1]));
+    }
+
+    public static String encode(LocalDateTime at, long id) {
+        long micros = at.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + at.getNano() / 1_000;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((micros + ":" + id).getBytes(StandardCharsets.US_ASCII));
+    }
+}
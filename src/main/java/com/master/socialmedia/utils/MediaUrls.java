@@ -0,0 +1,45 @@
+package com.master.socialmedia.utils;
+
+import com.master.socialmedia.enums.MediaRendition;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Posts store uploaded media as {@code /api/media/{id}}; readers are handed the
+ * rendition that fits where the post is shown. Any other URL is passed through.
+ */
+public final class MediaUrls {
+
+    public static final String MEDIA_PATH = "/api/media/";
+
+    private static final Pattern REFERENCE = Pattern.compile("^/api/media/([0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12})$");
+
+    private MediaUrls() {
+    }
+
+    public static String reference(String mediaId) {
+        return MEDIA_PATH + mediaId;
+    }
+
+    public static Optional<String> mediaId(String url) {
+        if (url == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = REFERENCE.matcher(url);
+        return matcher.matches() ? Optional.of(matcher.group(1)) : Optional.empty();
+    }
+
+    public static String feedUrl(String url) {
+        return mediaId(url).map(id -> rendition(id, MediaRendition.FEED)).orElse(url);
+    }
+
+    public static String thumbnailUrl(String url) {
+        return mediaId(url).map(id -> rendition(id, MediaRendition.THUMBNAIL)).orElse(null);
+    }
+
+    private static String rendition(String mediaId, MediaRendition rendition) {
+        return reference(mediaId) + "/" + rendition.getPathSegment();
+    }
+}
@@ -0,0 +1,84 @@
+package com.master.socialmedia.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Collapses concurrent loads of the same key into one in-flight call.
+ * Waiting callers park on a future rather than a monitor, so virtual threads are not pinned.
+ * A caller that waits longer than the timeout stops waiting and loads the key itself.
+ * Collapsed callers each get their own copy of the leader's value, so no caller sees another's changes.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+    private final UnaryOperator<V> copy;
+    private final Counter leaders;
+    private final Counter collapsed;
+    private final Counter timeouts;
+
+    public SingleFlight(String name, long timeoutMillis, MeterRegistry meterRegistry, UnaryOperator<V> copy) {
+        this.timeoutMillis = timeoutMillis;
+        this.copy = copy;
+        this.leaders = meterRegistry.counter("singleflight.calls", "name", name, "result", "leader");
+        this.collapsed = meterRegistry.counter("singleflight.calls", "name", name, "result", "collapsed");
+        this.timeouts = meterRegistry.counter("singleflight.calls", "name", name, "result", "timeout");
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+
+        if (existing != null) {
+            collapsed.increment();
+            return await(existing, loader);
+        }
+
+        leaders.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> call, Supplier<V> loader) {
+        try {
+            V value = call.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return value != null ? copy.apply(value) : null;
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an in-flight load", e);
+        }
+    }
+}
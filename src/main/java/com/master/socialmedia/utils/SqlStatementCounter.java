@@ -0,0 +1,75 @@
+package com.master.socialmedia.utils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the SQL statements executed while a request scope is bound to the
+ * current thread. Counting happens at the JDBC layer, on a wrapped
+ * {@link DataSource}, so Hibernate and {@code JdbcTemplate} paths are counted
+ * alike; a batch counts once per {@code executeBatch}.
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<AtomicInteger> SCOPE = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static AtomicInteger current() {
+        return SCOPE.get();
+    }
+
+    public static void bind(AtomicInteger scope) {
+        SCOPE.set(scope);
+    }
+
+    public static void unbind() {
+        SCOPE.remove();
+    }
+
+    /** Wraps {@code dataSource} so statements executed through its connections are counted. */
+    public static DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (target instanceof Statement && name.startsWith("execute")) {
+                AtomicInteger scope = SCOPE.get();
+                if (scope != null) {
+                    scope.incrementAndGet();
+                }
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Connection connection && "getConnection".equals(name)) {
+                return proxy(Connection.class, connection);
+            }
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, statement);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, statement);
+            }
+            if (result instanceof Statement statement && "createStatement".equals(name)) {
+                return proxy(Statement.class, statement);
+            }
+            return result;
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,126 @@
+package com.master.socialmedia.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.master.socialmedia.config.WebConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Writes a list response as a top-level array one element at a time, so the whole
+ * result never has to be materialised. The wire format follows the Accept header
+ * the same way the registered message converters do (JSON, Smile or CBOR).
+ */
+@Component
+public class StreamingResponseWriter {
+
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private static final MediaType CBOR = MediaType.valueOf("application/cbor");
+    private static final List<MediaType> FORMATS = List.of(MediaType.APPLICATION_JSON, SMILE, CBOR);
+
+    private final ObjectWriter jsonWriter;
+    private final ObjectWriter smileWriter;
+    private final ObjectWriter cborWriter;
+    private final int flushEvery;
+
+    public StreamingResponseWriter(ObjectMapper objectMapper,
+                                   ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder,
+                                   @Value("${streaming.flush-every:100}") int flushEvery) {
+        this.jsonWriter = writerFor(objectMapper);
+        this.smileWriter = writerFor(objectMapperBuilder.getObject().factory(WebConfig.smileFactory()).build());
+        this.cborWriter = writerFor(objectMapperBuilder.getObject().factory(new CBORFactory()).build());
+        this.flushEvery = Math.max(1, flushEvery);
+    }
+
+    public <T> ResponseEntity<StreamingResponseBody> stream(String accept, ResponseEntity.BodyBuilder response,
+                                                            Consumer<Consumer<T>> source) {
+        MediaType mediaType = negotiate(accept);
+        ObjectWriter writer = mediaType.equals(SMILE) ? smileWriter
+                : mediaType.equals(CBOR) ? cborWriter : jsonWriter;
+
+        AtomicInteger statementScope = SqlStatementCounter.current();
+        StreamingResponseBody body = out -> {
+            SqlStatementCounter.bind(statementScope);
+            try (JsonGenerator generator = writer.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartArray();
+                int[] written = {0};
+                source.accept(item -> {
+                    try {
+                        writer.writeValue(generator, item);
+                        if (++written[0] % flushEvery == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            } finally {
+                SqlStatementCounter.unbind();
+            }
+        };
+        return response.contentType(mediaType).body(body);
+    }
+
+    private static ObjectWriter writerFor(ObjectMapper mapper) {
+        return mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Picks the format with the highest quality. A format's quality comes from the
+     * most specific range that includes it, so {@code application/json;q=0} rules
+     * JSON out even when a wildcard range also matches. Ties go to the range listed first.
+     */
+    static MediaType negotiate(String accept) {
+        if (accept == null) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        MediaType best = null;
+        double bestQuality = 0;
+        int bestPosition = Integer.MAX_VALUE;
+        for (MediaType format : FORMATS) {
+            MediaType range = mostSpecificRange(accepted, format);
+            if (range == null || range.getQualityValue() <= 0) {
+                continue;
+            }
+            int position = accepted.indexOf(range);
+            if (range.getQualityValue() > bestQuality
+                    || (range.getQualityValue() == bestQuality && position < bestPosition)) {
+                best = format;
+                bestQuality = range.getQualityValue();
+                bestPosition = position;
+            }
+        }
+        return best != null ? best : MediaType.APPLICATION_JSON;
+    }
+
+    private static MediaType mostSpecificRange(List<MediaType> accepted, MediaType format) {
+        MediaType match = null;
+        for (MediaType range : accepted) {
+            if (range.includes(format) && (match == null || specificity(range) > specificity(match))) {
+                match = range;
+            }
+        }
+        return match;
+    }
+
+    private static int specificity(MediaType range) {
+        return range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+    }
+}
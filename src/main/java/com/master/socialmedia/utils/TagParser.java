@@ -0,0 +1,62 @@
+package com.master.socialmedia.utils;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Pulls #hashtags and @mentions out of captions. Tags are lower-cased and kept
+ * with their sigil, so "#Java" and "@Alice" index as "#java" and "@alice".
+ * A sigil only starts a tag at the beginning of the text or after a character
+ * that cannot be part of one, which keeps e-mail addresses out.
+ */
+public final class TagParser {
+
+    public static final char HASHTAG = '#';
+    public static final char MENTION = '@';
+    public static final int MAX_LENGTH = 50;
+    public static final int MAX_TAGS = 30;
+
+    private TagParser() {
+    }
+
+    public static Set<String> parse(String text) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (text == null) {
+            return tags;
+        }
+        int length = text.length();
+        for (int i = 0; i < length && tags.size() < MAX_TAGS; i++) {
+            char sigil = text.charAt(i);
+            if ((sigil != HASHTAG && sigil != MENTION) || (i > 0 && isTagChar(text.charAt(i - 1)))) {
+                continue;
+            }
+            int end = i + 1;
+            while (end < length && isTagChar(text.charAt(end))) {
+                end++;
+            }
+            int size = end - i - 1;
+            if (size > 0 && size <= MAX_LENGTH) {
+                tags.add(sigil + text.substring(i + 1, end).toLowerCase(Locale.ROOT));
+            }
+            i = end - 1;
+        }
+        return tags;
+    }
+
+    /** Normalizes a tag taken from a URL, with or without its sigil; returns null if it is not a valid tag. */
+    public static String normalize(char sigil, String value) {
+        if (value == null) {
+            return null;
+        }
+        String name = !value.isEmpty() && value.charAt(0) == sigil ? value.substring(1) : value;
+        if (name.isEmpty() || name.length() > MAX_LENGTH || !name.chars().allMatch(c -> isTagChar((char) c))) {
+            return null;
+        }
+        return sigil + name.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isTagChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
@@ -0,0 +1,64 @@
+package com.master.socialmedia.utils;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent set of keys that each carry an expiry time, partitioned into
+ * buckets of {@code bucketMillis} by that expiry. A key is looked up with the
+ * expiry it was added with, so a lookup is one bucket probe plus one hash
+ * probe, and expired keys are dropped a whole bucket at a time without
+ * scanning the live ones.
+ */
+public class TimePartitionedSet<K> {
+
+    private final long bucketMillis;
+    private final Map<Long, Set<K>> buckets = new ConcurrentHashMap<>();
+
+    public TimePartitionedSet(long bucketMillis) {
+        if (bucketMillis < 1) {
+            throw new IllegalArgumentException("Bucket width must be positive");
+        }
+        this.bucketMillis = bucketMillis;
+    }
+
+    /** Adds {@code key} until {@code expiresAtMillis}; keys that have already expired are not added. */
+    public boolean add(K key, long expiresAtMillis, long nowMillis) {
+        if (expiresAtMillis <= nowMillis) {
+            return false;
+        }
+        return buckets.computeIfAbsent(bucketOf(expiresAtMillis), bucket -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    public boolean contains(K key, long expiresAtMillis) {
+        Set<K> bucket = buckets.get(bucketOf(expiresAtMillis));
+        return bucket != null && bucket.contains(key);
+    }
+
+    /** Drops every bucket whose keys have all expired by {@code nowMillis}; returns the number of keys dropped. */
+    public int prune(long nowMillis) {
+        int dropped = 0;
+        for (Iterator<Map.Entry<Long, Set<K>>> it = buckets.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Long, Set<K>> bucket = it.next();
+            if ((bucket.getKey() + 1) * bucketMillis <= nowMillis) {
+                it.remove();
+                dropped += bucket.getValue().size();
+            }
+        }
+        return dropped;
+    }
+
+    public int size() {
+        return buckets.values().stream().mapToInt(Set::size).sum();
+    }
+
+    public int bucketCount() {
+        return buckets.size();
+    }
+
+    private long bucketOf(long expiresAtMillis) {
+        return Math.floorDiv(expiresAtMillis, bucketMillis);
+    }
+}
@@ -0,0 +1,49 @@
+package com.master.socialmedia.utils;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TokenBucket {
+
+    private final long capacity;
+    private final double refillPerNano;
+    private final AtomicReference<State> state;
+
+    public TokenBucket(long capacity, double refillPerSecond) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, System.nanoTime()));
+    }
+
+    public boolean tryConsume() {
+        while (true) {
+            State current = state.get();
+            long now = System.nanoTime();
+            double tokens = refill(current, now);
+            if (tokens < 1) {
+                return false;
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, now))) {
+                return true;
+            }
+        }
+    }
+
+    public long nanosUntilNextToken() {
+        double tokens = refill(state.get(), System.nanoTime());
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / refillPerNano);
+    }
+
+    public boolean isFull() {
+        return refill(state.get(), System.nanoTime()) >= capacity;
+    }
+
+    private double refill(State current, long now) {
+        return Math.min(capacity, current.tokens + (now - current.timestampNanos) * refillPerNano);
+    }
+
+    private record State(double tokens, long timestampNanos) {
+    }
+}
@@ -0,0 +1,16 @@
+-- Follow graph changes, written in the same transaction as the change itself
+-- so every instance can apply follows and deletions made on the others to its
+-- in-memory graph. A FOLLOW row is the edge follower_id -> followee_id; a
+-- REMOVE_USER row carries the deleted user in follower_id. Instances reload
+-- user_followings at start-up, so rows are only kept for the sync window.
+create table follow_edge_log (
+    id bigint not null auto_increment,
+    change_type varchar(16) not null,
+    follower_id integer not null,
+    followee_id integer,
+    logged_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+-- Catching up with other instances: logged_at >= ?; pruning: logged_at < ?
+create index idx_follow_edge_log_logged on follow_edge_log (logged_at);
@@ -0,0 +1,27 @@
+-- Schema added while ddl-auto=update still managed the tables: unique-viewer
+-- sketches, soft-deleted users and user versions. A database baselined at V1
+-- may have been created by any of those builds, so each change is skipped
+-- when it is already there.
+
+create table if not exists post_reach (
+    author_id integer not null,
+    post_id integer not null,
+    updated_at datetime(6),
+    sketch varbinary(4096) not null,
+    primary key (post_id),
+    key idx_post_reach_author (author_id)
+) engine=InnoDB;
+
+set @ddl = if((select count(*) from information_schema.columns where table_schema = database()
+                  and table_name = 'user_table' and column_name = 'is_deleted') = 0,
+    'alter table user_table add column is_deleted bit default false not null', 'do 0');
+prepare add_column from @ddl;
+execute add_column;
+deallocate prepare add_column;
+
+set @ddl = if((select count(*) from information_schema.columns where table_schema = database()
+                  and table_name = 'user_table' and column_name = 'version') = 0,
+    'alter table user_table add column version bigint default 0 not null', 'do 0');
+prepare add_column from @ddl;
+execute add_column;
+deallocate prepare add_column;
@@ -0,0 +1,73 @@
+-- Schema as previously produced by ddl-auto=update. Existing databases are
+-- baselined at this version and skip this script.
+
+create table user_table (
+    id integer not null auto_increment,
+    user_name varchar(20) not null,
+    email varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    password varchar(255) not null,
+    gender enum ('FEMALE','MALE','OTHER'),
+    primary key (id)
+) engine=InnoDB;
+
+create table post_table (
+    id integer not null auto_increment,
+    is_deleted bit,
+    is_reported bit,
+    report_count integer not null,
+    user_id integer not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    caption varchar(255),
+    image_url varchar(255),
+    location varchar(255),
+    video_url varchar(255),
+    status enum ('ARCHIVED','DELETED','FRIENDS_ONLY','PRIVATE','PUBLIC'),
+    primary key (id)
+) engine=InnoDB;
+
+create table comment_table (
+    post_id integer,
+    user_id integer,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    text TEXT,
+    primary key (id)
+) engine=InnoDB;
+
+create table post_likes (
+    post_id integer not null,
+    user_id integer not null,
+    primary key (post_id, user_id)
+) engine=InnoDB;
+
+create table post_saves (
+    post_id integer not null,
+    user_id integer not null,
+    primary key (post_id, user_id)
+) engine=InnoDB;
+
+create table user_followers (
+    followers integer,
+    user_id integer not null
+) engine=InnoDB;
+
+create table user_followings (
+    followings integer,
+    user_id integer not null
+) engine=InnoDB;
+
+alter table user_table add constraint uk_user_username unique (user_name);
+alter table user_table add constraint uk_user_email unique (email);
+
+alter table comment_table add constraint FKjftvy6rlb867yye3dx0vbirfg foreign key (post_id) references post_table (id);
+alter table comment_table add constraint FKsml60a9lgrwo534aco8w7wjli foreign key (user_id) references user_table (id);
+alter table post_likes add constraint FKrtcywhfbiub624y7ietby88mv foreign key (user_id) references user_table (id);
+alter table post_likes add constraint FKjjuun9rhipwwg4dhrliwglx5j foreign key (post_id) references post_table (id);
+alter table post_saves add constraint FK1xty0ogdq21jtxqwh49qdxfmm foreign key (user_id) references user_table (id);
+alter table post_saves add constraint FKecvy0own984l3e786v610jpx7 foreign key (post_id) references post_table (id);
+alter table post_table add constraint FKnxit8m8kbx9tlrd41u8toq7s5 foreign key (user_id) references user_table (id);
+alter table user_followers add constraint FKgbc1iyt3dax3kwjhx5eylvdwq foreign key (user_id) references user_table (id);
+alter table user_followings add constraint FKsu2j70uw6e6jfo5dqb6s2d0sq foreign key (user_id) references user_table (id);
@@ -0,0 +1,23 @@
+-- Public feed, trending refresh and feed ETag: status = ? [and created_at >= ?]
+create index idx_post_status_created on post_table (status, created_at, id);
+
+-- Profile pages, visibility checks and per-user ETag: user_id = ? and status = / in / <> ?
+create index idx_post_user_status_created on post_table (user_id, status, created_at);
+
+-- Purge job: is_deleted = true limit ?
+create index idx_post_deleted on post_table (is_deleted, id);
+create index idx_user_deleted on user_table (is_deleted, id);
+
+-- Post.comments loads and purge by post; comment activity for trending
+create index idx_comment_post_created on comment_table (post_id, created_at);
+create index idx_comment_created on comment_table (created_at);
+
+-- Saved/liked posts of a user
+create index idx_post_likes_user on post_likes (user_id, post_id);
+create index idx_post_saves_user on post_saves (user_id, post_id);
+
+-- Follow edges by owner (element collection loads, export keyset) and by the other side (purge)
+create index idx_user_followers_user on user_followers (user_id, followers);
+create index idx_user_followers_follower on user_followers (followers);
+create index idx_user_followings_user on user_followings (user_id, followings);
+create index idx_user_followings_following on user_followings (followings);
@@ -0,0 +1,19 @@
+-- Uploaded images and videos. Files live in the media store under the asset id;
+-- posts reference an asset through image_url / video_url = /api/media/{id}.
+create table media_asset (
+    id varchar(36) not null,
+    owner_id integer not null,
+    kind enum ('IMAGE','VIDEO') not null,
+    content_type varchar(100) not null,
+    size_bytes bigint not null,
+    state enum ('FAILED','PROCESSING','READY','UPLOADING') not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+-- Purge job: owner_id = ?
+create index idx_media_owner on media_asset (owner_id);
+
+-- Requeue of stalled renditions and expiry of abandoned uploads: state = ? and updated_at < ?
+create index idx_media_state_updated on media_asset (state, updated_at);
@@ -0,0 +1,31 @@
+-- Aggregated notifications: likes, comments and follows for the same recipient and
+-- target collapse into one row while it is unread. unread is NULL once read, so the
+-- unique key only constrains the open group and later events start a new row.
+create table notification (
+    id bigint not null auto_increment,
+    recipient_id integer not null,
+    type enum ('COMMENT','FOLLOW','LIKE') not null,
+    target_id integer not null,
+    unread bit,
+    actor_count integer not null,
+    last_actor_id integer not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+-- Batched upserts: recipient_id = ? and type = ? and target_id = ? and unread = 1
+create unique index uk_notification_open_group on notification (recipient_id, type, target_id, unread);
+
+-- Inbox pages: recipient_id = ? and (updated_at, id) < (?, ?) order by updated_at desc, id desc
+create index idx_notification_inbox on notification (recipient_id, updated_at, id);
+
+-- Unread counter refresh and mark-all-read: recipient_id = ? and unread = 1
+create index idx_notification_unread on notification (recipient_id, unread);
+
+-- Unread groups per recipient, kept current by the writers so the badge is a key lookup.
+create table notification_unread (
+    recipient_id integer not null,
+    unread_count integer not null,
+    primary key (recipient_id)
+) engine=InnoDB;
@@ -0,0 +1,18 @@
+-- Hashtags and mentions of publicly visible posts, kept in step with the post
+-- write path. tag carries its sigil: '#java' for hashtags, '@alice' for mentions.
+create table post_tag (
+    tag varchar(64) not null,
+    post_id integer not null,
+    created_at datetime(6) not null,
+    primary key (post_id, tag)
+) engine=InnoDB;
+
+-- Tag feeds: tag = ? and (created_at, post_id) < (?, ?) order by created_at desc, post_id desc
+create index idx_post_tag_feed on post_tag (tag, created_at, post_id);
+
+-- Posts per tag, adjusted by the same writes that add and remove post_tag rows.
+create table tag_count (
+    tag varchar(64) not null,
+    post_count integer not null,
+    primary key (tag)
+) engine=InnoDB;
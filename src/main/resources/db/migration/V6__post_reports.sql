@@ -0,0 +1,38 @@
+-- Posts taken out of public view by moderation until a moderator reviews them.
+alter table post_table modify status enum ('ARCHIVED','DELETED','FRIENDS_ONLY','PRIVATE','PUBLIC','HIDDEN');
+
+-- One row per reporter and post. Reports are only ever appended here; the
+-- aggregator folds pending rows into post_table.report_count and
+-- moderation_queue in batches, so reports never contend with likes on the
+-- post row.
+create table post_report (
+    id bigint not null auto_increment,
+    post_id integer not null,
+    reporter_id integer not null,
+    reason varchar(32) not null,
+    created_at datetime(6) not null,
+    aggregated bit not null default false,
+    primary key (id),
+    unique key uk_post_report_reporter (post_id, reporter_id)
+) engine=InnoDB;
+
+-- Aggregator: aggregated = false order by id
+create index idx_post_report_pending on post_report (aggregated, id);
+
+-- Purge of deleted users
+create index idx_post_report_reporter on post_report (reporter_id);
+
+-- Posts awaiting review. velocity_key is the natural log of the reports'
+-- forward-decayed weight, so ordering by it ranks posts by recent report rate
+-- without rewriting rows as time passes.
+create table moderation_queue (
+    post_id integer not null,
+    report_count integer not null,
+    velocity_key double not null,
+    first_reported_at datetime(6) not null,
+    last_reported_at datetime(6) not null,
+    primary key (post_id)
+) engine=InnoDB;
+
+-- Moderation queue: (velocity_key, post_id) < (?, ?) order by velocity_key desc, post_id desc
+create index idx_moderation_queue_velocity on moderation_queue (velocity_key, post_id);
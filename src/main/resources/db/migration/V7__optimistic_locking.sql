@@ -0,0 +1,29 @@
+-- Optimistic locking for posts, matching user_table.version. Bulk writers that
+-- change what an entity save would write back bump it as well.
+alter table post_table add column version bigint not null default 0;
+
+-- Follow edges are written row by row outside the version check, so the
+-- tables themselves must reject a duplicate edge from two concurrent follows.
+-- Rebuilt rather than altered in place to drop duplicates already present.
+create table user_followers_dedup (
+    followers integer,
+    user_id integer not null,
+    unique key uk_user_followers (user_id, followers),
+    key idx_user_followers_follower (followers)
+) engine=InnoDB;
+insert ignore into user_followers_dedup (followers, user_id) select followers, user_id from user_followers;
+drop table user_followers;
+rename table user_followers_dedup to user_followers;
+
+create table user_followings_dedup (
+    followings integer,
+    user_id integer not null,
+    unique key uk_user_followings (user_id, followings),
+    key idx_user_followings_following (followings)
+) engine=InnoDB;
+insert ignore into user_followings_dedup (followings, user_id) select followings, user_id from user_followings;
+drop table user_followings;
+rename table user_followings_dedup to user_followings;
+
+alter table user_followers add constraint FKgbc1iyt3dax3kwjhx5eylvdwq foreign key (user_id) references user_table (id);
+alter table user_followings add constraint FKsu2j70uw6e6jfo5dqb6s2d0sq foreign key (user_id) references user_table (id);
@@ -0,0 +1,12 @@
+-- Posts written now but published later.
+alter table post_table modify status enum ('ARCHIVED','DELETED','FRIENDS_ONLY','PRIVATE','PUBLIC','HIDDEN','SCHEDULED');
+
+-- archive_at: when a story leaves public view. due_at: when the scheduler
+-- next has to act on the post, i.e. its publish time while SCHEDULED and its
+-- archive_at once visible. Null when nothing is pending.
+alter table post_table
+    add column archive_at datetime(6),
+    add column due_at datetime(6);
+
+-- Scheduler start-up and horizon loads: status = ? and due_at >= ? and due_at < ?
+create index idx_post_status_due on post_table (status, due_at);
@@ -0,0 +1,18 @@
+-- Revoked JWTs, kept until the tokens would have expired anyway. A TOKEN row
+-- revokes one token by its jti; a USER row revokes every token of user_name
+-- issued at or before revoked_at. The running instances hold all live rows in
+-- memory, so nothing reads this table on the authentication path.
+create table token_revocation (
+    scope varchar(8) not null,
+    token_key varchar(255) not null,
+    user_name varchar(255) not null,
+    revoked_at datetime(6) not null,
+    expires_at datetime(6) not null,
+    primary key (scope, token_key)
+) engine=InnoDB;
+
+-- Start-up load and pruning: expires_at > ? / expires_at <= ?
+create index idx_token_revocation_expires on token_revocation (expires_at);
+
+-- Catching up with other instances: revoked_at >= ?
+create index idx_token_revocation_revoked on token_revocation (revoked_at);
@@ -0,0 +1,377 @@
+package com.master.socialmedia.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.master.socialmedia.annotation.QueryBudget;
+import com.master.socialmedia.service.ModerationService;
+import com.master.socialmedia.service.NotificationService;
+import com.master.socialmedia.service.ViewTrackingService;
+import com.master.socialmedia.support.SqlBudget;
+import com.master.socialmedia.support.TestData;
+import com.master.socialmedia.utils.JwtUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Seeds an author whose posts fan out to many comments, likes, saves and
+ * followers, then calls the read and interaction endpoints and fails when any
+ * of them issues more SQL statements than its {@link QueryBudget}. Budgets do
+ * not grow with the data, so an N+1 regression trips them.
+ */
+@SpringBootTest(properties = "admin.usernames=qbudget_admin")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointQueryBudgetTest {
+
+    private static final String PREFIX = "qbudget_";
+    private static final int FANS = 12;
+    private static final int POSTS = 25;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private ModerationService moderationService;
+
+    @Autowired
+    private ViewTrackingService viewTrackingService;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    private Integer authorId;
+    private Integer viewerId;
+    private Integer adminId;
+    private List<Integer> postIds;
+    private String authorToken;
+    private String viewerToken;
+    private String adminToken;
+
+    @BeforeAll
+    void seed() {
+        cleanUp();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<String> userNames = new ArrayList<>();
+        for (String name : List.of("author", "viewer", "admin", "leaver")) {
+            userNames.add(PREFIX + name);
+        }
+        for (int i = 0; i < FANS; i++) {
+            userNames.add(PREFIX + "fan" + i);
+        }
+        Map<String, Integer> ids = TestData.insertUsers(jdbcTemplate, "budget.test", userNames);
+        authorId = ids.get(PREFIX + "author");
+        viewerId = ids.get(PREFIX + "viewer");
+        adminId = ids.get(PREFIX + "admin");
+        List<Integer> fanIds = ids.entrySet().stream()
+                .filter(e -> e.getKey().startsWith(PREFIX + "fan"))
+                .map(Map.Entry::getValue)
+                .toList();
+
+        List<Object[]> posts = new ArrayList<>();
+        for (int p = 0; p < POSTS; p++) {
+            Timestamp createdAt = Timestamp.valueOf(now.minusMinutes(p));
+            posts.add(new Object[]{authorId, PREFIX + "post " + p, p % 5 == 0 ? "FRIENDS_ONLY" : "PUBLIC", createdAt, createdAt});
+        }
+        jdbcTemplate.batchUpdate("insert into post_table (user_id, caption, status, created_at, updated_at, is_deleted, " +
+                "is_reported, report_count) values (?, ?, ?, ?, ?, false, false, 0)", posts);
+        postIds = jdbcTemplate.queryForList("select id from post_table where user_id = ? order by id", Integer.class,
+                authorId);
+
+        List<Object[]> comments = new ArrayList<>();
+        List<Object[]> reactions = new ArrayList<>();
+        List<Object[]> saves = new ArrayList<>();
+        for (Integer postId : postIds) {
+            for (Integer fanId : fanIds) {
+                comments.add(new Object[]{postId, fanId, Timestamp.valueOf(now)});
+                reactions.add(new Object[]{postId, fanId});
+            }
+            saves.add(new Object[]{postId, viewerId});
+        }
+        jdbcTemplate.batchUpdate("insert into comment_table (post_id, user_id, text, created_at) values (?, ?, 'c', ?)",
+                comments);
+        jdbcTemplate.batchUpdate("insert into post_likes (post_id, user_id) values (?, ?)", reactions);
+        jdbcTemplate.batchUpdate("insert into post_saves (post_id, user_id) values (?, ?)", reactions);
+        jdbcTemplate.batchUpdate("insert into post_saves (post_id, user_id) values (?, ?)", saves);
+
+        List<Object[]> followers = new ArrayList<>();
+        List<Object[]> followings = new ArrayList<>();
+        for (Integer fanId : fanIds) {
+            followers.add(new Object[]{authorId, fanId});
+            followings.add(new Object[]{fanId, authorId});
+        }
+        followers.add(new Object[]{authorId, viewerId});
+        followings.add(new Object[]{viewerId, authorId});
+        jdbcTemplate.batchUpdate("insert into user_followers (user_id, followers) values (?, ?)", followers);
+        jdbcTemplate.batchUpdate("insert into user_followings (user_id, followings) values (?, ?)", followings);
+
+        authorToken = jwtUtil.generateToken(PREFIX + "author");
+        viewerToken = jwtUtil.generateToken(PREFIX + "viewer");
+        adminToken = jwtUtil.generateToken(PREFIX + "admin");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        TestData.clear(jdbcTemplate, notificationService, viewTrackingService);
+    }
+
+    @Test
+    void everyHandlerDeclaresAQueryBudget() {
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMapping.getHandlerMethods().entrySet()) {
+            HandlerMethod handler = entry.getValue();
+            if (handler.getBeanType().getPackageName().startsWith("com.master.socialmedia")
+                    && !handler.hasMethodAnnotation(QueryBudget.class)) {
+                missing.add(entry.getKey().toString());
+            }
+        }
+        assertTrue(missing.isEmpty(), "Handlers without @QueryBudget: " + missing);
+    }
+
+    @Test
+    void readEndpointsStayWithinBudget() throws Exception {
+        Integer postId = postIds.get(1);
+        String idList = postIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        call(get("/api/posts"), authorToken);
+        call(get("/api/posts/public-post/normalized"), viewerToken);
+        call(get("/api/posts/trending"), viewerToken);
+        call(get("/api/posts/user/{userId}", authorId), viewerToken);
+        call(get("/api/posts/{postId}", postId), viewerToken);
+        call(get("/api/posts/batch").param("ids", idList), viewerToken);
+        call(get("/api/posts/counts").param("ids", idList), viewerToken);
+        call(get("/api/posts/reach/{postId}", postId), viewerToken);
+        call(get("/api/posts/comments/{postId}", postId), viewerToken);
+        call(get("/api/posts/saved-posts"), viewerToken);
+        call(get("/api/posts/likes/count/{postId}", postId), viewerToken);
+        call(get("/api/posts/comments/count/{postId}", postId), viewerToken);
+        call(get("/api/posts/viewable/{ownerId}", authorId).param("viewerId", viewerId.toString()), viewerToken);
+
+        call(get("/api/users/me"), authorToken);
+        call(get("/api/users/{userId}", authorId), viewerToken);
+        call(get("/api/users/{userId}/reach", authorId), viewerToken);
+        call(get("/api/users/batch").param("ids", authorId + "," + viewerId), viewerToken);
+        call(get("/api/users/by-email").param("email", PREFIX + "author@budget.test"), viewerToken);
+        call(get("/api/users/search").param("query", PREFIX), viewerToken);
+        call(get("/api/users/{userId}/follows/{targetId}", viewerId, authorId), viewerToken);
+        call(get("/api/users/{userId}/relation/{otherUserId}", viewerId, authorId), viewerToken);
+        call(get("/api/users/{userId}/common-followers/{otherUserId}", authorId, viewerId), viewerToken);
+        call(get("/api/users/recommendations"), viewerToken);
+        call(get("/api/notifications"), authorToken);
+        call(get("/api/notifications/unread-count"), authorToken);
+
+        call(get("/api/public/health-check"), null);
+        call(get("/api/public/username-available").param("userName", PREFIX + "author"), null);
+        call(get("/api/public/email-available").param("email", PREFIX + "nobody@budget.test"), null);
+    }
+
+    @Test
+    void streamedEndpointsStayWithinBudget() throws Exception {
+        stream(get("/api/posts/public-post"), viewerToken);
+        stream(get("/api/posts/search").param("keyword", PREFIX + "post"), viewerToken);
+        stream(get("/api/users"), viewerToken);
+
+        // The event stream stays open; only the subscribing request is measured.
+        MvcResult counts = mockMvc.perform(authorized(get("/api/posts/counts/stream")
+                .param("postIds", postIds.get(0).toString()), viewerToken)).andReturn();
+        SqlBudget.assertWithinBudget(counts);
+    }
+
+    @Test
+    void interactionEndpointsStayWithinBudget() throws Exception {
+        Integer postId = postIds.get(2);
+
+        call(post("/api/posts/like/{postId}", postId), viewerToken);
+        call(post("/api/posts/like/{postId}", postId), viewerToken);
+        call(post("/api/posts/save/{postId}", postId), viewerToken);
+        call(post("/api/posts/comment/{postId}", postId).param("commentText", "nice"), viewerToken);
+        call(put("/api/users/follow/{userId2}", adminId), viewerToken);
+        call(put("/api/users/follow/{userId2}", adminId), viewerToken);
+
+        notificationService.flush();
+        MvcResult inbox = call(get("/api/notifications"), authorToken);
+        assertEquals(2, (Integer) JsonPath.read(inbox.getResponse().getContentAsString(), "$.unreadCount"));
+        Integer notificationId = JsonPath.read(inbox.getResponse().getContentAsString(), "$.notifications[0].id");
+        call(post("/api/notifications/{notificationId}/read", notificationId), authorToken);
+        call(post("/api/notifications/read"), authorToken);
+
+        MvcResult created = call(post("/api/posts/create").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"caption\":\"" + PREFIX + "fresh #" + PREFIX + "tag @" + PREFIX + "viewer\",\"status\":\"PUBLIC\"}"), authorToken);
+        Integer createdId = JsonPath.read(created.getResponse().getContentAsString(), "$.id");
+        call(put("/api/posts/update/{postId}", createdId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"caption\":\"" + PREFIX + "edited #" + PREFIX + "tag #" + PREFIX + "other\"}"), authorToken);
+        MvcResult tagPage = call(get("/api/posts/tag/{tag}", PREFIX + "tag"), viewerToken);
+        assertEquals(createdId, (Integer) JsonPath.read(tagPage.getResponse().getContentAsString(), "$.posts[0].id"));
+        assertEquals(1, (Integer) JsonPath.read(tagPage.getResponse().getContentAsString(), "$.postCount"));
+        call(get("/api/posts/tag/{tag}/count", PREFIX + "other"), viewerToken);
+        call(get("/api/posts/mentions/{username}", PREFIX + "viewer"), viewerToken);
+        call(put("/api/posts/status/{postId}", createdId).param("userId", authorId.toString())
+                .param("status", "ARCHIVED"), authorToken);
+        call(delete("/api/posts/delete/{postId}", createdId), authorToken);
+    }
+
+    @Test
+    void actuatorIsOnlyOpenToAdministratorsBeyondHealth() throws Exception {
+        assertEquals(200, mockMvc.perform(get("/actuator/health")).andReturn().getResponse().getStatus());
+        assertEquals(403, mockMvc.perform(authorized(get("/actuator/metrics"), null)).andReturn().getResponse().getStatus());
+        assertEquals(403, mockMvc.perform(authorized(get("/actuator/metrics"), viewerToken)).andReturn().getResponse()
+                .getStatus());
+        assertEquals(200, mockMvc.perform(authorized(get("/actuator/metrics"), adminToken)).andReturn().getResponse()
+                .getStatus());
+    }
+
+    @Test
+    void accountEndpointsStayWithinBudget() throws Exception {
+        String userName = PREFIX + "joiner";
+        call(post("/api/public/signup").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userName\":\"" + userName + "\",\"email\":\"" + userName + "@budget.test\","
+                        + "\"password\":\"Budg3t!Pass\",\"firstName\":\"Budget\",\"lastName\":\"User\",\"gender\":\"OTHER\"}"), null, 201);
+        MvcResult signedIn = call(post("/api/public/login").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userName\":\"" + userName + "\",\"password\":\"Budg3t!Pass\"}"), null);
+        String token = signedIn.getResponse().getContentAsString();
+        call(put("/api/users").contentType(MediaType.APPLICATION_JSON).content("{\"firstName\":\"Joiner\"}"), token);
+        Integer userId = jdbcTemplate.queryForObject("select id from user_table where user_name = ?", Integer.class,
+                userName);
+        call(delete("/api/users/{userId}", userId), token);
+    }
+
+    @Test
+    void mediaEndpointsStayWithinBudget() throws Exception {
+        MvcResult created = call(post("/api/media/uploads").param("contentType", "video/mp4").param("size", "4"),
+                authorToken, 201);
+        String uploadUrl = JsonPath.read(created.getResponse().getContentAsString(), "$.uploadUrl");
+        String completeUrl = JsonPath.read(created.getResponse().getContentAsString(), "$.completeUrl");
+        String mediaId = JsonPath.read(created.getResponse().getContentAsString(), "$.mediaId");
+
+        call(put(uploadUrl).contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes 0-3/4").content(new byte[]{0, 1, 2, 3}), null);
+        call(post(completeUrl), null);
+        stream(get("/api/media/{mediaId}", mediaId), null);
+        stream(get("/api/media/{mediaId}/{rendition}", mediaId, "feed"), null);
+    }
+
+    @Test
+    void exportEndpointsStayWithinBudget() throws Exception {
+        MvcResult started = call(post("/api/admin/exports"), adminToken, 202);
+        String exportId = JsonPath.read(started.getResponse().getContentAsString(), "$.exportId");
+        String state;
+        do {
+            Thread.sleep(50);
+            MvcResult status = call(get("/api/admin/exports/{exportId}", exportId), adminToken);
+            state = JsonPath.read(status.getResponse().getContentAsString(), "$.state");
+        } while (!"COMPLETED".equals(state) && !"FAILED".equals(state));
+        assertEquals("COMPLETED", state);
+        call(post("/api/admin/exports/{exportId}/resume", exportId), adminToken, 202);
+    }
+
+    @Test
+    void moderationEndpointsStayWithinBudget() throws Exception {
+        Integer reportedId = postIds.get(6);
+        Integer removedId = postIds.get(7);
+
+        for (int i = 0; i < FANS; i++) {
+            call(post("/api/posts/report/{postId}", reportedId).param("reason", "SPAM"),
+                    jwtUtil.generateToken(PREFIX + "fan" + i));
+        }
+        call(post("/api/posts/report/{postId}", removedId), viewerToken);
+        call(post("/api/posts/report/{postId}", removedId), viewerToken);
+
+        assertEquals(FANS + 1, moderationService.aggregateReports());
+        assertEquals("HIDDEN", jdbcTemplate.queryForObject("select status from post_table where id = ?",
+                String.class, reportedId));
+
+        MvcResult queue = call(get("/api/admin/moderation"), adminToken);
+        assertEquals(reportedId, (Integer) JsonPath.read(queue.getResponse().getContentAsString(), "$.items[0].postId"));
+        assertEquals(FANS, (Integer) JsonPath.read(queue.getResponse().getContentAsString(), "$.items[0].reportCount"));
+
+        call(post("/api/admin/moderation/{postId}/dismiss", reportedId), adminToken);
+        assertEquals("PUBLIC", jdbcTemplate.queryForObject("select status from post_table where id = ?",
+                String.class, reportedId));
+        call(post("/api/admin/moderation/{postId}/remove", removedId), adminToken);
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from moderation_queue where post_id in (?, ?)",
+                Integer.class, reportedId, removedId));
+    }
+
+    @Test
+    void logoutEndpointsStayWithinBudgetAndRevokeTokens() throws Exception {
+        String session = jwtUtil.generateToken(PREFIX + "leaver");
+        String otherSession = jwtUtil.generateToken(PREFIX + "leaver");
+
+        call(post("/api/users/logout"), session);
+        assertEquals(403, mockMvc.perform(authorized(get("/api/users/me"), session)).andReturn()
+                .getResponse().getStatus());
+        call(get("/api/users/me"), otherSession);
+
+        call(post("/api/users/logout-all"), otherSession);
+        assertEquals(403, mockMvc.perform(authorized(get("/api/users/me"), otherSession)).andReturn()
+                .getResponse().getStatus());
+        assertEquals(2, jdbcTemplate.queryForObject("select count(*) from token_revocation where user_name = ?",
+                Integer.class, PREFIX + "leaver"));
+
+        // Signing in again straight away, usually within the same second as the cutoff, is not revoked.
+        Thread.sleep(2);
+        call(get("/api/users/me"), jwtUtil.generateToken(PREFIX + "leaver"));
+    }
+
+    private MvcResult call(MockHttpServletRequestBuilder request, String token) throws Exception {
+        return call(request, token, 200);
+    }
+
+    private MvcResult call(MockHttpServletRequestBuilder request, String token, int status) throws Exception {
+        MvcResult result = mockMvc.perform(authorized(request, token)).andReturn();
+        assertEquals(status, result.getResponse().getStatus(), result.getRequest().getRequestURI() + " "
+                + result.getResponse().getContentAsString());
+        SqlBudget.assertWithinBudget(result);
+        return result;
+    }
+
+    private void stream(MockHttpServletRequestBuilder request, String token) throws Exception {
+        MvcResult started = mockMvc.perform(authorized(request, token)).andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started)).andReturn();
+        assertEquals(200, result.getResponse().getStatus(), result.getRequest().getRequestURI());
+        SqlBudget.assertWithinBudget(result);
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request, String token) {
+        return token == null ? request : request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+}
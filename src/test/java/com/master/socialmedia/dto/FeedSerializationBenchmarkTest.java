@@ -0,0 +1,94 @@
+package com.master.socialmedia.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.master.socialmedia.config.WebConfig;
+import com.master.socialmedia.enums.Gender;
+import com.master.socialmedia.enums.PostStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeedSerializationBenchmarkTest {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int AUTHORS = 8;
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 5_000;
+
+    @Test
+    void binaryAndNormalizedEncodingsAreSmallerThanPlainJsonAndDecodeToTheSameTree() throws Exception {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        List<PostDTO> page = feedPage();
+        FeedPageDTO normalized = FeedPageDTO.of(page);
+        int baseline = json.writeValueAsBytes(page).length;
+
+        for (Map.Entry<String, ObjectMapper> encoding : encodings().entrySet()) {
+            ObjectMapper mapper = encoding.getValue();
+            if (!encoding.getKey().equals("json")) {
+                byte[] encoded = mapper.writeValueAsBytes(page);
+                assertTrue(encoded.length < baseline, encoding.getKey() + " should be smaller than plain JSON");
+                assertEquals(json.valueToTree(page), mapper.readTree(encoded), encoding.getKey() + " round trip");
+            }
+            byte[] encoded = mapper.writeValueAsBytes(normalized);
+            assertTrue(encoded.length < baseline, encoding.getKey() + "-normalized should be smaller than plain JSON");
+            assertEquals(json.valueToTree(normalized), mapper.readTree(encoded), encoding.getKey() + "-normalized round trip");
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void encodesAFeedPageWellUnderAMillisecond() throws Exception {
+        List<PostDTO> page = feedPage();
+        FeedPageDTO normalized = FeedPageDTO.of(page);
+        for (Map.Entry<String, ObjectMapper> encoding : encodings().entrySet()) {
+            double nanos = nanosPerPage(encoding.getValue(), page);
+            assertTrue(nanos < 1_000_000, encoding.getKey() + " took " + nanos / 1_000 + " us per page");
+            nanos = nanosPerPage(encoding.getValue(), normalized);
+            assertTrue(nanos < 1_000_000, encoding.getKey() + "-normalized took " + nanos / 1_000 + " us per page");
+        }
+    }
+
+    private static Map<String, ObjectMapper> encodings() {
+        Map<String, ObjectMapper> encodings = new LinkedHashMap<>();
+        encodings.put("json", Jackson2ObjectMapperBuilder.json().build());
+        encodings.put("smile", Jackson2ObjectMapperBuilder.json().factory(WebConfig.smileFactory()).build());
+        encodings.put("cbor", Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build());
+        return encodings;
+    }
+
+    private static double nanosPerPage(ObjectMapper mapper, Object page) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            mapper.writeValueAsBytes(page);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(page);
+        }
+        return (System.nanoTime() - start) / (double) ITERATIONS;
+    }
+
+    private static List<PostDTO> feedPage() {
+        List<UserDTO> authors = new ArrayList<>();
+        for (int i = 0; i < AUTHORS; i++) {
+            authors.add(new UserDTO(i + 1, "First" + i, "Last" + i, "user_" + i, "user" + i + "@example.com",
+                    Gender.values()[i % Gender.values().length], 1_000 + i, 200 + i));
+        }
+        List<PostDTO> posts = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            posts.add(new PostDTO(i + 1, "Caption for post number " + i + " #feed", "https://cdn.example.com/img/" + i + ".jpg",
+                    null, null, now.minusMinutes(i), "Berlin", PostStatus.PUBLIC, authors.get(i % AUTHORS), i * 3, i, i * 2));
+        }
+        return posts;
+    }
+}
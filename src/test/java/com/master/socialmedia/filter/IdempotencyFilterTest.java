@@ -0,0 +1,112 @@
+package com.master.socialmedia.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.master.socialmedia.utils.ErrorResponseWriter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IdempotencyFilterTest {
+
+    private final AtomicInteger handled = new AtomicInteger();
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        filter = new IdempotencyFilter(new ErrorResponseWriter(objectMapper));
+        ReflectionTestUtils.setField(filter, "maxEntries", 100);
+        ReflectionTestUtils.setField(filter, "ttlMs", 60_000L);
+        ReflectionTestUtils.invokeMethod(filter, "init");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void replaysTheStoredResponseForTheSameKeyAndBody() throws Exception {
+        MockHttpServletResponse first = send("key-1", "{\"content\":\"hello\"}", created());
+        MockHttpServletResponse second = send("key-1", "{\"content\":\"hello\"}", created());
+
+        assertEquals(1, handled.get());
+        assertEquals(201, second.getStatus());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals("true", second.getHeader("Idempotent-Replayed"));
+        assertNull(first.getHeader("Idempotent-Replayed"));
+    }
+
+    @Test
+    void rejectsTheSameKeyWithADifferentBody() throws Exception {
+        send("key-1", "{\"content\":\"hello\"}", created());
+        MockHttpServletResponse reused = send("key-1", "{\"content\":\"bye\"}", created());
+
+        assertEquals(1, handled.get());
+        assertEquals(422, reused.getStatus());
+    }
+
+    @Test
+    void rejectsTheSameKeyWhileTheFirstRequestIsStillRunning() throws Exception {
+        MockHttpServletResponse[] concurrent = new MockHttpServletResponse[1];
+        send("key-1", "{}", (request, response) -> {
+            concurrent[0] = send("key-1", "{}", created());
+            created().doFilter(request, response);
+        });
+
+        assertEquals(409, concurrent[0].getStatus());
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    void runsTheRequestAgainWhenTheFirstAttemptFailed() throws Exception {
+        send("key-1", "{}", (request, response) -> {
+            request.getInputStream().readAllBytes();
+            ((HttpServletResponse) response).setStatus(500);
+        });
+        MockHttpServletResponse retried = send("key-1", "{}", created());
+
+        assertEquals(201, retried.getStatus());
+        assertEquals(1, handled.get());
+    }
+
+    private FilterChain created() {
+        return (request, response) -> {
+            String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            ((HttpServletResponse) response).setStatus(201);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"id\":" + handled.incrementAndGet() + ",\"echo\":" + body + "}");
+        };
+    }
+
+    private MockHttpServletResponse send(String key, String body, FilterChain chain)
+            throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/posts/create");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
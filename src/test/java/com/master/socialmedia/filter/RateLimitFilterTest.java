@@ -0,0 +1,76 @@
+package com.master.socialmedia.filter;
+
+import com.master.socialmedia.utils.ErrorResponseWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RateLimitFilter(new ErrorResponseWriter(Jackson2ObjectMapperBuilder.json().build()));
+        ReflectionTestUtils.setField(filter, "capacity", 3L);
+        ReflectionTestUtils.setField(filter, "refillPerSecond", 0.5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void allowsABurstPerUserAndEndpointThenAsksToRetry() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, send("alice", "POST", "/api/posts/like/" + i).getStatus());
+        }
+        MockHttpServletResponse limited = send("alice", "POST", "/api/posts/like/9");
+        assertEquals(429, limited.getStatus());
+        // One token every two seconds.
+        assertEquals("2", limited.getHeader(HttpHeaders.RETRY_AFTER));
+
+        assertEquals(200, send("alice", "POST", "/api/posts/comment/9").getStatus());
+        assertEquals(200, send("bob", "POST", "/api/posts/like/9").getStatus());
+        assertEquals(200, send("alice", "GET", "/api/posts/like/9").getStatus());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dropsOnlyBucketsThatHaveRefilled() throws Exception {
+        send("alice", "POST", "/api/posts/create");
+        ReflectionTestUtils.setField(filter, "refillPerSecond", 1_000_000.0);
+        send("bob", "POST", "/api/posts/create");
+        Thread.sleep(5);
+
+        filter.evictIdleBuckets();
+
+        Map<String, ?> buckets = (Map<String, ?>) ReflectionTestUtils.getField(filter, "buckets");
+        assertEquals(1, buckets.size());
+        assertTrue(buckets.containsKey("alice:/api/posts/create"));
+    }
+
+    private MockHttpServletResponse send(String user, String method, String path) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> { });
+        return response;
+    }
+}
@@ -0,0 +1,367 @@
+package com.master.socialmedia.repository;
+
+import com.master.socialmedia.entity.Post;
+import com.master.socialmedia.entity.User;
+import com.master.socialmedia.enums.MediaState;
+import com.master.socialmedia.enums.PostStatus;
+import com.master.socialmedia.service.FollowGraphService;
+import com.master.socialmedia.service.ModerationService;
+import com.master.socialmedia.service.NotificationService;
+import com.master.socialmedia.service.PostSchedulerService;
+import com.master.socialmedia.service.PostTagService;
+import com.master.socialmedia.service.TokenRevocationService;
+import com.master.socialmedia.service.ViewTrackingService;
+import com.master.socialmedia.support.TestData;
+import com.master.socialmedia.utils.TagParser;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seeds a few thousand rows, runs every selective repository query path while
+ * recording the SQL and bind values Hibernate sends to the driver, then
+ * replays each statement through EXPLAIN and fails on any full table or
+ * full index scan.
+ * Whole-table reads (exports, findAll, the full public feed stream and
+ * leading-wildcard searches) are not selective and are left out on purpose.
+ */
+@SpringBootTest(properties = "admin.usernames=qplan_0")
+@Import(RepositoryQueryPlanTest.RecordingConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryQueryPlanTest {
+
+    private static final String PREFIX = "qplan_";
+    private static final int USERS = 200;
+    private static final int POSTS_PER_USER = 20;
+    private static final long MAX_SCANNED_ROWS = 50;
+    private static final Set<String> FULL_SCAN_TYPES = Set.of("ALL", "index");
+
+    private static final List<RecordedQuery> RECORDED = new CopyOnWriteArrayList<>();
+    private static volatile Thread recordingThread;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private PostReachRepository postReachRepository;
+
+    @Autowired
+    private MediaAssetRepository mediaAssetRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private PostTagService postTagService;
+
+    @Autowired
+    private ModerationService moderationService;
+
+    @Autowired
+    private PostSchedulerService postSchedulerService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private ViewTrackingService viewTrackingService;
+
+    private List<Integer> userIds;
+    private List<Integer> postIds;
+
+    @BeforeAll
+    void seed() {
+        cleanUp();
+        LocalDateTime now = LocalDateTime.now();
+        PostStatus[] statuses = PostStatus.values();
+
+        List<String> userNames = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            userNames.add(PREFIX + i);
+        }
+        userIds = new ArrayList<>(TestData.insertUsers(jdbcTemplate, "plan.test", userNames).values());
+
+        List<Object[]> posts = new ArrayList<>();
+        for (int u = 0; u < userIds.size(); u++) {
+            for (int p = 0; p < POSTS_PER_USER; p++) {
+                Timestamp createdAt = Timestamp.valueOf(now.minusHours((long) u * POSTS_PER_USER + p));
+                PostStatus status = statuses[(u + p) % statuses.length];
+                // Scheduled posts publish over the next days; a few public stories are already due to be archived.
+                Timestamp dueAt = status == PostStatus.SCHEDULED
+                        ? Timestamp.valueOf(now.plusMinutes((long) u * POSTS_PER_USER + p))
+                        : status == PostStatus.PUBLIC && (u + p) % 50 == 0 ? Timestamp.valueOf(now.minusMinutes(1)) : null;
+                posts.add(new Object[]{userIds.get(u), PREFIX + "post " + p, status.name(), createdAt, createdAt,
+                        (u + p) % 97 == 0, dueAt, dueAt});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into post_table (user_id, caption, status, created_at, updated_at, is_deleted, " +
+                "is_reported, report_count, archive_at, due_at) values (?, ?, ?, ?, ?, ?, false, 0, ?, ?)", posts);
+        postIds = jdbcTemplate.queryForList("select p.id from post_table p join user_table u on u.id = p.user_id " +
+                "where u.user_name like 'qplan\\_%' order by p.id", Integer.class);
+
+        List<Object[]> comments = new ArrayList<>();
+        List<Object[]> reactions = new ArrayList<>();
+        for (int i = 0; i < postIds.size(); i++) {
+            Integer postId = postIds.get(i);
+            for (int k = 1; k <= 3; k++) {
+                Integer userId = userIds.get((i + k) % userIds.size());
+                comments.add(new Object[]{postId, userId, Timestamp.valueOf(now.minusMinutes(i))});
+                reactions.add(new Object[]{postId, userId});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into comment_table (post_id, user_id, text, created_at) values (?, ?, 'c', ?)",
+                comments);
+        jdbcTemplate.batchUpdate("insert into post_likes (post_id, user_id) values (?, ?)", reactions);
+        jdbcTemplate.batchUpdate("insert into post_saves (post_id, user_id) values (?, ?)", reactions);
+
+        List<Object[]> edges = new ArrayList<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            for (int k = 1; k <= 5; k++) {
+                edges.add(new Object[]{userIds.get(i), userIds.get((i + k) % userIds.size())});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into user_followers (user_id, followers) values (?, ?)", edges);
+        jdbcTemplate.batchUpdate("insert into user_followings (user_id, followings) values (?, ?)", edges);
+
+        List<Object[]> reach = new ArrayList<>();
+        for (int i = 0; i < postIds.size(); i++) {
+            reach.add(new Object[]{postIds.get(i), userIds.get(i / POSTS_PER_USER)});
+        }
+        jdbcTemplate.batchUpdate("insert into post_reach (post_id, author_id, sketch, updated_at) values (?, ?, x'00', now())",
+                reach);
+
+        List<Object[]> tags = new ArrayList<>();
+        for (int i = 0; i < postIds.size(); i++) {
+            tags.add(new Object[]{"#" + PREFIX + (i % 40), postIds.get(i), Timestamp.valueOf(now.minusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("insert into post_tag (tag, post_id, created_at) values (?, ?, ?)", tags);
+
+        List<Object[]> notifications = new ArrayList<>();
+        for (int i = 0; i < postIds.size(); i++) {
+            Timestamp at = Timestamp.valueOf(now.minusMinutes(i));
+            notifications.add(new Object[]{userIds.get(i / POSTS_PER_USER), postIds.get(i),
+                    userIds.get((i + 1) % userIds.size()), at, at});
+        }
+        jdbcTemplate.batchUpdate("insert into notification (recipient_id, type, target_id, unread, actor_count, " +
+                "last_actor_id, created_at, updated_at) values (?, 'LIKE', ?, true, 1, ?, ?, ?)", notifications);
+
+        List<Object[]> reports = new ArrayList<>();
+        List<Object[]> queue = new ArrayList<>();
+        for (int i = 0; i < postIds.size(); i += 4) {
+            Timestamp at = Timestamp.valueOf(now.minusMinutes(i));
+            for (int k = 1; k <= 3; k++) {
+                reports.add(new Object[]{postIds.get(i), userIds.get((i + k) % userIds.size()), at, i % 400 != 0});
+            }
+            queue.add(new Object[]{postIds.get(i), (double) i, at, at});
+        }
+        jdbcTemplate.batchUpdate("insert into post_report (post_id, reporter_id, reason, created_at, aggregated) " +
+                "values (?, ?, 'SPAM', ?, ?)", reports);
+        jdbcTemplate.batchUpdate("insert into moderation_queue (post_id, report_count, velocity_key, first_reported_at, " +
+                "last_reported_at) values (?, 3, ?, ?, ?)", queue);
+
+        for (String table : List.of("user_table", "post_table", "comment_table", "post_likes", "post_saves",
+                "user_followers", "user_followings", "post_reach", "post_tag", "notification", "post_report",
+                "moderation_queue")) {
+            jdbcTemplate.queryForList("analyze table " + table);
+        }
+    }
+
+    @AfterAll
+    void cleanUp() {
+        TestData.clear(jdbcTemplate, notificationService, viewTrackingService);
+    }
+
+    @Test
+    void selectiveRepositoryQueriesAvoidFullTableScans() {
+        RECORDED.clear();
+        recordingThread = Thread.currentThread();
+        try {
+            transactionTemplate.executeWithoutResult(status -> runQueryPaths());
+        } finally {
+            recordingThread = null;
+        }
+
+        List<String> fullScans = new ArrayList<>();
+        int explained = 0;
+        for (RecordedQuery query : RECORDED) {
+            if (!query.sql().stripLeading().toLowerCase().startsWith("select")) {
+                continue;
+            }
+            explained++;
+            jdbcTemplate.query("explain " + query.sql(), ps -> {
+                for (Map.Entry<Integer, Object> param : query.params().entrySet()) {
+                    ps.setObject(param.getKey(), param.getValue());
+                }
+            }, rs -> {
+                // Const lookups that find no row report no access type at all.
+                String type = rs.getString("type");
+                if (type != null && FULL_SCAN_TYPES.contains(type) && rs.getLong("rows") > MAX_SCANNED_ROWS) {
+                    fullScans.add(rs.getString("table") + " (" + rs.getLong("rows") + " rows): " + query.sql());
+                }
+            });
+        }
+
+        assertTrue(explained > 20, "Expected the query paths to issue selects, recorded " + explained);
+        assertTrue(fullScans.isEmpty(), "Full table scans:\n" + String.join("\n", fullScans));
+    }
+
+    private void runQueryPaths() {
+        Integer userId = userIds.get(USERS / 2);
+        Integer postId = postIds.get(postIds.size() / 2);
+        List<Integer> somePosts = postIds.subList(0, 20);
+        LocalDateTime since = LocalDateTime.now().minusHours(6);
+        User user = userRepository.findById(userId).orElseThrow();
+
+        userRepository.findByUserName(PREFIX + 7);
+        userRepository.findByEmail(PREFIX + 7 + "@plan.test");
+        userRepository.existsByUserName(PREFIX + 8);
+        userRepository.existsByEmail(PREFIX + 8 + "@plan.test");
+        userRepository.findUserDTOsByIdIn(userIds.subList(0, 10));
+        userRepository.findVersionById(userId);
+        userRepository.findVersionByUserName(PREFIX + 9);
+        userRepository.findIdByUserName(PREFIX + 9);
+        userRepository.findTombstonedIds(10);
+        userRepository.countTombstoned();
+        userRepository.countFollowEdges(userId, userIds.get(USERS / 2 + 1));
+        userRepository.findFollowedAmong(userId, userIds.subList(0, 20));
+
+        postRepository.findByStatus(PostStatus.ARCHIVED);
+        postRepository.findByUser_Id(userId);
+        postRepository.findByUser(user);
+        postRepository.findByUser_IdAndStatusNot(userId, PostStatus.DELETED);
+        postRepository.findByUser_IdAndStatusIn(userId, List.of(PostStatus.PUBLIC, PostStatus.FRIENDS_ONLY));
+        postRepository.findByUserIdAndStatus(userId, PostStatus.PUBLIC);
+        postRepository.findRowsByUserId(userId);
+        postRepository.findRowsByUserIdAndStatus(userId, PostStatus.PUBLIC);
+        postRepository.findRowsByUserIdAndStatusNot(userId, PostStatus.DELETED);
+        postRepository.findRowsByUserIdAndStatusIn(userId, List.of(PostStatus.PUBLIC, PostStatus.FRIENDS_ONLY));
+        postRepository.findSavedRowsByUserId(userId);
+        postRepository.findEngagementSince(PostStatus.PUBLIC, since);
+        postRepository.findSummariesByIdIn(somePosts, PostStatus.PUBLIC);
+        postRepository.findCountsByIdIn(somePosts, PostStatus.PUBLIC);
+        postRepository.findCountsById(postId);
+        postRepository.findVersionById(postId, PostStatus.PUBLIC);
+        postRepository.findListVersionByUserId(userId, PostStatus.PUBLIC);
+        postRepository.findTombstonedIds(10);
+        postRepository.countTombstoned();
+        postRepository.countIncludingTombstonedByUserId(userId);
+
+        Post post = postRepository.findById(postId).orElseThrow();
+        post.getComments().size();
+        post.getLikedBy().size();
+        post.getSavedBy().size();
+
+        commentRepository.findActivitySince(since);
+        commentRepository.findTextsByPostId(postId);
+        postReachRepository.findByAuthorId(userId);
+        mediaAssetRepository.findIdsByOwnerId(userId, PageRequest.of(0, 10));
+        mediaAssetRepository.findTop100ByStateAndUpdatedAtBefore(MediaState.PROCESSING, since);
+        notificationRepository.findInboxPage(userId, LocalDateTime.now(), Long.MAX_VALUE, 20);
+        notificationRepository.findUnreadCount(userId);
+        postRepository.findRowsByIdInAndStatus(somePosts, PostStatus.PUBLIC);
+        postRepository.findRecentIdsByStatus(PostStatus.PUBLIC, 50);
+        postTagService.getTagPage(TagParser.HASHTAG, PREFIX + 3, null, 20);
+        // The first queue page walks the velocity index from the top and stops at the limit, which EXPLAIN
+        // cannot show; a keyset page exercises the same index as a range.
+        String queueCursor = Base64.getUrlEncoder().encodeToString(("100.0:" + Integer.MAX_VALUE).getBytes());
+        moderationService.getQueue(new UsernamePasswordAuthenticationToken(PREFIX + 0, null, List.of()), queueCursor, 20);
+        moderationService.aggregateReports();
+        postSchedulerService.rebuild();
+        postSchedulerService.extendHorizon();
+        postSchedulerService.applyDueTransitions();
+        tokenRevocationService.syncRevocations();
+        followGraphService.syncChanges();
+    }
+
+    private record RecordedQuery(String sql, Map<Integer, Object> params) {
+    }
+
+    @TestConfiguration
+    static class RecordingConfig {
+
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? wrap(DataSource.class, dataSource, null) : bean;
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T wrap(Class<T> type, Object target, String sql) {
+            Map<Integer, Object> params = new TreeMap<>();
+            InvocationHandler handler = (proxy, method, args) -> {
+                String name = method.getName();
+                if (sql != null && name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    params.put(index, "setNull".equals(name) ? null : args[1]);
+                }
+                if (sql != null && name.startsWith("execute") && Thread.currentThread() == recordingThread) {
+                    RECORDED.add(new RecordedQuery(sql, new TreeMap<>(params)));
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Connection connection && "getConnection".equals(name)) {
+                    return wrap(Connection.class, connection, null);
+                }
+                if (result instanceof PreparedStatement statement && "prepareStatement".equals(name)) {
+                    return wrap(PreparedStatement.class, statement, (String) args[0]);
+                }
+                return result;
+            };
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.entity.Post;
+import com.master.socialmedia.service.FollowGraphService;
+import com.master.socialmedia.service.NotificationService;
+import com.master.socialmedia.service.PostService;
+import com.master.socialmedia.service.UserService;
+import com.master.socialmedia.service.ViewTrackingService;
+import com.master.socialmedia.support.TestData;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Has many users like one post and follow its author at the same moment while
+ * the author keeps editing the post, so every write contends for the same
+ * post and user rows. Each request must commit, and every like and follow
+ * must be in the database and the follow graph afterwards.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConcurrentWriteStressTest {
+
+    private static final String PREFIX = "qstress_";
+    private static final int FANS = 16;
+    private static final int EDITS = 4;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private ViewTrackingService viewTrackingService;
+
+    private Integer authorId;
+    private Integer postId;
+
+    @BeforeAll
+    void seed() {
+        cleanUp();
+        List<String> userNames = new ArrayList<>();
+        userNames.add(PREFIX + "author");
+        for (int i = 0; i < FANS; i++) {
+            userNames.add(PREFIX + "fan" + i);
+        }
+        authorId = TestData.insertUsers(jdbcTemplate, "stress.test", userNames).get(PREFIX + "author");
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("insert into post_table (user_id, caption, status, created_at, updated_at, is_deleted, " +
+                "is_reported, report_count) values (?, 'stress', 'PUBLIC', ?, ?, false, false, 0)", authorId, now, now);
+        postId = jdbcTemplate.queryForObject("select id from post_table where user_id = ?", Integer.class, authorId);
+    }
+
+    @AfterAll
+    void cleanUp() {
+        TestData.clear(jdbcTemplate, notificationService, viewTrackingService);
+    }
+
+    @Test
+    void concurrentLikesFollowsAndEditsAreNotLost() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int i = 0; i < FANS; i++) {
+            Authentication fan = authenticated(PREFIX + "fan" + i);
+            tasks.add(() -> {
+                start.await();
+                postService.toggleLikePost(postId, fan);
+                return userService.followUser(fan, authorId);
+            });
+        }
+        Authentication author = authenticated(PREFIX + "author");
+        for (int i = 0; i < EDITS; i++) {
+            Post edit = new Post();
+            edit.setCaption("stress edit " + i);
+            tasks.add(() -> {
+                start.await();
+                return postService.updatePost(postId, edit, author);
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<Object>> results = tasks.stream().map(pool::submit).toList();
+            start.countDown();
+            for (Future<Object> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(FANS, jdbcTemplate.queryForObject("select count(*) from post_likes where post_id = ?",
+                Integer.class, postId));
+        assertEquals(FANS, jdbcTemplate.queryForObject("select count(*) from user_followers where user_id = ?",
+                Integer.class, authorId));
+        assertEquals(FANS, jdbcTemplate.queryForObject("select count(*) from user_followings where followings = ?",
+                Integer.class, authorId));
+        assertEquals(FANS, followGraphService.getFollowers(authorId).length);
+        // One log row per follow for the other instances; rolled-back attempts must not leave their row behind.
+        assertEquals(FANS, jdbcTemplate.queryForObject("select count(*) from follow_edge_log where change_type = "
+                + "'FOLLOW' and followee_id = ?", Integer.class, authorId));
+        assertTrue(jdbcTemplate.queryForObject("select caption from post_table where id = ?", String.class, postId)
+                .startsWith("stress edit "));
+
+        double conflicts = meterRegistry.find("conflict.detected").counters().stream()
+                .mapToDouble(c -> c.count()).sum();
+        assertEquals(0, meterRegistry.find("conflict.exhausted").counters().stream()
+                .mapToDouble(c -> c.count()).sum(), "conflicts detected: " + conflicts);
+    }
+
+    private static Authentication authenticated(String userName) {
+        return new UsernamePasswordAuthenticationToken(userName, null, List.of());
+    }
+}
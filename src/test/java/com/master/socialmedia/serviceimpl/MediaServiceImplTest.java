@@ -0,0 +1,269 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.controller.MediaController;
+import com.master.socialmedia.dto.MediaFileDTO;
+import com.master.socialmedia.dto.MediaUploadDTO;
+import com.master.socialmedia.entity.MediaAsset;
+import com.master.socialmedia.enums.MediaKind;
+import com.master.socialmedia.enums.MediaRendition;
+import com.master.socialmedia.enums.MediaState;
+import com.master.socialmedia.enums.PostStatus;
+import com.master.socialmedia.exception.MediaUploadException;
+import com.master.socialmedia.exception.UnauthorizedActionException;
+import com.master.socialmedia.repository.MediaAssetRepository;
+import com.master.socialmedia.repository.PostRepository;
+import com.master.socialmedia.repository.UserRepository;
+import com.master.socialmedia.utils.MediaUrls;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class MediaServiceImplTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    private Path mediaDir;
+
+    private final Map<String, MediaAsset> assets = new HashMap<>();
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private LocalMediaStorage storage;
+    private MediaServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        MediaAssetRepository mediaAssetRepository = mock(MediaAssetRepository.class);
+        when(mediaAssetRepository.findById(anyString()))
+                .thenAnswer(call -> Optional.ofNullable(assets.get(call.<String>getArgument(0))));
+        when(mediaAssetRepository.save(any(MediaAsset.class))).thenAnswer(call -> {
+            MediaAsset asset = call.getArgument(0);
+            assets.put(asset.getId(), asset);
+            return asset;
+        });
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findIdByUserName("owner")).thenReturn(7);
+
+        storage = new LocalMediaStorage(mediaDir.toString());
+        service = new MediaServiceImpl(mediaAssetRepository, userRepository, postRepository, storage,
+                new SimpleMeterRegistry(), new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(service, "signingSecret", "test-secret");
+        ReflectionTestUtils.setField(service, "uploadUrlTtlMs", 60_000L);
+        ReflectionTestUtils.setField(service, "maxUploadBytes", 1_000L);
+        ReflectionTestUtils.setField(service, "maxChunkBytes", 6L);
+        ReflectionTestUtils.setField(service, "maxPixels", 1_000_000L);
+        // Smaller than the file, so serving a range maps more than one window.
+        ReflectionTestUtils.setField(service, "mapWindowBytes", 4L);
+        ReflectionTestUtils.setField(service, "processingThreads", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 4);
+        ReflectionTestUtils.setField(service, "retryIntervalMs", 60_000L);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void acceptsOnlyUnexpiredUrlsSignedForTheSameUpload() {
+        Upload upload = createUpload("video/mp4", CONTENT.length);
+        Upload other = createUpload("video/mp4", CONTENT.length);
+
+        assertEquals(4, service.writeChunk(upload.mediaId(), upload.expires(), upload.signature(), "bytes 0-3/10",
+                body("0123")));
+        assertThrows(UnauthorizedActionException.class, () -> service.writeChunk(upload.mediaId(), upload.expires(),
+                upload.signature().substring(1) + "A", "bytes 4-5/10", body("45")));
+        assertThrows(UnauthorizedActionException.class, () -> service.writeChunk(upload.mediaId(), upload.expires(),
+                other.signature(), "bytes 4-5/10", body("45")));
+        assertThrows(UnauthorizedActionException.class, () -> service.writeChunk(upload.mediaId(), upload.expires() + 1,
+                upload.signature(), "bytes 4-5/10", body("45")));
+        assertThrows(UnauthorizedActionException.class, () -> service.completeUpload(upload.mediaId(), upload.expires(),
+                null));
+
+        // A correctly signed URL is still refused once it has expired.
+        long expired = Instant.now().getEpochSecond() - 1;
+        String signature = ReflectionTestUtils.invokeMethod(service, "sign", upload.mediaId(), expired);
+        UnauthorizedActionException e = assertThrows(UnauthorizedActionException.class, () -> service.writeChunk(
+                upload.mediaId(), expired, signature, "bytes 4-5/10", body("45")));
+        assertEquals("Upload URL has expired", e.getMessage());
+    }
+
+    @Test
+    void validatesContentRangeAndResumesFromTheReceivedOffset() throws Exception {
+        Upload upload = createUpload("video/mp4", CONTENT.length);
+
+        for (String invalid : new String[]{null, "bytes 0-3", "bytes=0-3/10", "bytes 0-3/11", "bytes 3-2/10",
+                "bytes 8-10/10", "bytes 0-6/10"}) {
+            assertThrows(MediaUploadException.class, () -> write(upload, invalid, "0123456"), invalid);
+        }
+
+        assertEquals(4, write(upload, "bytes 0-3/10", "0123"));
+        // A gap after what was received is refused, so the client has to resume from the returned offset.
+        assertThrows(MediaUploadException.class, () -> write(upload, "bytes 6-9/10", "6789"));
+        assertThrows(MediaUploadException.class, () -> service.completeUpload(upload.mediaId(), upload.expires(),
+                upload.signature()));
+
+        // Resending an overlapping chunk after a lost response is fine and moves the offset to its end.
+        assertEquals(6, write(upload, "bytes 2-5/10", "2345"));
+        assertEquals(6, write(upload, "bytes 0-1/10", "01"));
+        assertThrows(MediaUploadException.class, () -> write(upload, "bytes 6-9/10", "67"));
+        assertEquals(10, write(upload, "bytes 6-9/10", "6789"));
+
+        assertEquals(MediaState.READY, service.completeUpload(upload.mediaId(), upload.expires(), upload.signature())
+                .getState());
+        assertThrows(MediaUploadException.class, () -> write(upload, "bytes 0-1/10", "01"));
+        assertEquals(CONTENT.length, storage.size(upload.mediaId(), MediaRendition.ORIGINAL));
+    }
+
+    @Test
+    void servesTheOriginalUntilTheRenditionIsGenerated() throws Exception {
+        String mediaId = storeAsset(MediaKind.IMAGE, "image/png", MediaState.PROCESSING);
+
+        MediaFileDTO pending = service.resolve(mediaId, MediaRendition.FEED);
+        assertEquals(MediaRendition.ORIGINAL, pending.getRendition());
+        assertEquals("image/png", pending.getContentType());
+        assertFalse(pending.isImmutable(), "a stand-in original must not be cached as the rendition");
+        assertTrue(service.resolve(mediaId, MediaRendition.ORIGINAL).isImmutable());
+
+        storage.store(mediaId, MediaRendition.FEED, new byte[]{1, 2, 3});
+        assets.get(mediaId).setState(MediaState.READY);
+        MediaFileDTO ready = service.resolve(mediaId, MediaRendition.FEED);
+        assertEquals(MediaRendition.FEED, ready.getRendition());
+        assertEquals("image/jpeg", ready.getContentType());
+        assertEquals(3, ready.getSizeBytes());
+        assertTrue(ready.isImmutable());
+
+        // Renditions that will never exist fall back to the original for good.
+        String failed = storeAsset(MediaKind.IMAGE, "image/png", MediaState.FAILED);
+        assertTrue(service.resolve(failed, MediaRendition.THUMBNAIL).isImmutable());
+    }
+
+    @Test
+    void onlyMediaOnAPublicPostIsCachedByEveryone() throws Exception {
+        String publicId = storeAsset(MediaKind.VIDEO, "video/mp4", MediaState.READY);
+        String privateId = storeAsset(MediaKind.VIDEO, "video/mp4", MediaState.READY);
+        when(postRepository.existsByUserIdAndMediaUrl(eq(7), eq(MediaUrls.reference(publicId)), eq(PostStatus.PUBLIC)))
+                .thenReturn(true);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new MediaController(service)).build();
+
+        mockMvc.perform(get("/api/media/{id}", publicId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + publicId + "-original-10\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+        mockMvc.perform(get("/api/media/{id}", privateId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + privateId + "-original-10\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, private, immutable"));
+    }
+
+    @Test
+    void servesSingleByteRangesAndRejectsUnsatisfiableOnes() throws Exception {
+        String mediaId = storeAsset(MediaKind.VIDEO, "video/mp4", MediaState.READY);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new MediaController(service)).build();
+
+        MvcResult full = mockMvc.perform(get("/api/media/{id}", mediaId)).andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(full))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length))
+                .andExpect(content().bytes(CONTENT));
+
+        assertRange(mockMvc, mediaId, "bytes=2-8", "bytes 2-8/10", "2345678");
+        assertRange(mockMvc, mediaId, "bytes=-3", "bytes 7-9/10", "789");
+        assertRange(mockMvc, mediaId, "bytes=5-", "bytes 5-9/10", "56789");
+        assertRange(mockMvc, mediaId, "bytes=8-20", "bytes 8-9/10", "89");
+
+        for (String unsatisfiable : List.of("bytes=10-12", "bytes=7-3", "items=0-1")) {
+            mockMvc.perform(get("/api/media/{id}", mediaId).header(HttpHeaders.RANGE, unsatisfiable))
+                    .andExpect(status().isRequestedRangeNotSatisfiable())
+                    .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+        }
+
+        String eTag = "\"" + mediaId + "-original-10\"";
+        mockMvc.perform(get("/api/media/{id}", mediaId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    private void assertRange(MockMvc mockMvc, String mediaId, String range, String contentRange, String body)
+            throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/media/{id}", mediaId).header(HttpHeaders.RANGE, range))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, contentRange))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, body.length()))
+                .andExpect(content().bytes(body.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private Upload createUpload(String contentType, long size) {
+        MediaUploadDTO upload = service.createUpload(contentType, size,
+                new UsernamePasswordAuthenticationToken("owner", null, List.of()));
+        Map<String, List<String>> query = UriComponentsBuilder.fromUriString(upload.getUploadUrl()).build()
+                .getQueryParams();
+        return new Upload(upload.getMediaId(), Long.parseLong(query.get("expires").get(0)),
+                query.get("signature").get(0));
+    }
+
+    private String storeAsset(MediaKind kind, String contentType, MediaState state) throws Exception {
+        MediaAsset asset = new MediaAsset();
+        asset.setId("asset-" + assets.size());
+        asset.setOwnerId(7);
+        asset.setKind(kind);
+        asset.setContentType(contentType);
+        asset.setSizeBytes(CONTENT.length);
+        asset.setState(state);
+        assets.put(asset.getId(), asset);
+        storage.writeChunk(asset.getId(), 0, CONTENT.length, Channels.newChannel(new ByteArrayInputStream(CONTENT)));
+        return asset.getId();
+    }
+
+    private long write(Upload upload, String contentRange, String chunk) {
+        return service.writeChunk(upload.mediaId(), upload.expires(), upload.signature(), contentRange, body(chunk));
+    }
+
+    private static ReadableByteChannel body(String chunk) {
+        return Channels.newChannel(new ByteArrayInputStream(chunk.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private record Upload(String mediaId, long expires, String signature) {
+    }
+}
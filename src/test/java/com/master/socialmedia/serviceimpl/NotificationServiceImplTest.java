@@ -0,0 +1,153 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.dto.NotificationDTO;
+import com.master.socialmedia.dto.NotificationPageDTO;
+import com.master.socialmedia.enums.NotificationType;
+import com.master.socialmedia.service.NotificationService;
+import com.master.socialmedia.service.PostService;
+import com.master.socialmedia.service.ViewTrackingService;
+import com.master.socialmedia.support.TestData;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Drives likes through {@link PostService} and checks what the owner's inbox
+ * shows after each flush: likes on one post fold into one unread group, a
+ * read group is left alone and a new like opens a fresh one, and groups from
+ * a flush that did not commit are written by the next flush.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class NotificationServiceImplTest {
+
+    private static final String PREFIX = "qnotify_";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private ViewTrackingService viewTrackingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Map<String, Integer> userIds;
+    private Integer postId;
+
+    @BeforeAll
+    void seed() {
+        cleanUp();
+        userIds = TestData.insertUsers(jdbcTemplate, "notify.test",
+                List.of(PREFIX + "owner", PREFIX + "fan1", PREFIX + "fan2"));
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("insert into post_table (user_id, caption, status, created_at, updated_at, is_deleted, " +
+                "is_reported, report_count) values (?, 'notify', 'PUBLIC', ?, ?, false, false, 0)",
+                userIds.get(PREFIX + "owner"), now, now);
+        postId = jdbcTemplate.queryForObject("select id from post_table where user_id = ?", Integer.class,
+                userIds.get(PREFIX + "owner"));
+    }
+
+    @AfterAll
+    void cleanUp() {
+        TestData.clear(jdbcTemplate, notificationService, viewTrackingService);
+    }
+
+    @Test
+    void readGroupsStayClosedAndNewLikesOpenAnotherAfterAFailedFlush() {
+        Authentication owner = authenticated("owner");
+
+        postService.toggleLikePost(postId, authenticated("fan1"));
+        postService.toggleLikePost(postId, authenticated("fan2"));
+        notificationService.flush();
+
+        List<NotificationDTO> inbox = inbox(owner);
+        assertEquals(1, inbox.size());
+        assertGroup(inbox.get(0), true, 2, "fan2");
+        assertEquals(1, notificationService.getUnreadCount(owner));
+
+        assertEquals(1, notificationService.markAllRead(owner));
+        assertEquals(0, notificationService.getUnreadCount(owner));
+
+        // fan1 takes the like back and likes again: the read group must not absorb it.
+        postService.toggleLikePost(postId, authenticated("fan1"));
+        postService.toggleLikePost(postId, authenticated("fan1"));
+        failNextFlush();
+
+        inbox = inbox(owner);
+        assertEquals(1, inbox.size());
+        assertFalse(inbox.get(0).isUnread());
+        assertEquals(0, notificationService.getUnreadCount(owner));
+        assertEquals(1.0, meterRegistry.get("notifications.pending").gauge().value());
+
+        notificationService.flush();
+
+        inbox = inbox(owner);
+        assertEquals(2, inbox.size());
+        assertGroup(inbox.get(0), true, 2, "fan1");
+        assertGroup(inbox.get(1), false, 2, "fan2");
+        assertEquals(1, notificationService.getUnreadCount(owner));
+        assertEquals(1, jdbcTemplate.queryForObject("select unread_count from notification_unread "
+                + "where recipient_id = ?", Integer.class, userIds.get(PREFIX + "owner")));
+        assertEquals(0.0, meterRegistry.get("notifications.pending").gauge().value());
+    }
+
+    private void failNextFlush() {
+        TransactionTemplate transactionTemplate = (TransactionTemplate) ReflectionTestUtils.getField(
+                notificationService, "transactionTemplate");
+        TransactionTemplate failing = mock(TransactionTemplate.class);
+        doThrow(new UnexpectedRollbackException("rolled back at commit")).when(failing).executeWithoutResult(any());
+        ReflectionTestUtils.setField(notificationService, "transactionTemplate", failing);
+        try {
+            notificationService.flush();
+        } finally {
+            ReflectionTestUtils.setField(notificationService, "transactionTemplate", transactionTemplate);
+        }
+    }
+
+    private List<NotificationDTO> inbox(Authentication user) {
+        NotificationPageDTO page = notificationService.getInbox(user, null, 10);
+        assertTrue(page.getNotifications().stream().allMatch(n -> n.getType() == NotificationType.LIKE
+                && postId.equals(n.getTargetId())));
+        return page.getNotifications();
+    }
+
+    private void assertGroup(NotificationDTO group, boolean unread, int actorCount, String lastActor) {
+        assertEquals(unread, group.isUnread());
+        assertEquals(actorCount, group.getActorCount());
+        assertEquals(userIds.get(PREFIX + lastActor), group.getActorId());
+    }
+
+    private static Authentication authenticated(String userName) {
+        return new UsernamePasswordAuthenticationToken(PREFIX + userName, null, List.of());
+    }
+}
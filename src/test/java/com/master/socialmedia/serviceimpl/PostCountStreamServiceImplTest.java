@@ -0,0 +1,133 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.enums.EngagementType;
+import com.master.socialmedia.event.PostEngagementEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostCountStreamServiceImplTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PostCountStreamServiceImpl service;
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void dropsTheOldestPostOnceMorePostsArePendingThanTheBufferHolds() {
+        service = newService(3, 2);
+        service.subscribe(Set.of(1, 2, 3));
+
+        like(1, 1);
+        like(2, 1);
+        like(1, 2);
+        assertEquals(0, dropped());
+
+        // Post 2 is now the oldest pending update, so it goes to make room for post 3.
+        like(3, 1);
+        assertEquals(1, dropped());
+        like(3, 2);
+        like(1, 3);
+        assertEquals(1, dropped());
+        like(2, 2);
+        assertEquals(2, dropped());
+    }
+
+    @Test
+    void aClientThatStopsReadingIsDroppedWithoutHoldingUpOthersOnItsSenderThread() throws Exception {
+        service = newService(3, 2, 20L, 200L);
+
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger slowWrites = new AtomicInteger();
+        AtomicInteger fastWrites = new AtomicInteger();
+        connect(service.subscribe(Set.of(1)), () -> {
+            slowWrites.incrementAndGet();
+            release.await();
+        });
+        connect(service.subscribe(Set.of(1)), fastWrites::incrementAndGet);
+
+        like(1, 1);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (slowSubscribers() == 0 && System.currentTimeMillis() < deadline) {
+            like(1, 2);
+            Thread.sleep(20);
+        }
+        release.countDown();
+
+        assertEquals(1, slowSubscribers());
+        assertEquals(1, slowWrites.get(), "nothing more is written to a connection while its write is stuck");
+        assertTrue(fastWrites.get() > 1, "the other connection kept getting updates");
+        assertEquals(1, meterRegistry.get("stream.post_counts.subscribers").gauge().value());
+    }
+
+    @Test
+    void rejectsABufferThatCouldNeverOverflow() {
+        assertThrows(IllegalStateException.class, () -> newService(200, 200));
+    }
+
+    private PostCountStreamServiceImpl newService(int maxPosts, int bufferSize) {
+        // Long enough that nothing is drained or timed out while the test runs.
+        return newService(maxPosts, bufferSize, 3_600_000L, 60_000L);
+    }
+
+    private PostCountStreamServiceImpl newService(int maxPosts, int bufferSize, long flushIntervalMs,
+                                                  long sendTimeoutMs) {
+        PostCountStreamServiceImpl stream = new PostCountStreamServiceImpl(meterRegistry);
+        ReflectionTestUtils.setField(stream, "maxPostsPerSubscription", maxPosts);
+        ReflectionTestUtils.setField(stream, "bufferSize", bufferSize);
+        ReflectionTestUtils.setField(stream, "flushIntervalMs", flushIntervalMs);
+        ReflectionTestUtils.setField(stream, "heartbeatIntervalMs", 3_600_000L);
+        ReflectionTestUtils.setField(stream, "timeoutMs", 60_000L);
+        ReflectionTestUtils.setField(stream, "senderThreads", 1);
+        ReflectionTestUtils.setField(stream, "sendTimeoutMs", sendTimeoutMs);
+        ReflectionTestUtils.invokeMethod(stream, "init");
+        return stream;
+    }
+
+    private void like(int postId, int likeCount) {
+        service.onEngagement(new PostEngagementEvent(postId, 100, 200, EngagementType.LIKE, likeCount, 0, Instant.now()));
+    }
+
+    private interface Write {
+        void run() throws Exception;
+    }
+
+    /** Attaches the emitter to a fake connection, as the MVC return value handler would, with {@code write} per event. */
+    private void connect(SseEmitter emitter, Write write) throws Exception {
+        Class<?> handlerType = Class.forName(ResponseBodyEmitter.class.getName() + "$Handler");
+        Object handler = Proxy.newProxyInstance(handlerType.getClassLoader(), new Class<?>[]{handlerType},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("send")) {
+                        write.run();
+                    }
+                    return null;
+                });
+        ReflectionTestUtils.invokeMethod(emitter, "initialize", handler);
+    }
+
+    private double slowSubscribers() {
+        return meterRegistry.counter("stream.post_counts.slow_subscribers").count();
+    }
+
+    private double dropped() {
+        return meterRegistry.counter("stream.post_counts.dropped_updates").count();
+    }
+}
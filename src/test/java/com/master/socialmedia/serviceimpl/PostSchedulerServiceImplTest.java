@@ -0,0 +1,179 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.entity.Post;
+import com.master.socialmedia.enums.PostStatus;
+import com.master.socialmedia.service.NotificationService;
+import com.master.socialmedia.service.PostTagService;
+import com.master.socialmedia.service.ViewTrackingService;
+import com.master.socialmedia.support.TestData;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Plays two scheduler instances that start after a publish and an archive
+ * have come due, as after a restart, and fire them at the same time and then
+ * again. Each transition must be applied exactly once, bump the post version
+ * once, and leave post_tag matching the post's new status.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PostSchedulerServiceImplTest {
+
+    private static final String PREFIX = "qsched_";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PostTagService postTagService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private ViewTrackingService viewTrackingService;
+
+    private Integer scheduledId;
+    private Integer storyId;
+    private Integer laterId;
+
+    @BeforeAll
+    void seed() {
+        cleanUp();
+        Integer authorId = TestData.insertUsers(jdbcTemplate, "sched.test", List.of(PREFIX + "author"))
+                .get(PREFIX + "author");
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+
+        scheduledId = insertPost(authorId, "#launch is live", PostStatus.SCHEDULED, now.minusMinutes(10),
+                now.minusMinutes(1), null);
+        storyId = insertPost(authorId, "#launch story", PostStatus.PUBLIC, now.minusHours(25),
+                now.minusSeconds(30), now.minusSeconds(30));
+        laterId = insertPost(authorId, "#launch tomorrow", PostStatus.SCHEDULED, now, now.plusHours(1), null);
+
+        Post story = new Post();
+        story.setId(storyId);
+        story.setCaption("#launch story");
+        story.setCreatedAt(now.minusHours(25));
+        story.setStatus(PostStatus.PUBLIC);
+        postTagService.sync(story, true);
+    }
+
+    @AfterAll
+    void cleanUp() {
+        TestData.clear(jdbcTemplate, notificationService, viewTrackingService);
+    }
+
+    @Test
+    void overdueTransitionsApplyExactlyOnceAcrossRestartsInstancesAndRepeatedFiring() throws Exception {
+        MeterRegistry firstMeters = new SimpleMeterRegistry();
+        MeterRegistry secondMeters = new SimpleMeterRegistry();
+        PostSchedulerServiceImpl first = newInstance(firstMeters);
+        PostSchedulerServiceImpl second = newInstance(secondMeters);
+        assertEquals(3, first.rebuild());
+        assertEquals(3, second.rebuild());
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        int applied = 0;
+        try {
+            List<Future<Integer>> runs = List.of(first, second).stream()
+                    .map(instance -> pool.submit(() -> {
+                        start.await();
+                        return instance.applyDueTransitions();
+                    }))
+                    .toList();
+            start.countDown();
+            for (Future<Integer> run : runs) {
+                applied += run.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(2, applied);
+
+        // Fire both posts again from each wheel, as a duplicate or stale entry would.
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        for (PostSchedulerServiceImpl instance : List.of(first, second)) {
+            instance.schedule(scheduledId, now.minusMinutes(1));
+            instance.schedule(storyId, now.minusSeconds(30));
+            assertEquals(0, instance.applyDueTransitions());
+        }
+
+        assertEquals(1.0, count(firstMeters, secondMeters, "publish"));
+        assertEquals(1.0, count(firstMeters, secondMeters, "archive"));
+        assertEquals(6.0, firstMeters.get("post.scheduler.stale").counter().count()
+                + secondMeters.get("post.scheduler.stale").counter().count());
+
+        assertPost(scheduledId, PostStatus.PUBLIC, 1);
+        assertPost(storyId, PostStatus.ARCHIVED, 1);
+        assertPost(laterId, PostStatus.SCHEDULED, 0);
+        assertEquals(List.of(scheduledId), jdbcTemplate.queryForList(
+                "select post_id from post_tag where tag = '#launch'", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("select post_count from tag_count where tag = '#launch'",
+                Integer.class));
+    }
+
+    private PostSchedulerServiceImpl newInstance(MeterRegistry meterRegistry) {
+        PostSchedulerServiceImpl instance = new PostSchedulerServiceImpl(postTagService, dataSource,
+                transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(instance, "tickMs", 1_000L);
+        ReflectionTestUtils.setField(instance, "wheelSize", 64);
+        ReflectionTestUtils.setField(instance, "levels", 4);
+        ReflectionTestUtils.setField(instance, "horizonMs", 86_400_000L);
+        ReflectionTestUtils.setField(instance, "batchSize", 500);
+        ReflectionTestUtils.setField(instance, "retryDelayMs", 5_000L);
+        ReflectionTestUtils.invokeMethod(instance, "init");
+        return instance;
+    }
+
+    private Integer insertPost(Integer authorId, String caption, PostStatus status, LocalDateTime createdAt,
+                               LocalDateTime dueAt, LocalDateTime archiveAt) {
+        jdbcTemplate.update("insert into post_table (user_id, caption, status, created_at, updated_at, is_deleted, "
+                        + "is_reported, report_count, due_at, archive_at) "
+                        + "values (?, ?, ?, ?, ?, false, false, 0, ?, ?)",
+                authorId, caption, status.name(), Timestamp.valueOf(createdAt), Timestamp.valueOf(createdAt),
+                Timestamp.valueOf(dueAt), archiveAt != null ? Timestamp.valueOf(archiveAt) : null);
+        return jdbcTemplate.queryForObject("select id from post_table where caption = ?", Integer.class, caption);
+    }
+
+    private void assertPost(Integer postId, PostStatus status, long version) {
+        Map<String, Object> row = jdbcTemplate.queryForMap("select status, version from post_table where id = ?",
+                postId);
+        assertEquals(status.name(), row.get("status"));
+        assertEquals(version, ((Number) row.get("version")).longValue());
+    }
+
+    private static double count(MeterRegistry first, MeterRegistry second, String transition) {
+        return first.get("post.scheduler.transitions").tag("transition", transition).counter().count()
+                + second.get("post.scheduler.transitions").tag("transition", transition).counter().count();
+    }
+}
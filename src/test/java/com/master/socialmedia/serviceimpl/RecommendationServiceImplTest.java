@@ -0,0 +1,165 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.dto.FollowRelationDTO;
+import com.master.socialmedia.service.FollowGraphService;
+import com.master.socialmedia.utils.FollowGraph;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecommendationServiceImplTest {
+
+    private static final int USERS = 200_000;
+    private static final int EDGES = 4_000_000;
+    private static final int HEAVY_FOLLOWINGS = 5_000;
+
+    private RecommendationServiceImpl service;
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void ranksCandidatesByMutualFollowCount() {
+        Random random = new Random(42);
+        FollowGraph.Builder builder = FollowGraph.builder(0);
+        for (int i = 0; i < 6_000; i++) {
+            builder.add(random.nextInt(300), random.nextInt(300));
+        }
+        FollowGraph graph = builder.build(false);
+        service = newService(graph);
+
+        for (int user = 0; user < 300; user += 13) {
+            int[] following = graph.following(user);
+            Map<Integer, Integer> mutuals = new HashMap<>();
+            for (int seed : following) {
+                for (int candidate : graph.following(seed)) {
+                    if (candidate != user && Arrays.binarySearch(following, candidate) < 0) {
+                        mutuals.merge(candidate, 1, Integer::sum);
+                    }
+                }
+            }
+            int[] expected = mutuals.entrySet().stream()
+                    .sorted(Comparator.<Map.Entry<Integer, Integer>>comparingInt(Map.Entry::getValue).reversed()
+                            .thenComparing(Map.Entry::getKey))
+                    .limit(20)
+                    .mapToInt(Map.Entry::getKey)
+                    .toArray();
+
+            assertArrayEquals(expected, service.compute(user).ids(), "recommendations for " + user);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void walkStaysUnderFiftyMillisecondsForHeavyFollowers() {
+        Random random = new Random(7);
+        FollowGraph.Builder builder = FollowGraph.builder(EDGES + HEAVY_FOLLOWINGS);
+        for (int i = 0; i < EDGES; i++) {
+            int followee = (int) (USERS * Math.pow(random.nextDouble(), 3));
+            builder.add(1 + random.nextInt(USERS - 1), followee);
+        }
+        for (int i = 0; i < HEAVY_FOLLOWINGS; i++) {
+            builder.add(0, 1 + random.nextInt(USERS - 1));
+        }
+        service = newService(builder.build(false));
+
+        for (int i = 0; i < 40; i++) {
+            service.compute(0);
+        }
+        int runs = 20;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            service.compute(0);
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / runs;
+
+        assertTrue(millis < 50, "friends-of-friends walk took " + millis + " ms");
+    }
+
+    private static RecommendationServiceImpl newService(FollowGraph graph) {
+        RecommendationServiceImpl service = new RecommendationServiceImpl(
+                new GraphBackedService(graph), null, null, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "parallelism", 2);
+        ReflectionTestUtils.setField(service, "maxSeeds", 5_000);
+        ReflectionTestUtils.setField(service, "perNodeCap", 500);
+        ReflectionTestUtils.setField(service, "maxVisits", 400_000);
+        ReflectionTestUtils.setField(service, "topK", 20);
+        ReflectionTestUtils.setField(service, "cacheSize", 100);
+        ReflectionTestUtils.setField(service, "cacheTtlMs", 60_000L);
+        service.init();
+        return service;
+    }
+
+    private record GraphBackedService(FollowGraph graph) implements FollowGraphService {
+
+        @Override
+        public boolean follows(Integer followerId, Integer followeeId) {
+            return graph.follows(followerId, followeeId);
+        }
+
+        @Override
+        public int[] getFollowing(int userId) {
+            return graph.following(userId);
+        }
+
+        @Override
+        public int[] getFollowers(int userId) {
+            return graph.followers(userId);
+        }
+
+        @Override
+        public int[] getCommonFollowers(int userId, int otherUserId, int limit) {
+            return graph.commonFollowers(userId, otherUserId, limit);
+        }
+
+        @Override
+        public int[] getMostFollowed(int limit) {
+            return graph.mostFollowed(limit);
+        }
+
+        @Override
+        public FollowRelationDTO getRelation(Integer userId, Integer otherUserId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void recordFollow(Integer followerId, Integer followeeId) {
+            graph.addEdge(followerId, followeeId);
+        }
+
+        @Override
+        public void removeUser(Integer userId) {
+            graph.removeUser(userId);
+        }
+
+        @Override
+        public void compact() {
+            graph.compact();
+        }
+
+        @Override
+        public int syncChanges() {
+            return 0;
+        }
+
+        @Override
+        public int pruneChangeLog() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.service.NotificationService;
+import com.master.socialmedia.service.ViewTrackingService;
+import com.master.socialmedia.support.TestData;
+import com.master.socialmedia.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs separate {@link TokenRevocationServiceImpl} instances against the test
+ * schema, standing in for application instances that share token_revocation.
+ */
+@SpringBootTest
+class TokenRevocationServiceImplTest {
+
+    private static final String USER = "qrevoke_user";
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private ViewTrackingService viewTrackingService;
+
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        TestData.clear(jdbcTemplate, notificationService, viewTrackingService);
+    }
+
+    @Test
+    void aTokenIssuedInTheSameSecondAsRevokeAllSurvivesIt() throws InterruptedException {
+        TokenRevocationServiceImpl service = newInstance(60_000);
+        // Start early in a second so the revocation and the next login share it.
+        Thread.sleep(1_000 - System.currentTimeMillis() % 1_000);
+        Claims before = claims(jwtUtil.generateToken(USER));
+
+        service.revokeAllTokens(USER);
+        Thread.sleep(5);
+        Claims after = claims(jwtUtil.generateToken(USER));
+
+        assertEquals(TimeUnit.MILLISECONDS.toSeconds(before.getIssuedAt().getTime()),
+                TimeUnit.MILLISECONDS.toSeconds(after.getIssuedAt().getTime()));
+        assertTrue(service.isRevoked(before));
+        assertFalse(service.isRevoked(after));
+    }
+
+    @Test
+    void revocationsReachOtherInstancesOnSyncAndAtStartUp() throws InterruptedException {
+        TokenRevocationServiceImpl first = newInstance(60_000);
+        TokenRevocationServiceImpl second = newInstance(60_000);
+        String loggedOut = jwtUtil.generateToken(USER);
+        Claims otherUser = claims(jwtUtil.generateToken(USER + "2"));
+        // Other instances read the cutoff back from revoked_at; a second apart keeps this independent of
+        // whether the driver sends fractional seconds.
+        Thread.sleep(1_000);
+
+        first.revokeToken(loggedOut);
+        first.revokeAllTokens(USER + "2");
+        assertTrue(first.isRevoked(claims(loggedOut)));
+        assertFalse(second.isRevoked(claims(loggedOut)));
+        assertFalse(second.isRevoked(otherUser));
+
+        assertEquals(2, second.syncRevocations());
+        assertTrue(second.isRevoked(claims(loggedOut)));
+        assertTrue(second.isRevoked(otherUser));
+        assertFalse(second.isRevoked(claims(jwtUtil.generateToken(USER))));
+
+        TokenRevocationServiceImpl restarted = newInstance(60_000);
+        assertTrue(restarted.isRevoked(claims(loggedOut)));
+        assertTrue(restarted.isRevoked(otherUser));
+    }
+
+    @Test
+    void pruningDropsOnlyExpiredRevocations() throws InterruptedException {
+        TokenRevocationServiceImpl service = newInstance(10);
+        String live = jwtUtil.generateToken(USER);
+        service.revokeToken(live);
+        // exp has whole seconds, so these expire within 0.5 to 1.5 seconds.
+        service.revokeToken(jwtUtil.generateToken(USER, 1_500));
+        service.revokeToken(jwtUtil.generateToken(USER, 1_500));
+        Timestamp longAgo = Timestamp.valueOf(LocalDateTime.now(ZoneOffset.UTC).minusDays(2));
+        jdbcTemplate.update("insert into token_revocation (scope, token_key, user_name, revoked_at, expires_at) "
+                + "values ('USER', ?, ?, ?, ?)", USER + "_old", USER + "_old", longAgo, longAgo);
+        Thread.sleep(1_600);
+
+        assertEquals(2, service.pruneExpired());
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from token_revocation", Integer.class));
+        assertTrue(service.isRevoked(claims(live)));
+        assertEquals(0, service.pruneExpired());
+    }
+
+    private TokenRevocationServiceImpl newInstance(long bucketMs) {
+        TokenRevocationServiceImpl service = new TokenRevocationServiceImpl(jwtUtil, dataSource,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "bucketMs", bucketMs);
+        ReflectionTestUtils.setField(service, "syncOverlapMs", 60_000L);
+        // Smaller than the expired rows, so pruning has to loop.
+        ReflectionTestUtils.setField(service, "pruneBatchSize", 1);
+        ReflectionTestUtils.invokeMethod(service, "load");
+        return service;
+    }
+
+    private Claims claims(String token) {
+        return jwtUtil.extractAllClaims(token);
+    }
+}
@@ -0,0 +1,150 @@
+package com.master.socialmedia.serviceimpl;
+
+import com.master.socialmedia.dto.CommentActivityView;
+import com.master.socialmedia.dto.PostDTO;
+import com.master.socialmedia.dto.PostEngagementView;
+import com.master.socialmedia.entity.Post;
+import com.master.socialmedia.entity.User;
+import com.master.socialmedia.enums.EngagementType;
+import com.master.socialmedia.enums.PostStatus;
+import com.master.socialmedia.event.PostEngagementEvent;
+import com.master.socialmedia.repository.CommentRepository;
+import com.master.socialmedia.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TrendingServiceImplTest {
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final CommentRepository commentRepository = mock(CommentRepository.class);
+    private TrendingServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TrendingServiceImpl(postRepository, commentRepository);
+        ReflectionTestUtils.setField(service, "trendingSize", 10);
+        ReflectionTestUtils.setField(service, "stripes", 4);
+        ReflectionTestUtils.setField(service, "halfLifeMs", 6 * 3_600_000L);
+        ReflectionTestUtils.setField(service, "windowMs", 24 * 3_600_000L);
+        ReflectionTestUtils.setField(service, "likeWeight", 1.0);
+        ReflectionTestUtils.setField(service, "saveWeight", 2.0);
+        ReflectionTestUtils.setField(service, "commentWeight", 3.0);
+        ReflectionTestUtils.invokeMethod(service, "init");
+
+        when(postRepository.findAllById(anyIterable())).thenAnswer(call -> {
+            List<Post> posts = new ArrayList<>();
+            for (Integer id : call.<Iterable<Integer>>getArgument(0)) {
+                posts.add(post(id, id == 4 ? PostStatus.PRIVATE : PostStatus.PUBLIC));
+            }
+            return posts;
+        });
+    }
+
+    @Test
+    void rebuildAttributesLikesAndSavesToWhenThePostWasCreated() {
+        // Post 1 has the most likes but is 20 hours old; post 2 collected fewer within the last hour.
+        when(postRepository.findEngagementSince(eq(PostStatus.PUBLIC), any(LocalDateTime.class))).thenReturn(List.of(
+                engagement(1, hoursAgo(20), 10, 0),
+                engagement(2, hoursAgo(1), 3, 0),
+                engagement(3, hoursAgo(2), 0, 1),
+                engagement(5, hoursAgo(3), 0, 0)));
+        when(commentRepository.findActivitySince(any(LocalDateTime.class))).thenReturn(List.of(
+                comment(3, hoursAgo(1))));
+
+        service.rebuild();
+
+        // 1: 10 * 2^(-20/6) = 0.99; 2: 3 * 2^(-1/6) = 2.67; 3: 2 * 2^(-2/6) + 3 * 2^(-1/6) = 4.26.
+        assertEquals(List.of(3, 2, 1), ids(service.getTrendingPosts()));
+    }
+
+    @Test
+    void liveEngagementMovesPostsAndOnlyPublicPostsAreServed() {
+        when(postRepository.findEngagementSince(eq(PostStatus.PUBLIC), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+        when(commentRepository.findActivitySince(any(LocalDateTime.class))).thenReturn(List.of());
+        service.rebuild();
+
+        service.onEngagement(event(1, EngagementType.LIKE));
+        service.onEngagement(event(1, EngagementType.LIKE));
+        service.onEngagement(event(2, EngagementType.SAVE));
+        service.onEngagement(event(2, EngagementType.UNSAVE));
+        service.onEngagement(event(2, EngagementType.COMMENT));
+        service.onEngagement(event(4, EngagementType.COMMENT));
+        service.refresh();
+
+        assertEquals(List.of(2, 1), ids(service.getTrendingPosts()));
+    }
+
+    private static List<Integer> ids(Collection<PostDTO> posts) {
+        return posts.stream().map(PostDTO::getId).toList();
+    }
+
+    private static LocalDateTime hoursAgo(int hours) {
+        return LocalDateTime.now(ZoneOffset.UTC).minusHours(hours);
+    }
+
+    private static Post post(int id, PostStatus status) {
+        Post post = new Post();
+        post.setId(id);
+        post.setStatus(status);
+        post.setUser(new User());
+        return post;
+    }
+
+    private static PostEngagementEvent event(int postId, EngagementType type) {
+        return new PostEngagementEvent(postId, 1, 2, type, 0, 0, Instant.now());
+    }
+
+    private static PostEngagementView engagement(int postId, LocalDateTime createdAt, int likes, int saves) {
+        return new PostEngagementView() {
+            @Override
+            public Integer getPostId() {
+                return postId;
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return createdAt;
+            }
+
+            @Override
+            public int getLikeCount() {
+                return likes;
+            }
+
+            @Override
+            public int getSaveCount() {
+                return saves;
+            }
+        };
+    }
+
+    private static CommentActivityView comment(int postId, LocalDateTime createdAt) {
+        return new CommentActivityView() {
+            @Override
+            public Integer getPostId() {
+                return postId;
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return createdAt;
+            }
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.master.socialmedia.support;
+
+import com.master.socialmedia.annotation.QueryBudget;
+import com.master.socialmedia.filter.SqlBudgetInterceptor;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reads the per-request statement count recorded by {@link SqlBudgetInterceptor}
+ * from a MockMvc result and checks it against the handler's {@link QueryBudget}.
+ * Streamed responses must be passed in after {@code asyncDispatch}.
+ */
+public final class SqlBudget {
+
+    private SqlBudget() {
+    }
+
+    public static int statements(MvcResult result) {
+        AtomicInteger scope = (AtomicInteger) result.getRequest()
+                .getAttribute(SqlBudgetInterceptor.STATEMENT_COUNT_ATTRIBUTE);
+        assertNotNull(scope, "No SQL statement scope recorded for " + result.getRequest().getRequestURI());
+        return scope.get();
+    }
+
+    public static void assertWithinBudget(MvcResult result) {
+        assertTrue(result.getHandler() instanceof HandlerMethod, "Request was not handled by a controller method");
+        HandlerMethod handler = (HandlerMethod) result.getHandler();
+        QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+        assertNotNull(budget, handler + " declares no @QueryBudget");
+
+        int statements = statements(result);
+        assertTrue(statements <= budget.value(), result.getRequest().getMethod() + " "
+                + result.getRequest().getRequestURI() + " issued " + statements
+                + " SQL statements, budget is " + budget.value());
+    }
+}
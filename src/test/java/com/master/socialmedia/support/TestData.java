@@ -0,0 +1,81 @@
+package com.master.socialmedia.support;
+
+import com.master.socialmedia.service.NotificationService;
+import com.master.socialmedia.service.ViewTrackingService;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seeding and clean-up shared by the tests that run against the database.
+ * Those tests use the dedicated {@code _test} schema configured in the test
+ * application.properties, so clean-up empties every table instead of chasing
+ * the rows one test seeded.
+ */
+public final class TestData {
+
+    private static final String TEST_SCHEMA_SUFFIX = "_test";
+
+    private TestData() {
+    }
+
+    /** Inserts one user per name with the email {@code name@domain}; returns their ids by name, in order. */
+    public static Map<String, Integer> insertUsers(JdbcTemplate jdbcTemplate, String domain, List<String> userNames) {
+        List<Object[]> users = new ArrayList<>();
+        for (String userName : userNames) {
+            users.add(new Object[]{userName, userName + "@" + domain});
+        }
+        jdbcTemplate.batchUpdate("insert into user_table (user_name, email, first_name, last_name, password, gender, " +
+                "is_deleted, version) values (?, ?, 'Test', 'User', 'Te5t!Pass', 'OTHER', false, 0)", users);
+
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        for (String userName : userNames) {
+            ids.put(userName, jdbcTemplate.queryForObject("select id from user_table where user_name = ?",
+                    Integer.class, userName));
+        }
+        return ids;
+    }
+
+    /**
+     * Writes out what the buffered writers still hold, then deletes every row
+     * except the migration history. Flushing first matters: notifications and
+     * reach sketches buffered by the last test would otherwise be written after
+     * the clean-up and point at users and posts that no longer exist.
+     * <p>
+     * Rows are deleted rather than truncated so auto-increment ids are not
+     * reused; in-memory state of a cached application context (the follow
+     * graph, caches) may still refer to the old ids.
+     */
+    public static void clear(JdbcTemplate jdbcTemplate, NotificationService notificationService,
+                             ViewTrackingService viewTrackingService) {
+        String schema = jdbcTemplate.queryForObject("select database()", String.class);
+        if (schema == null || !schema.endsWith(TEST_SCHEMA_SUFFIX)) {
+            throw new IllegalStateException("Refusing to clear schema " + schema + "; tests must run against a "
+                    + TEST_SCHEMA_SUFFIX + " schema");
+        }
+        notificationService.flush();
+        viewTrackingService.flush();
+
+        List<String> tables = jdbcTemplate.queryForList("select table_name from information_schema.tables "
+                + "where table_schema = database() and table_type = 'BASE TABLE' "
+                + "and table_name <> 'flyway_schema_history'", String.class);
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set foreign_key_checks = 0");
+                try {
+                    for (String table : tables) {
+                        statement.executeUpdate("delete from " + table);
+                    }
+                } finally {
+                    statement.execute("set foreign_key_checks = 1");
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package com.master.socialmedia.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DecayingTopKTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+    private static final long HALF_LIFE = 1_000;
+
+    @Test
+    void olderEngagementCountsForLessAsItDecays() {
+        DecayingTopK topK = new DecayingTopK(4, HALF_LIFE, 60_000);
+        topK.record(1, 4, T0);
+        topK.record(2, 3, T0 + 1_000);
+        topK.record(3, 1.2, T0 + 2_000);
+
+        // At 2000 key 1 has halved twice (1.0) and key 2 once (1.5); key 3 is fresh (1.2).
+        assertEquals(List.of(2, 3, 1), topK.topK(3, T0 + 2_000));
+
+        topK.record(1, 4, T0 + 2_000);
+        assertEquals(List.of(1, 2, 3), topK.topK(3, T0 + 2_000));
+        // Decay scales every score alike, so the order holds until something new happens.
+        assertEquals(List.of(1, 2, 3), topK.topK(3, T0 + 9_000));
+    }
+
+    @Test
+    void dropsEntriesWithoutActivityInsideTheWindow() {
+        DecayingTopK topK = new DecayingTopK(4, HALF_LIFE, 5_000);
+        topK.record(1, 100, T0);
+        topK.record(2, 1, T0 + 4_000);
+
+        assertEquals(List.of(1, 2), topK.topK(10, T0 + 5_000));
+        assertEquals(List.of(2), topK.topK(10, T0 + 5_001));
+        assertEquals(1, topK.size());
+    }
+
+    @Test
+    void mergesStripesRebasedAtDifferentTimes() {
+        DecayingTopK topK = new DecayingTopK(8, HALF_LIFE, 600_000);
+        int keys = 200;
+        for (int key = 0; key < keys; key++) {
+            // Later keys are heavier but older, so the decayed order differs from the raw weights.
+            topK.record(key, weight(key), eventTime(key));
+        }
+
+        long now = eventTime(0);
+        List<Integer> expected = IntStream.range(0, keys).boxed()
+                .sorted(Comparator.comparingDouble((Integer key) -> decayed(key, now)).reversed())
+                .limit(20)
+                .toList();
+        assertEquals(expected, topK.topK(20, now));
+    }
+
+    @Test
+    void rebasesBeforeTheScoresOverflow() {
+        DecayingTopK topK = new DecayingTopK(1, 1, 600_000);
+        topK.record(1, 1, T0);
+        topK.record(2, 1, T0 + 2_000);
+        topK.record(1, 1, T0 + 2_001);
+
+        // Key 1's first event has decayed to nothing, so its newer event alone ranks it above key 2.
+        assertEquals(List.of(1, 2), topK.topK(2, T0 + 2_001));
+    }
+
+    private static double weight(int key) {
+        return 1 + key * 0.37;
+    }
+
+    private static long eventTime(int key) {
+        return T0 - key * 37L;
+    }
+
+    private static double decayed(int key, long now) {
+        return weight(key) * Math.pow(0.5, (now - eventTime(key)) / (double) HALF_LIFE);
+    }
+}
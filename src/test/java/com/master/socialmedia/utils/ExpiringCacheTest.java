@@ -0,0 +1,50 @@
+package com.master.socialmedia.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExpiringCacheTest {
+
+    @Test
+    void expiresEntriesTheTtlAfterTheyWereWritten() throws InterruptedException {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, 100);
+        cache.put("old", "1");
+        Thread.sleep(60);
+        cache.put("new", "2");
+        assertEquals("1", cache.putIfAbsent("old", "ignored"));
+
+        Thread.sleep(60);
+        assertNull(cache.get("old"));
+        assertEquals("2", cache.get("new"));
+        assertNull(cache.putIfAbsent("old", "3"));
+        assertEquals("3", cache.get("old"));
+    }
+
+    @Test
+    void evictExpiredDropsTheExpiredPrefixOnly() throws InterruptedException {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, 50);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        Thread.sleep(80);
+        cache.put("c", "3");
+
+        cache.evictExpired();
+        assertEquals(1, cache.size());
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    void evictsTheOldestWriteOnceFull() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(2, 60_000);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("a", "1");
+        cache.put("c", "3");
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals("1", cache.get("a"));
+    }
+}
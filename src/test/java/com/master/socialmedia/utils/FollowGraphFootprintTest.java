@@ -0,0 +1,118 @@
+package com.master.socialmedia.utils;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FollowGraphFootprintTest {
+
+    private static final int USERS = 1_000_000;
+    private static final int EDGES = 10_000_000;
+
+    // Boxed HashSet<Integer> per user and direction: HashMap.Node (32) + Integer (16) + table slot (~5 at 0.75 load).
+    private static final double BOXED_BYTES_PER_EDGE = 2 * (32 + 16 + 5.3);
+
+    @Test
+    void matchesSetBasedGraphThroughOverlayRemovalAndCompaction() {
+        Random random = new Random(41);
+        Map<Integer, Set<Integer>> following = new HashMap<>();
+        FollowGraph.Builder builder = FollowGraph.builder(0);
+        for (int i = 0; i < 3_000; i++) {
+            int a = random.nextInt(200);
+            int b = random.nextInt(200);
+            builder.add(a, b);
+            if (a != b) {
+                following.computeIfAbsent(a, k -> new HashSet<>()).add(b);
+            }
+        }
+        FollowGraph graph = builder.build(false);
+        assertMatches(following, Set.of(), graph);
+
+        for (int i = 0; i < 500; i++) {
+            int a = random.nextInt(260);
+            int b = random.nextInt(260);
+            boolean added = a != b && following.computeIfAbsent(a, k -> new HashSet<>()).add(b);
+            assertEquals(added, graph.addEdge(a, b));
+        }
+        Set<Integer> removed = Set.of(3, 77, 210);
+        removed.forEach(graph::removeUser);
+        assertTrue(graph.pendingChanges() > 0);
+        assertMatches(following, removed, graph);
+
+        graph.compact();
+        assertEquals(0, graph.pendingChanges());
+        assertMatches(following, removed, graph);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void staysUnderTenBytesPerEdgeForTenMillionEdges() {
+        Random random = new Random(7);
+        FollowGraph.Builder builder = FollowGraph.builder(EDGES);
+        for (int i = 0; i < EDGES; i++) {
+            // Skew followees towards low ids so some accounts collect large follower lists.
+            int followee = (int) (USERS * Math.pow(random.nextDouble(), 3));
+            builder.add(random.nextInt(USERS), followee);
+        }
+        FollowGraph heap = builder.build(false);
+        long edges = heap.edgeCount();
+
+        FollowGraph.Builder offHeapBuilder = FollowGraph.builder(EDGES);
+        random = new Random(7);
+        for (int i = 0; i < EDGES; i++) {
+            int followee = (int) (USERS * Math.pow(random.nextDouble(), 3));
+            offHeapBuilder.add(random.nextInt(USERS), followee);
+        }
+        FollowGraph offHeap = offHeapBuilder.build(true);
+        assertEquals(edges, offHeap.edgeCount());
+
+        // Both directions together should stay well under the boxed adjacency sets.
+        assertTrue((double) heap.memoryBytes() / edges < 10, "CSR should need under 10 bytes per edge");
+        assertTrue((double) offHeap.memoryBytes() / edges < 10, "Off-heap CSR should need under 10 bytes per edge");
+        assertTrue(heap.memoryBytes() * 8 < BOXED_BYTES_PER_EDGE * edges);
+    }
+
+    private static void assertMatches(Map<Integer, Set<Integer>> following, Set<Integer> removed, FollowGraph graph) {
+        Map<Integer, Set<Integer>> followers = new HashMap<>();
+        following.forEach((a, targets) -> {
+            if (!removed.contains(a)) {
+                targets.stream().filter(b -> !removed.contains(b))
+                        .forEach(b -> followers.computeIfAbsent(b, k -> new HashSet<>()).add(a));
+            }
+        });
+        for (int a = 0; a < 270; a++) {
+            Set<Integer> out = removed.contains(a) ? Set.of() : following.getOrDefault(a, Set.of()).stream()
+                    .filter(b -> !removed.contains(b)).collect(Collectors.toSet());
+            assertEquals(out.size(), graph.followingCount(a), "following of " + a);
+            assertEquals(followers.getOrDefault(a, Set.of()).size(), graph.followerCount(a), "followers of " + a);
+            for (int b = 0; b < 270; b += 7) {
+                assertEquals(out.contains(b), graph.follows(a, b));
+
+                Set<Integer> common = new HashSet<>(followers.getOrDefault(a, Set.of()));
+                common.retainAll(followers.getOrDefault(b, Set.of()));
+                assertEquals(common.size(), graph.commonFollowerCount(a, b));
+                assertArrayEquals(common.stream().mapToInt(Integer::intValue).sorted().toArray(),
+                        graph.commonFollowers(a, b, Integer.MAX_VALUE));
+            }
+        }
+
+        int[] expectedTop = followers.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<Integer, Set<Integer>>>comparingInt(e -> e.getValue().size()).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(10)
+                .mapToInt(Map.Entry::getKey)
+                .toArray();
+        assertArrayEquals(expectedTop, graph.mostFollowed(10));
+    }
+}
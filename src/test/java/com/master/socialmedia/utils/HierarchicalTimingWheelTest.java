@@ -0,0 +1,54 @@
+package com.master.socialmedia.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 10;
+
+    @Test
+    void firesEveryEntryOnceWithinATickOfItsDeadline() {
+        // Spans of 80 ms, 640 ms and 5.12 s, so the far deadlines go through the overflow list.
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 8, 3, 0);
+        Random random = new Random(49);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int id = 0; id < 5_000; id++) {
+            long deadline = random.nextInt(4) == 0 ? random.nextInt(60_000) : random.nextInt(2_000);
+            deadlines.put(id, deadline);
+            wheel.add(id, deadline);
+        }
+        assertEquals(deadlines.size(), wheel.size());
+
+        Map<Integer, Long> firedAt = new HashMap<>();
+        for (long now = 0; now <= 61_000; now += 1 + random.nextInt(3 * (int) TICK)) {
+            for (HierarchicalTimingWheel.Entry entry : wheel.advance(now)) {
+                assertEquals(null, firedAt.put(entry.id(), now), "fired twice: " + entry.id());
+                long deadline = deadlines.get(entry.id());
+                assertTrue(now >= deadline, "fired early: " + entry);
+                assertTrue(now < deadline + 4 * TICK, "fired late: " + entry + " at " + now);
+            }
+        }
+        assertEquals(deadlines.keySet(), firedAt.keySet());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void entriesAddedWhileRunningAndOverdueEntriesFireOnTheNextAdvance() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 4, 2, 1_000);
+        wheel.add(1, 500);
+        wheel.add(2, 1_000);
+        assertEquals(List.of(1, 2), wheel.advance(1_000).stream().map(HierarchicalTimingWheel.Entry::id).toList());
+
+        wheel.add(3, 1_155);
+        assertEquals(List.of(), wheel.advance(1_154));
+        assertEquals(List.of(3), wheel.advance(1_160).stream().map(HierarchicalTimingWheel.Entry::id).toList());
+    }
+}
@@ -0,0 +1,145 @@
+package com.master.socialmedia.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private static final int FOLLOWERS = 8;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void collapsesConcurrentLoadsAndHandsEachCallerItsOwnCopy() throws Exception {
+        SingleFlight<String, List<String>> flight = new SingleFlight<>("test", 10_000, meterRegistry, ArrayList::new);
+        Future<List<String>> leader = executor.submit(() -> flight.execute("key", blockingLoad(List.of("value"))));
+        awaitLoads(1);
+        List<Future<List<String>>> followers = startFollowers(flight, () -> List.of("other"));
+        awaitCount("collapsed", FOLLOWERS);
+
+        release.countDown();
+
+        List<String> leaderValue = leader.get(5, TimeUnit.SECONDS);
+        for (Future<List<String>> follower : followers) {
+            List<String> value = follower.get(5, TimeUnit.SECONDS);
+            assertEquals(List.of("value"), value);
+            assertNotSame(leaderValue, value);
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, count("leader"));
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    void aFollowerThatWaitsTooLongLoadsTheKeyItself() throws Exception {
+        SingleFlight<String, List<String>> flight = new SingleFlight<>("test", 50, meterRegistry, ArrayList::new);
+        Future<List<String>> leader = executor.submit(() -> flight.execute("key", blockingLoad(List.of("slow"))));
+        awaitLoads(1);
+
+        assertEquals(List.of("own"), flight.execute("key", () -> List.of("own")));
+        assertEquals(1, count("timeout"));
+        assertFalse(leader.isDone());
+
+        release.countDown();
+        assertEquals(List.of("slow"), leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void propagatesTheLeadersFailureAndLetsTheNextCallRetry() throws Exception {
+        SingleFlight<String, List<String>> flight = new SingleFlight<>("test", 10_000, meterRegistry, ArrayList::new);
+        Future<List<String>> leader = executor.submit(() -> flight.execute("key", () -> {
+            blockingLoad(List.<String>of()).get();
+            throw new IllegalStateException("load failed");
+        }));
+        awaitLoads(1);
+        List<Future<List<String>>> followers = startFollowers(flight, () -> List.of("other"));
+        awaitCount("collapsed", FOLLOWERS);
+
+        release.countDown();
+
+        for (Future<List<String>> call : concat(leader, followers)) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> call.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, failure.getCause());
+            assertEquals("load failed", failure.getCause().getMessage());
+        }
+        assertEquals(0, flight.inFlightCount());
+        assertEquals(List.of("retried"), flight.execute("key", () -> List.of("retried")));
+    }
+
+    private Supplier<List<String>> blockingLoad(List<String> value) {
+        return () -> {
+            loads.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return value;
+        };
+    }
+
+    private List<Future<List<String>>> startFollowers(SingleFlight<String, List<String>> flight,
+                                                      Supplier<List<String>> loader) {
+        List<Future<List<String>>> followers = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(executor.submit(() -> flight.execute("key", loader)));
+        }
+        return followers;
+    }
+
+    private static List<Future<List<String>>> concat(Future<List<String>> leader,
+                                                     List<Future<List<String>>> followers) {
+        List<Future<List<String>>> all = new ArrayList<>(followers);
+        all.add(0, leader);
+        return all;
+    }
+
+    private void awaitLoads(int expected) throws InterruptedException {
+        awaitUntil(() -> loads.get() == expected);
+    }
+
+    private void awaitCount(String result, int expected) throws InterruptedException {
+        awaitUntil(() -> count(result) == expected);
+    }
+
+    private void awaitUntil(Supplier<Boolean> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.get()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the callers");
+            Thread.sleep(5);
+        }
+    }
+
+    private int count(String result) {
+        return (int) meterRegistry.counter("singleflight.calls", "name", "test", "result", result).count();
+    }
+}
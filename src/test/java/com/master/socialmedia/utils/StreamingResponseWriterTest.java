@@ -0,0 +1,38 @@
+package com.master.socialmedia.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamingResponseWriterTest {
+
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private static final MediaType CBOR = MediaType.valueOf("application/cbor");
+
+    @Test
+    void prefersTheFormatWithTheHighestQuality() {
+        assertEquals(MediaType.APPLICATION_JSON,
+                StreamingResponseWriter.negotiate("application/cbor;q=0.1, application/json"));
+        assertEquals(SMILE, StreamingResponseWriter.negotiate("application/json;q=0.5, application/x-jackson-smile"));
+        assertEquals(CBOR, StreamingResponseWriter.negotiate("*/*;q=0.2, application/cbor"));
+    }
+
+    @Test
+    void breaksTiesByTheOrderOfTheAcceptHeader() {
+        assertEquals(CBOR, StreamingResponseWriter.negotiate("application/cbor, application/json"));
+        assertEquals(MediaType.APPLICATION_JSON, StreamingResponseWriter.negotiate("*/*"));
+    }
+
+    @Test
+    void neverPicksAFormatTheClientRuledOut() {
+        assertEquals(SMILE, StreamingResponseWriter.negotiate("*/*, application/json;q=0, application/cbor;q=0"));
+        assertEquals(SMILE, StreamingResponseWriter.negotiate("application/*;q=0.3, application/json;q=0"));
+    }
+
+    @Test
+    void fallsBackToJson() {
+        assertEquals(MediaType.APPLICATION_JSON, StreamingResponseWriter.negotiate(null));
+        assertEquals(MediaType.APPLICATION_JSON, StreamingResponseWriter.negotiate("text/html"));
+    }
+}
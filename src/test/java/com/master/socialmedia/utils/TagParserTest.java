@@ -0,0 +1,32 @@
+package com.master.socialmedia.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TagParserTest {
+
+    @Test
+    void extractsNormalizedHashtagsAndMentions() {
+        assertEquals(List.of("#java", "@alice", "#spring_boot", "#café"),
+                List.copyOf(TagParser.parse("#Java with @Alice, #spring_boot! #JAVA again #Café")));
+    }
+
+    @Test
+    void ignoresEmailsBareSigilsAndOverlongTags() {
+        assertEquals(List.of("@bob"), List.copyOf(TagParser.parse(
+                "mail me at bob@example.com or @bob # ## #" + "x".repeat(TagParser.MAX_LENGTH + 1))));
+    }
+
+    @Test
+    void normalizesPathValues() {
+        assertEquals("#java", TagParser.normalize(TagParser.HASHTAG, "Java"));
+        assertEquals("#java", TagParser.normalize(TagParser.HASHTAG, "#java"));
+        assertEquals("@alice", TagParser.normalize(TagParser.MENTION, "Alice"));
+        assertNull(TagParser.normalize(TagParser.HASHTAG, "no spaces"));
+        assertNull(TagParser.normalize(TagParser.HASHTAG, ""));
+    }
+}
@@ -0,0 +1,32 @@
+package com.master.socialmedia.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimePartitionedSetTest {
+
+    @Test
+    void findsKeysByTheirExpiryAndPrunesWholeExpiredBuckets() {
+        TimePartitionedSet<String> set = new TimePartitionedSet<>(1_000);
+        assertTrue(set.add("a", 1_500, 0));
+        assertTrue(set.add("b", 1_999, 0));
+        assertTrue(set.add("c", 2_000, 0));
+        assertFalse(set.add("c", 2_000, 0));
+        assertFalse(set.add("expired", 100, 100));
+
+        assertTrue(set.contains("a", 1_500));
+        assertFalse(set.contains("a", 2_500));
+        assertEquals(3, set.size());
+        assertEquals(2, set.bucketCount());
+
+        // The first bucket holds keys expiring before 2000, so it goes only once they all have.
+        assertEquals(0, set.prune(1_999));
+        assertEquals(2, set.prune(2_000));
+        assertFalse(set.contains("b", 1_999));
+        assertTrue(set.contains("c", 2_000));
+        assertEquals(1, set.size());
+    }
+}
@@ -0,0 +1,49 @@
+package com.master.socialmedia.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    @Test
+    void startsFullAndAllowsOnlyTheBurst() {
+        TokenBucket bucket = new TokenBucket(5, 0.1);
+        assertTrue(bucket.isFull());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryConsume());
+        }
+        assertFalse(bucket.tryConsume());
+        assertFalse(bucket.isFull());
+
+        long wait = bucket.nanosUntilNextToken();
+        assertTrue(wait > TimeUnit.SECONDS.toNanos(9) && wait <= TimeUnit.SECONDS.toNanos(10), "wait " + wait);
+    }
+
+    @Test
+    void refillsAtTheConfiguredRateUpToCapacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(2, 20);
+        assertTrue(bucket.tryConsume());
+        assertTrue(bucket.tryConsume());
+        assertFalse(bucket.tryConsume());
+
+        // 20 tokens a second is one every 50 ms; a long pause still leaves only the burst.
+        Thread.sleep(300);
+        assertTrue(bucket.isFull());
+        assertEquals(0, bucket.nanosUntilNextToken());
+        assertTrue(bucket.tryConsume());
+        assertTrue(bucket.tryConsume());
+        assertFalse(bucket.tryConsume());
+    }
+
+    @Test
+    void rejectsNonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}